@@ -0,0 +1,69 @@
+package ma.uiz.fsa.management_system.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.uiz.fsa.management_system.service.AttendanceCounterService;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-time creation of the unique key of {@code attendance_records} on (student, session), which scans, bulk
+ * marking and the auto-absence job insert against with {@code ON CONFLICT}. Hibernate cannot add it while
+ * duplicates exist, so for each duplicated pair the record that best reflects the attendance is kept (justified
+ * first, then an actual scan over an absence, then the earliest scan) and the others are moved to
+ * {@code attendance_records_duplicates} for review. Startup fails if the key still cannot be created.
+ * The migration is a no-op once the key exists.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceUniqueKeyMigration implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AttendanceCounterService attendanceCounterService;
+
+    @Override
+    public void run(String... args) {
+        Integer existingIndexes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_indexes " +
+                        "WHERE schemaname = current_schema() AND tablename = 'attendance_records' " +
+                        "AND indexname = 'uk_attendance_student_session'",
+                Integer.class);
+        if (existingIndexes != null && existingIndexes > 0) {
+            return;
+        }
+
+        Integer archived;
+        try {
+            archived = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS attendance_records_duplicates " +
+                        "(LIKE attendance_records, archived_at TIMESTAMP NOT NULL DEFAULT now())");
+                jdbcTemplate.execute("CREATE TEMPORARY TABLE attendance_duplicate_ids ON COMMIT DROP AS " +
+                        "SELECT id FROM (SELECT id, ROW_NUMBER() OVER (PARTITION BY student_id, session_id " +
+                        "ORDER BY is_justified DESC, (status = 'ABSENT'), scanned_at, id) AS rank " +
+                        "FROM attendance_records) d WHERE d.rank > 1");
+                int rows = jdbcTemplate.update("INSERT INTO attendance_records_duplicates " +
+                        "SELECT a.*, now() FROM attendance_records a " +
+                        "WHERE a.id IN (SELECT id FROM attendance_duplicate_ids)");
+                jdbcTemplate.update("DELETE FROM attendance_records " +
+                        "WHERE id IN (SELECT id FROM attendance_duplicate_ids)");
+                jdbcTemplate.execute("ALTER TABLE attendance_records ADD CONSTRAINT uk_attendance_student_session " +
+                        "UNIQUE (student_id, session_id)");
+                return rows;
+            });
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Could not create the unique key uk_attendance_student_session " +
+                    "on attendance_records; attendance scanning and auto-absences depend on it", e);
+        }
+
+        if (archived != null && archived > 0) {
+            log.warn("Moved {} duplicate attendance records to attendance_records_duplicates for review", archived);
+            attendanceCounterService.rebuild();
+        }
+        log.info("Created unique key on attendance_records (student_id, session_id)");
+    }
+}
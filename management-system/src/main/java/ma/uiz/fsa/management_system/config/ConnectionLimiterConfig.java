@@ -0,0 +1,52 @@
+package ma.uiz.fsa.management_system.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data source in a {@link ConnectionLimitingDataSource} sized to the Hikari pool.
+ * Enabled by {@code datasource.connection-limiter.enabled}, which the {@code virtual} profile turns on.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.connection-limiter.enabled", havingValue = "true")
+@Slf4j
+public class ConnectionLimiterConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimiterPostProcessor(Environment environment,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        int maxConnections = environment.getProperty(
+                "spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        long acquireTimeoutMs = environment.getProperty(
+                "spring.datasource.hikari.connection-timeout", Long.class, 30000L);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+
+                ConnectionLimitingDataSource limited =
+                        new ConnectionLimitingDataSource(dataSource, maxConnections, acquireTimeoutMs);
+                meterRegistry.ifAvailable(registry ->
+                        Gauge.builder("datasource.connection-limiter.waiting", limited,
+                                        ConnectionLimitingDataSource::getWaitingThreads)
+                                .description("Threads waiting for a database connection permit")
+                                .register(registry));
+
+                log.info("Limiting data source '{}' to {} concurrent connections", beanName, maxConnections);
+                return limited;
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package ma.uiz.fsa.management_system.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-time creation of the unique key of {@code evaluations} on (student, module, type, date), which bulk grading
+ * upserts against. Hibernate cannot add it while duplicates exist, so for each duplicated key the evaluation
+ * a re-submission would have kept stays in place (the validated one if any, otherwise the most recently updated)
+ * and the others are moved to {@code evaluations_duplicates}, where they can be reviewed and restored.
+ * No grade is deleted. Startup fails if the key still cannot be created. The migration is a no-op once
+ * the index exists.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EvaluationUniqueKeyMigration implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(String... args) {
+        Integer existingIndexes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_indexes " +
+                        "WHERE schemaname = current_schema() AND tablename = 'evaluations' " +
+                        "AND indexname = 'uk_evaluations_student_module_type_date'",
+                Integer.class);
+        if (existingIndexes != null && existingIndexes > 0) {
+            return;
+        }
+
+        Integer archived;
+        try {
+            archived = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS evaluations_duplicates " +
+                        "(LIKE evaluations, archived_at TIMESTAMP NOT NULL DEFAULT now())");
+                jdbcTemplate.execute("CREATE TEMPORARY TABLE evaluation_duplicate_ids ON COMMIT DROP AS " +
+                        "SELECT id FROM (SELECT id, ROW_NUMBER() OVER (" +
+                        "PARTITION BY student_id, module_id, type, date " +
+                        "ORDER BY is_validated DESC, updated_at DESC, id) AS rank FROM evaluations) d " +
+                        "WHERE d.rank > 1");
+                int rows = jdbcTemplate.update("INSERT INTO evaluations_duplicates " +
+                        "SELECT e.*, now() FROM evaluations e " +
+                        "WHERE e.id IN (SELECT id FROM evaluation_duplicate_ids)");
+                jdbcTemplate.update("DELETE FROM evaluations WHERE id IN (SELECT id FROM evaluation_duplicate_ids)");
+                jdbcTemplate.execute("CREATE UNIQUE INDEX uk_evaluations_student_module_type_date " +
+                        "ON evaluations (student_id, module_id, type, date)");
+                return rows;
+            });
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Could not create the unique key uk_evaluations_student_module_type_date " +
+                    "on evaluations; bulk grading depends on it", e);
+        }
+
+        if (archived != null && archived > 0) {
+            log.warn("Moved {} duplicate evaluations to evaluations_duplicates for review, " +
+                    "none of them was deleted", archived);
+        }
+        log.info("Created unique key on evaluations (student_id, module_id, type, date)");
+    }
+}
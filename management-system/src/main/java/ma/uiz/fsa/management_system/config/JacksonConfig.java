@@ -0,0 +1,21 @@
+package ma.uiz.fsa.management_system.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * DTOs subject to sparse fieldsets are written in full unless the request narrows them
+     * with {@code fields=}, see {@link SparseFieldsetAdvice}
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsetDefaultFilter() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .addFilter(SparseFieldsetAdvice.FILTER_ID, SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
@@ -1,15 +1,71 @@
 package ma.uiz.fsa.management_system.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Password encoding strategy.
+ *
+ * Hashes are stored with an {@code {id}} prefix through a {@link DelegatingPasswordEncoder}; legacy hashes without
+ * a prefix are still matched as BCrypt. The BCrypt cost is either fixed ({@code security.password.bcrypt-strength})
+ * or, when {@code security.password.bcrypt-target-duration} is set, measured at startup as the highest cost whose
+ * hash stays within that duration on this machine. Hashes with another encoder or a lower cost are re-encoded on
+ * the next successful login (see {@code UserDetailsServiceImpl#updatePassword}).
+ */
 @Configuration
+@Slf4j
 public class PasswordEncoderConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 14;
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password.bcrypt-strength:12}") int bcryptStrength,
+            @Value("${security.password.bcrypt-target-duration:#{null}}") Duration bcryptTargetDuration) {
+        int strength = bcryptTargetDuration != null ? measureBcryptStrength(bcryptTargetDuration) : bcryptStrength;
+        log.info("Password hashing with BCrypt strength {}", strength);
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(
+                BCRYPT_ID, Map.of(BCRYPT_ID, new BCryptPasswordEncoder(strength)));
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt
+        passwordEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return passwordEncoder;
+    }
+
+    /**
+     * Highest BCrypt strength hashing within the target duration. Each strength step doubles the work,
+     * so a single timing at the minimum strength is enough to extrapolate.
+     */
+    private int measureBcryptStrength(Duration targetDuration) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH);
+        encoder.encode("warm-up");
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long startNanos = System.nanoTime();
+            encoder.encode("calibration");
+            bestNanos = Math.min(bestNanos, System.nanoTime() - startNanos);
+        }
+
+        int strength = MIN_BCRYPT_STRENGTH;
+        long nanos = bestNanos;
+        while (strength < MAX_BCRYPT_STRENGTH && nanos * 2 <= targetDuration.toNanos()) {
+            nanos *= 2;
+            strength++;
+        }
+
+        log.info("Measured BCrypt strength {} ({} ms at strength {}, target {} ms)",
+                strength, bestNanos / 1_000_000, MIN_BCRYPT_STRENGTH, targetDuration.toMillis());
+        return strength;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package ma.uiz.fsa.management_system.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-time migration of the Base64 QR code images stored in the {@code students} and {@code sessions}
+ * TEXT columns into binary rows of {@code qr_code_images}. The legacy column is dropped in the same
+ * transaction once its images are copied; the migration is a no-op when the column no longer exists.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QrCodeImageMigration implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(String... args) {
+        migrate("students", "user_id", "STUDENT");
+        migrate("sessions", "id", "SESSION");
+    }
+
+    private void migrate(String table, String idColumn, String ownerType) {
+        Integer legacyColumns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'qr_code_image'",
+                Integer.class, table);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
+        }
+
+        Integer migrated = transactionTemplate.execute(status -> {
+            int rows = jdbcTemplate.update(
+                    "INSERT INTO qr_code_images (owner_id, owner_type, qr_code, image, created_at) " +
+                            "SELECT " + idColumn + ", ?, qr_code, decode(qr_code_image, 'base64'), now() " +
+                            "FROM " + table + " " +
+                            "WHERE qr_code_image IS NOT NULL AND qr_code IS NOT NULL " +
+                            "ON CONFLICT (owner_id) DO NOTHING",
+                    ownerType);
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN qr_code_image");
+            return rows;
+        });
+
+        log.info("Moved {} QR code images from {}.qr_code_image to qr_code_images", migrated, table);
+    }
+}
@@ -0,0 +1,49 @@
+package ma.uiz.fsa.management_system.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-time migration of the plain-text {@code refresh_tokens.token} column to {@code token_hash}.
+ * Existing tokens are hashed in place with the same SHA-256 hex encoding as the application, so they stay valid;
+ * the legacy column is dropped in the same transaction. The migration is a no-op once the column is gone.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenHashMigration implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(String... args) {
+        Integer legacyColumns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name = 'refresh_tokens' " +
+                        "AND column_name = 'token'",
+                Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
+        }
+
+        Integer migrated = transactionTemplate.execute(status -> {
+            // Hibernate cannot add the NOT NULL column to a populated table, so it may be missing
+            jdbcTemplate.execute("ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS token_hash VARCHAR(64)");
+            int rows = jdbcTemplate.update(
+                    "UPDATE refresh_tokens SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex') " +
+                            "WHERE token_hash IS NULL");
+            jdbcTemplate.execute("ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL");
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_refresh_tokens_token_hash " +
+                    "ON refresh_tokens (token_hash)");
+            jdbcTemplate.execute("ALTER TABLE refresh_tokens DROP COLUMN token");
+            return rows;
+        });
+
+        log.info("Hashed {} refresh tokens into refresh_tokens.token_hash", migrated);
+    }
+}
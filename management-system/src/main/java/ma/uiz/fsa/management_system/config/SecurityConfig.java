@@ -39,6 +39,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder);
+        // Re-encode outdated password hashes after a successful login
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
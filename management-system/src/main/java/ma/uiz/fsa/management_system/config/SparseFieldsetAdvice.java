@@ -0,0 +1,59 @@
+package ma.uiz.fsa.management_system.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets: {@code ?fields=firstName,lastName,cne} limits the DTOs annotated with
+ * {@code @JsonFilter(FILTER_ID)} to the listed properties, plus {@code id} which is always kept.
+ *
+ * Applies to every JSON response, the DTO itself and the DTOs nested in a page alike. Unknown names are ignored,
+ * nested objects of a kept property are written in full.
+ */
+@RestControllerAdvice
+public class SparseFieldsetAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    public static final String FILTER_ID = "sparseFieldset";
+
+    public static final String FIELDS_PARAMETER = "fields";
+
+    public static final String FIELDS_DESCRIPTION =
+            "Comma-separated properties to return, e.g. firstName,lastName,cne. All properties when omitted";
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String[] values = servletRequest.getServletRequest().getParameterValues(FIELDS_PARAMETER);
+        if (values == null) {
+            return;
+        }
+
+        Set<String> fields = new HashSet<>();
+        fields.add("id");
+        for (String value : values) {
+            for (String field : value.split(",")) {
+                if (!field.isBlank()) {
+                    fields.add(field.trim());
+                }
+            }
+        }
+
+        bodyContainer.setFilters(new SimpleFilterProvider()
+                .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+    }
+}
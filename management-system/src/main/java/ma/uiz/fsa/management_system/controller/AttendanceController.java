@@ -3,6 +3,7 @@ package ma.uiz.fsa.management_system.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import ma.uiz.fsa.management_system.dto.request.*;
@@ -18,6 +19,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -25,6 +27,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -37,6 +40,7 @@ import java.util.UUID;
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
+    private final JsonArrayStreamer jsonArrayStreamer;
     private final StudentRepository studentRepository;
 
     @PostMapping
@@ -79,9 +83,9 @@ public class AttendanceController {
     @PostMapping("/bulk")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
     @Operation(summary = "Record bulk attendance", description = "Admin or Professor - Record attendance for multiple students at once")
-    public ResponseEntity<MessageResponse> recordBulkAttendance(
+    public ResponseEntity<BulkAttendanceResponseDto> recordBulkAttendance(
             @Valid @RequestBody BulkAttendanceDto bulkDto) {
-        MessageResponse response = attendanceService.recordBulkAttendance(bulkDto);
+        BulkAttendanceResponseDto response = attendanceService.recordBulkAttendance(bulkDto);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
@@ -131,14 +135,30 @@ public class AttendanceController {
         return ResponseEntity.ok(PageResponse.of(response));
     }
 
-    @GetMapping("/simple")
+    @GetMapping("/scroll")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
-    @Operation(summary = "Get all attendance records (simple)", description = "Get all attendance records with minimal information")
-    public ResponseEntity<List<AttendanceRecordSimpleResponseDto>> getAllAttendanceRecordsSimple() {
-        List<AttendanceRecordSimpleResponseDto> response = attendanceService.getAllAttendanceRecordsSimple();
+    @Operation(summary = "Scroll attendance records",
+            description = "Newest scans first, cursor-paginated. " +
+                    "Pass the nextCursor of a page to get the following one, totalElements is counted on demand")
+    public ResponseEntity<CursorPageResponse<AttendanceRecordResponseDto>> scrollAttendanceRecords(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
+
+        CursorPageResponse<AttendanceRecordResponseDto> response = attendanceService.scrollAttendanceRecords(
+                cursor, size, includeTotal);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/simple", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
+    @Operation(summary = "Get all attendance records (simple)",
+            description = "Get all attendance records with minimal information, " +
+                    "streamed as they are read from the database")
+    public void getAllAttendanceRecordsSimple(HttpServletResponse response) throws IOException {
+        jsonArrayStreamer.write(response, attendanceService::streamAllAttendanceRecordsSimple);
+    }
+
     @GetMapping("/student/{studentId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR', 'STUDENT')")
     @Operation(summary = "Get attendance by student", description = "Get all attendance records for a specific student")
@@ -196,6 +216,22 @@ public class AttendanceController {
         return ResponseEntity.ok(PageResponse.of(response));
     }
 
+    @GetMapping("/module/{moduleId}/scroll")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
+    @Operation(summary = "Scroll attendance by module",
+            description = "Newest scans of a module first, cursor-paginated. " +
+                    "Pass the nextCursor of a page to get the following one, totalElements is counted on demand")
+    public ResponseEntity<CursorPageResponse<AttendanceRecordResponseDto>> scrollAttendanceByModule(
+            @PathVariable UUID moduleId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
+
+        CursorPageResponse<AttendanceRecordResponseDto> response = attendanceService.scrollAttendanceByModule(
+                moduleId, cursor, size, includeTotal);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/module/{moduleId}/student/{studentId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR', 'STUDENT')")
     @Operation(summary = "Get attendance by module and student", description = "Get attendance records for a specific student in a module")
@@ -274,6 +310,21 @@ public class AttendanceController {
         return ResponseEntity.ok(PageResponse.of(response));
     }
 
+    @GetMapping("/unjustified-absences/scroll")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
+    @Operation(summary = "Scroll unjustified absences",
+            description = "Newest unjustified absences first, cursor-paginated. " +
+                    "Pass the nextCursor of a page to get the following one, totalElements is counted on demand")
+    public ResponseEntity<CursorPageResponse<AttendanceRecordResponseDto>> scrollUnjustifiedAbsences(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
+
+        CursorPageResponse<AttendanceRecordResponseDto> response = attendanceService.scrollUnjustifiedAbsences(
+                cursor, size, includeTotal);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/student/{studentId}/unjustified-absences")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR', 'STUDENT')")
     @Operation(summary = "Get student's unjustified absences", description = "Get all unjustified absences for a specific student")
@@ -320,6 +371,33 @@ public class AttendanceController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/statistics/students")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
+    @Operation(summary = "Get attendance statistics for several students", description = "Get attendance statistics for a list of students in one request")
+    public ResponseEntity<List<AttendanceStatisticsDto>> getStudentsAttendanceStatistics(
+            @RequestParam List<UUID> ids) {
+        List<AttendanceStatisticsDto> response = attendanceService.getStudentsAttendanceStatistics(ids);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/statistics/modules")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
+    @Operation(summary = "Get attendance statistics for several modules", description = "Get attendance statistics for a list of modules in one request")
+    public ResponseEntity<List<AttendanceStatisticsDto>> getModulesAttendanceStatistics(
+            @RequestParam List<UUID> ids) {
+        List<AttendanceStatisticsDto> response = attendanceService.getModulesAttendanceStatistics(ids);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/statistics/sessions")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
+    @Operation(summary = "Get attendance statistics for several sessions", description = "Get attendance statistics for a list of sessions in one request")
+    public ResponseEntity<List<AttendanceStatisticsDto>> getSessionsAttendanceStatistics(
+            @RequestParam List<UUID> ids) {
+        List<AttendanceStatisticsDto> response = attendanceService.getSessionsAttendanceStatistics(ids);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/statistics/session/{sessionId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
     @Operation(summary = "Get session attendance statistics", description = "Get attendance statistics for a specific session")
@@ -329,6 +407,23 @@ public class AttendanceController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/statistics/group/{groupId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
+    @Operation(summary = "Get group attendance statistics", description = "Get attendance statistics for a specific group")
+    public ResponseEntity<AttendanceStatisticsDto> getGroupAttendanceStatistics(
+            @PathVariable UUID groupId) {
+        AttendanceStatisticsDto response = attendanceService.getGroupAttendanceStatistics(groupId);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/statistics/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild attendance counters", description = "Admin only - Recompute the attendance statistics counters from the attendance records")
+    public ResponseEntity<MessageResponse> rebuildAttendanceCounters() {
+        MessageResponse response = attendanceService.rebuildAttendanceCounters();
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Delete attendance record", description = "Admin only - Delete an attendance record by ID")
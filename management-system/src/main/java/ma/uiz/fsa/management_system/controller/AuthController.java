@@ -8,6 +8,7 @@ import ma.uiz.fsa.management_system.dto.response.JwtResponse;
 import ma.uiz.fsa.management_system.dto.response.MessageResponse;
 import ma.uiz.fsa.management_system.dto.response.RefreshTokenResponse;
 import ma.uiz.fsa.management_system.dto.response.UserInfoResponse;
+import ma.uiz.fsa.management_system.security.LoginExecutor;
 import ma.uiz.fsa.management_system.service.AuthService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +17,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -23,15 +26,17 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginExecutor loginExecutor;
 
     /**
      * Login endpoint
      * POST /api/auth/login
      */
     @PostMapping("/login")
-    public ResponseEntity<JwtResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
-        JwtResponse response = authService.login(loginRequest);
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<JwtResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
+        // Password hashing runs on the login pool; the request thread is released meanwhile
+        return loginExecutor.submit(() -> authService.login(loginRequest))
+                .thenApply(ResponseEntity::ok);
     }
 
     /**
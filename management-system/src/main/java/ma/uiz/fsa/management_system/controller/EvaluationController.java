@@ -3,6 +3,7 @@ package ma.uiz.fsa.management_system.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import ma.uiz.fsa.management_system.dto.request.BulkEvaluationDto;
@@ -17,10 +18,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -33,6 +36,7 @@ import java.util.UUID;
 public class EvaluationController {
 
     private final EvaluationService evaluationService;
+    private final JsonArrayStreamer jsonArrayStreamer;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
@@ -45,10 +49,13 @@ public class EvaluationController {
 
     @PostMapping("/bulk")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
-    @Operation(summary = "Create bulk evaluations", description = "Admin or Professor - Create evaluations for multiple students at once")
-    public ResponseEntity<MessageResponse> createBulkEvaluations(
+    @Operation(summary = "Create bulk evaluations",
+            description = "Admin or Professor - Create evaluations for multiple students at once. Re-submitting a " +
+                    "grade for the same student, type and date updates it unless it is validated. " +
+                    "Returns the outcome of each grade.")
+    public ResponseEntity<BulkEvaluationResponseDto> createBulkEvaluations(
             @Valid @RequestBody BulkEvaluationDto bulkDto) {
-        MessageResponse response = evaluationService.createBulkEvaluations(bulkDto);
+        BulkEvaluationResponseDto response = evaluationService.createBulkEvaluations(bulkDto);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
@@ -96,14 +103,29 @@ public class EvaluationController {
         return ResponseEntity.ok(PageResponse.of(response));
     }
 
-    @GetMapping("/simple")
+    @GetMapping("/scroll")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
-    @Operation(summary = "Get all evaluations (simple)", description = "Get all evaluations with minimal information")
-    public ResponseEntity<List<EvaluationSimpleResponseDto>> getAllEvaluationsSimple() {
-        List<EvaluationSimpleResponseDto> response = evaluationService.getAllEvaluationsSimple();
+    @Operation(summary = "Scroll evaluations",
+            description = "Newest evaluations first, cursor-paginated. " +
+                    "Pass the nextCursor of a page to get the following one, totalElements is counted on demand")
+    public ResponseEntity<CursorPageResponse<EvaluationResponseDto>> scrollEvaluations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
+
+        CursorPageResponse<EvaluationResponseDto> response = evaluationService.scrollEvaluations(
+                cursor, size, includeTotal);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/simple", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
+    @Operation(summary = "Get all evaluations (simple)",
+            description = "Get all evaluations with minimal information, streamed as they are read from the database")
+    public void getAllEvaluationsSimple(HttpServletResponse response) throws IOException {
+        jsonArrayStreamer.write(response, evaluationService::streamAllEvaluationsSimple);
+    }
+
     @GetMapping("/student/{studentId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR', 'STUDENT')")
     @Operation(summary = "Get evaluations by student", description = "Get all evaluations for a specific student")
@@ -3,11 +3,11 @@ package ma.uiz.fsa.management_system.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import ma.uiz.fsa.management_system.dto.request.FiliereRequestDto;
 import ma.uiz.fsa.management_system.dto.response.FiliereResponseDto;
-import ma.uiz.fsa.management_system.dto.response.FiliereSimpleResponseDto;
 import ma.uiz.fsa.management_system.dto.response.MessageResponse;
 import ma.uiz.fsa.management_system.dto.response.PageResponse;
 import ma.uiz.fsa.management_system.model.enums.DegreeType;
@@ -17,11 +17,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
 import java.util.UUID;
 
 @RestController
@@ -32,6 +33,7 @@ import java.util.UUID;
 public class FiliereController {
 
     private final FiliereService filiereService;
+    private final JsonArrayStreamer jsonArrayStreamer;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -86,12 +88,12 @@ public class FiliereController {
         return ResponseEntity.ok(PageResponse.of(response));
     }
 
-    @GetMapping("/simple")
+    @GetMapping(value = "/simple", produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR', 'STUDENT')")
-    @Operation(summary = "Get all filieres (simple)", description = "Get all filieres with minimal information")
-    public ResponseEntity<List<FiliereSimpleResponseDto>> getAllFilieresSimple() {
-        List<FiliereSimpleResponseDto> response = filiereService.getAllFilieresSimple();
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Get all filieres (simple)",
+            description = "Get all filieres with minimal information, streamed as they are read from the database")
+    public void getAllFilieresSimple(HttpServletResponse response) throws IOException {
+        jsonArrayStreamer.write(response, filiereService::streamAllFilieresSimple);
     }
 
     @GetMapping("/department/{departmentId}")
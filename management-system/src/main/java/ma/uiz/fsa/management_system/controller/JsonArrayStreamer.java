@@ -0,0 +1,56 @@
+package ma.uiz.fsa.management_system.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes a JSON array to the response one element at a time, as a service produces them, so a listing of any
+ * size is sent with a constant amount of memory.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonArrayStreamer {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param producer called with the consumer of the elements, typically a service method reading a repository
+     *                 stream within its transaction
+     */
+    public <T> void write(HttpServletResponse response, Consumer<Consumer<T>> producer) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        try {
+            generator.writeStartArray();
+            producer.accept(element -> {
+                try {
+                    generator.writeObject(element);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.close();
+        } catch (UncheckedIOException e) {
+            // The client went away
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            // Nothing sent yet: drop the buffered output so the error is reported as a regular error response
+            if (!response.isCommitted()) {
+                response.resetBuffer();
+            }
+            throw e;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ma.uiz.fsa.management_system.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import ma.uiz.fsa.management_system.dto.request.AssignProfessorsDto;
@@ -18,10 +19,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
 
@@ -33,6 +36,7 @@ import java.util.UUID;
 public class ModuleController {
 
     private final ModuleService moduleService;
+    private final JsonArrayStreamer jsonArrayStreamer;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -87,12 +91,12 @@ public class ModuleController {
         return ResponseEntity.ok(PageResponse.of(response));
     }
 
-    @GetMapping("/simple")
+    @GetMapping(value = "/simple", produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR', 'STUDENT')")
-    @Operation(summary = "Get all modules (simple)", description = "Get all modules with minimal information")
-    public ResponseEntity<List<ModuleSimpleResponseDto>> getAllModulesSimple() {
-        List<ModuleSimpleResponseDto> response = moduleService.getAllModulesSimple();
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Get all modules (simple)",
+            description = "Get all modules with minimal information, streamed as they are read from the database")
+    public void getAllModulesSimple(HttpServletResponse response) throws IOException {
+        jsonArrayStreamer.write(response, moduleService::streamAllModulesSimple);
     }
 
     @GetMapping("/semester/{semesterId}")
@@ -1,19 +1,23 @@
 package ma.uiz.fsa.management_system.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import ma.uiz.fsa.management_system.config.SparseFieldsetAdvice;
 import ma.uiz.fsa.management_system.dto.request.SessionRequestDto;
 import ma.uiz.fsa.management_system.dto.request.SessionUpdateDto;
 import ma.uiz.fsa.management_system.dto.response.MessageResponse;
 import ma.uiz.fsa.management_system.dto.response.PageResponse;
 import ma.uiz.fsa.management_system.dto.response.SessionResponseDto;
 import ma.uiz.fsa.management_system.dto.response.SessionSimpleResponseDto;
-import ma.uiz.fsa.management_system.exception.ResourceNotFoundException;
 import ma.uiz.fsa.management_system.model.enums.AttendanceMode;
 import ma.uiz.fsa.management_system.model.enums.SessionType;
+import ma.uiz.fsa.management_system.service.QrArtifactCache;
 import ma.uiz.fsa.management_system.service.SessionService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -24,8 +28,8 @@ import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -38,6 +42,7 @@ import java.util.UUID;
 public class SessionController {
 
     private final SessionService sessionService;
+    private final JsonArrayStreamer jsonArrayStreamer;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
@@ -69,6 +74,8 @@ public class SessionController {
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
     @Operation(summary = "Get all sessions", description = "Get all sessions with pagination")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<SessionResponseDto>> getAllSessions(
             @RequestParam(required = false, defaultValue = "0") int page,
             @RequestParam(required = false, defaultValue = "10") int size,
@@ -84,17 +91,19 @@ public class SessionController {
         return ResponseEntity.ok(PageResponse.of(response));
     }
 
-    @GetMapping("/simple")
+    @GetMapping(value = "/simple", produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
-    @Operation(summary = "Get all sessions (simple)", description = "Get all sessions with minimal information")
-    public ResponseEntity<List<SessionSimpleResponseDto>> getAllSessionsSimple() {
-        List<SessionSimpleResponseDto> response = sessionService.getAllSessionsSimple();
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Get all sessions (simple)",
+            description = "Get all sessions with minimal information, streamed as they are read from the database")
+    public void getAllSessionsSimple(HttpServletResponse response) throws IOException {
+        jsonArrayStreamer.write(response, sessionService::streamAllSessionsSimple);
     }
 
     @GetMapping("/module/{moduleId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR', 'STUDENT')")
     @Operation(summary = "Get sessions by module", description = "Get all sessions for a specific module")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<SessionResponseDto>> getSessionsByModule(
             @PathVariable UUID moduleId,
             @RequestParam(required = false, defaultValue = "0") int page,
@@ -114,6 +123,8 @@ public class SessionController {
     @GetMapping("/professor/{professorId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
     @Operation(summary = "Get sessions by professor", description = "Get all sessions for a specific professor")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<SessionResponseDto>> getSessionsByProfessor(
             @PathVariable UUID professorId,
             @RequestParam(required = false, defaultValue = "0") int page,
@@ -151,6 +162,8 @@ public class SessionController {
     @GetMapping("/group/{groupId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR', 'STUDENT')")
     @Operation(summary = "Get sessions by group", description = "Get all sessions for a specific group")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<SessionResponseDto>> getSessionsByGroup(
             @PathVariable UUID groupId,
             @RequestParam(required = false, defaultValue = "0") int page,
@@ -170,6 +183,8 @@ public class SessionController {
     @GetMapping("/type/{type}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
     @Operation(summary = "Get sessions by type", description = "Get all sessions of a specific type")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<SessionResponseDto>> getSessionsByType(
             @PathVariable SessionType type,
             @RequestParam(required = false, defaultValue = "0") int page,
@@ -189,6 +204,8 @@ public class SessionController {
     @GetMapping("/date-range")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR', 'STUDENT')")
     @Operation(summary = "Get sessions by date range", description = "Get sessions within a specific date range")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<SessionResponseDto>> getSessionsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
@@ -209,6 +226,8 @@ public class SessionController {
     @GetMapping("/completed")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
     @Operation(summary = "Get completed sessions", description = "Get all completed sessions")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<SessionResponseDto>> getCompletedSessions(
             @RequestParam(required = false, defaultValue = "0") int page,
             @RequestParam(required = false, defaultValue = "10") int size,
@@ -227,6 +246,8 @@ public class SessionController {
     @GetMapping("/incomplete")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
     @Operation(summary = "Get incomplete sessions", description = "Get all incomplete sessions")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<SessionResponseDto>> getIncompleteSessions(
             @RequestParam(required = false, defaultValue = "0") int page,
             @RequestParam(required = false, defaultValue = "10") int size,
@@ -245,6 +266,8 @@ public class SessionController {
     @GetMapping("/upcoming")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR', 'STUDENT')")
     @Operation(summary = "Get upcoming sessions", description = "Get all upcoming sessions")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<SessionResponseDto>> getUpcomingSessions(
             @RequestParam(required = false, defaultValue = "0") int page,
             @RequestParam(required = false, defaultValue = "10") int size,
@@ -263,6 +286,8 @@ public class SessionController {
     @GetMapping("/search")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR', 'STUDENT')")
     @Operation(summary = "Search sessions", description = "Search sessions by location, module, or professor")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<SessionResponseDto>> searchSessions(
             @RequestParam String searchTerm,
             @RequestParam(required = false, defaultValue = "0") int page,
@@ -376,13 +401,7 @@ public class SessionController {
     @Operation(summary = "Get session QR code image",
             description = "Get session QR code as PNG image")
     public ResponseEntity<byte[]> getSessionQrCode(@PathVariable UUID id) {
-        SessionResponseDto session = sessionService.getSessionById(id);
-
-        if (session.getQrCodeImage() == null) {
-            throw new ResourceNotFoundException("QR code not generated for this session");
-        }
-
-        byte[] imageBytes = Base64.getDecoder().decode(session.getQrCodeImage());
+        QrArtifactCache.QrArtifact qrCode = sessionService.getSessionQrArtifact(id);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.IMAGE_PNG);
@@ -392,7 +411,13 @@ public class SessionController {
                         .build()
         );
 
-        return new ResponseEntity<>(imageBytes, headers, HttpStatus.OK);
+        // Spring answers 304 Not Modified when If-None-Match matches the ETag;
+        // no-cache makes clients revalidate so a regenerated QR code is picked up on the next refresh
+        return ResponseEntity.ok()
+                .headers(headers)
+                .eTag(qrCode.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(qrCode.png());
     }
 
     @PatchMapping("/{id}/attendance-mode")
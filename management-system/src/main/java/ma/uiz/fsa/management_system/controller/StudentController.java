@@ -1,15 +1,21 @@
 package ma.uiz.fsa.management_system.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import ma.uiz.fsa.management_system.config.SparseFieldsetAdvice;
 import ma.uiz.fsa.management_system.dto.request.BulkStudentRequestDto;
 import ma.uiz.fsa.management_system.dto.request.ChangePasswordRequest;
 import ma.uiz.fsa.management_system.dto.request.StudentRequestDto;
 import ma.uiz.fsa.management_system.dto.request.StudentUpdateDto;
 import ma.uiz.fsa.management_system.dto.response.*;
+import ma.uiz.fsa.management_system.service.StudentRosterCsvReader;
 import ma.uiz.fsa.management_system.service.StudentService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -20,8 +26,11 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -33,6 +42,8 @@ import java.util.concurrent.TimeUnit;
 public class StudentController {
 
     private final StudentService studentService;
+    private final JsonArrayStreamer jsonArrayStreamer;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/bulk")
     @PreAuthorize("hasRole('ADMIN')")
@@ -45,6 +56,49 @@ public class StudentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping(value = "/bulk/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Import a student roster from a CSV file",
+            description = "Admin only - Register the students of a CSV roster in the specified filiere. " +
+                    "The file needs a header row with the columns email, password, username, cne, cin, firstName, " +
+                    "lastName and dateOfBirth, optionally phoneNumber, address and photoUrl. Rows are imported in " +
+                    "chunks, each committed on its own, and the outcome of every row is streamed back as one " +
+                    "NDJSON line as soon as its chunk is committed, followed by a summary line.")
+    public void importStudentRoster(
+            @RequestParam UUID filiereId,
+            @RequestParam("file") MultipartFile file,
+            HttpServletResponse response) throws IOException {
+        // Filiere and header problems are reported as regular errors, before the stream starts
+        try (StudentRosterCsvReader roster = studentService.openRosterImport(filiereId, file.getInputStream())) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            OutputStream out = response.getOutputStream();
+
+            StudentImportSummaryDto summary;
+            try {
+                summary = studentService.importRoster(filiereId, roster, rows -> {
+                    rows.forEach(row -> writeNdjsonLine(out, row));
+                    flush(out);
+                });
+            } catch (UncheckedIOException e) {
+                // The client went away; chunks already committed stay imported
+                throw e.getCause();
+            }
+            writeNdjsonLine(out, summary);
+            out.flush();
+        }
+    }
+
+    @GetMapping("/bulk/{importId}/qr-codes")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get QR code generation progress of a bulk import",
+            description = "Admin only - QR code images of students created in bulk are generated in the background. " +
+                    "Returns how many are generated, pending or failed for the given import.")
+    public ResponseEntity<QrCodeBackfillStatusDto> getBulkQrCodeStatus(@PathVariable UUID importId) {
+        return ResponseEntity.ok(studentService.getBulkQrCodeStatus(importId));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Create a new student", description = "Admin only - Register a new student")
@@ -99,6 +153,8 @@ public class StudentController {
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
     @Operation(summary = "Get all students", description = "Get all students with pagination")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<StudentResponseDto>> getAllStudents(
             @RequestParam(required = false, defaultValue = "0") int page,
             @RequestParam(required = false, defaultValue = "10") int size,
@@ -114,17 +170,19 @@ public class StudentController {
         return ResponseEntity.ok(PageResponse.of(response));
     }
 
-    @GetMapping("/simple")
+    @GetMapping(value = "/simple", produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
-    @Operation(summary = "Get all students (simple)", description = "Get all students with minimal information")
-    public ResponseEntity<List<StudentSimpleResponseDto>> getAllStudentsSimple() {
-        List<StudentSimpleResponseDto> response = studentService.getAllStudentsSimple();
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Get all students (simple)",
+            description = "Get all students with minimal information, streamed as they are read from the database")
+    public void getAllStudentsSimple(HttpServletResponse response) throws IOException {
+        jsonArrayStreamer.write(response, studentService::streamAllStudentsSimple);
     }
 
     @GetMapping("/filiere/{filiereId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
     @Operation(summary = "Get students by filiere", description = "Get all students in a specific filiere")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<StudentResponseDto>> getStudentsByFiliere(
             @PathVariable UUID filiereId,
             @RequestParam(required = false, defaultValue = "0") int page,
@@ -144,6 +202,8 @@ public class StudentController {
     @GetMapping("/group/{groupId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
     @Operation(summary = "Get students by group", description = "Get all students in a specific group")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<StudentResponseDto>> getStudentsByGroup(
             @PathVariable UUID groupId,
             @RequestParam(required = false, defaultValue = "0") int page,
@@ -163,6 +223,8 @@ public class StudentController {
     @GetMapping("/search")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
     @Operation(summary = "Search students", description = "Search students by name, email, CNE, CIN, or filiere")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<StudentResponseDto>> searchStudents(
             @RequestParam String searchTerm,
             @RequestParam(required = false, defaultValue = "0") int page,
@@ -182,6 +244,8 @@ public class StudentController {
     @GetMapping("/active")
     @PreAuthorize("hasAnyRole('ADMIN', 'PROFESSOR')")
     @Operation(summary = "Get active students", description = "Get all active students")
+    @Parameter(name = SparseFieldsetAdvice.FIELDS_PARAMETER, in = ParameterIn.QUERY,
+            description = SparseFieldsetAdvice.FIELDS_DESCRIPTION)
     public ResponseEntity<PageResponse<StudentResponseDto>> getActiveStudents(
             @RequestParam(required = false, defaultValue = "0") int page,
             @RequestParam(required = false, defaultValue = "10") int size,
@@ -286,4 +350,22 @@ public class StudentController {
 
         return null; // Admin or Professor - no restriction
     }
-}
\ No newline at end of file
+
+    private void writeNdjsonLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Sends each committed chunk right away instead of whenever the servlet buffer fills up
+    private static void flush(OutputStream out) {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
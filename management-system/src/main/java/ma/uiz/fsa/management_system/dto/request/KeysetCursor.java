@@ -0,0 +1,69 @@
+package ma.uiz.fsa.management_system.dto.request;
+
+import ma.uiz.fsa.management_system.exception.BadRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a listing ordered by a timestamp then id, newest first: the last row of the previous page.
+ *
+ * Clients see it as an opaque URL-safe token. The next page is read with a row comparison
+ * {@code (timestamp, id) < (:timestamp, :id)} served by an index on the same columns, so its cost does not grow
+ * with the number of rows already read as an offset would.
+ */
+public record KeysetCursor(LocalDateTime timestamp, UUID id) {
+
+    /**
+     * Position before every row, so the first page is read with the same query as the following ones
+     */
+    public static final KeysetCursor FIRST = new KeysetCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59), new UUID(-1L, -1L));
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String position = timestamp + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor received from a client
+     *
+     * @return the cursor, or {@link #FIRST} when none is given
+     * @throws BadRequestException if the cursor was not produced by {@link #encode()}
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(SEPARATOR);
+            return new KeysetCursor(
+                    LocalDateTime.parse(position.substring(0, separator)),
+                    UUID.fromString(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Page of {@code size} rows plus one, which tells whether a next page exists without counting
+     *
+     * @throws BadRequestException if the size is not between 1 and {@link #MAX_PAGE_SIZE}
+     */
+    public static Pageable window(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return PageRequest.of(0, size + 1);
+    }
+}
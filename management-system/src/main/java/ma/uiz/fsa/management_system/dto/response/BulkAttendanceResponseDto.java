@@ -0,0 +1,38 @@
+package ma.uiz.fsa.management_system.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkAttendanceResponseDto {
+
+    private UUID sessionId;
+    private int totalRequested;
+    private int recordedCount;
+    private int skippedCount;
+    private int failureCount;
+    private List<StudentResult> results;
+
+    public enum Outcome {
+        RECORDED,
+        ALREADY_RECORDED,
+        STUDENT_NOT_FOUND
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class StudentResult {
+        private UUID studentId;
+        private String studentName;
+        private Outcome outcome;
+    }
+}
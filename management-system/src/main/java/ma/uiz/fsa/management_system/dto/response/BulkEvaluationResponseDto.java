@@ -0,0 +1,35 @@
+package ma.uiz.fsa.management_system.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkEvaluationResponseDto {
+
+    private UUID moduleId;
+    private int totalRequested;
+    private int createdCount;
+    private int updatedCount;
+    private int failureCount;
+    private List<BulkEvaluationResult> results;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class BulkEvaluationResult {
+        private int index;
+        private UUID studentId;
+        // CREATED, UPDATED or FAILED
+        private String status;
+        private UUID evaluationId;
+        private String errorMessage;
+    }
+}
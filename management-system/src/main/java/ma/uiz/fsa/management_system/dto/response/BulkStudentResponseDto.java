@@ -3,6 +3,7 @@ package ma.uiz.fsa.management_system.dto.response;
 import lombok.*;
 
 import java.util.List;
+import java.util.UUID;
 
 @Getter
 @Setter
@@ -11,6 +12,8 @@ import java.util.List;
 @Builder
 public class BulkStudentResponseDto {
 
+    // Tracks the background QR code generation of the created students
+    private UUID importId;
     private int totalRequested;
     private int successCount;
     private int failureCount;
@@ -0,0 +1,70 @@
+package ma.uiz.fsa.management_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ma.uiz.fsa.management_system.dto.request.KeysetCursor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cursor-based pagination response, the keyset counterpart of {@link PageResponse} for large tables.
+ * Pages are requested with the {@code nextCursor} of the previous one instead of a page number.
+ *
+ * @param <T> The type of content in the page
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    /**
+     * The actual page content
+     */
+    private List<T> content;
+
+    /**
+     * Number of items per page
+     */
+    private int pageSize;
+
+    /**
+     * Whether a next page exists
+     */
+    private boolean hasNext;
+
+    /**
+     * Cursor of the next page, absent on the last page
+     */
+    private String nextCursor;
+
+    /**
+     * Total number of elements, only when requested since it counts the whole listing
+     */
+    private Long totalElements;
+
+    /**
+     * Factory method to create a CursorPageResponse from the rows read with {@link KeysetCursor#window(int)}
+     *
+     * @param window    up to {@code pageSize + 1} rows, the extra one only telling that a next page exists
+     * @param cursorOf  position of a row
+     * @param mapper    row to content mapping
+     * @param totalElements total number of elements, or null when not counted
+     */
+    public static <R, T> CursorPageResponse<T> of(List<R> window, int pageSize, Function<R, KeysetCursor> cursorOf,
+                                                  Function<R, T> mapper, Long totalElements) {
+        boolean hasNext = window.size() > pageSize;
+        List<R> rows = hasNext ? window.subList(0, pageSize) : window;
+
+        return CursorPageResponse.<T>builder()
+                .content(rows.stream().map(mapper).toList())
+                .pageSize(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(rows.get(rows.size() - 1)).encode() : null)
+                .totalElements(totalElements)
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package ma.uiz.fsa.management_system.dto.response;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QrCodeBackfillStatusDto {
+
+    private UUID importId;
+    private long total;
+    private long generated;
+    private long pending;
+    private long failed;
+    private boolean completed;
+}
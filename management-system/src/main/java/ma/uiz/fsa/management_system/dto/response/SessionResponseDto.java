@@ -1,6 +1,8 @@
 package ma.uiz.fsa.management_system.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.*;
+import ma.uiz.fsa.management_system.config.SparseFieldsetAdvice;
 import ma.uiz.fsa.management_system.model.enums.AttendanceMode;
 import ma.uiz.fsa.management_system.model.enums.SessionType;
 
@@ -13,6 +15,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonFilter(SparseFieldsetAdvice.FILTER_ID)
 public class SessionResponseDto {
 
     private UUID id;
@@ -25,7 +28,6 @@ public class SessionResponseDto {
     private Boolean attendanceTaken;
     private AttendanceMode attendanceMode;
     private String qrCode;
-    private String qrCodeImage;  // Base64 encoded image
 
     // location details
     private UUID locationId;
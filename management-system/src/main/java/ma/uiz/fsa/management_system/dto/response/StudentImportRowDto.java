@@ -0,0 +1,24 @@
+package ma.uiz.fsa.management_system.dto.response;
+
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one row of a streamed roster import, written as one NDJSON line
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StudentImportRowDto {
+
+    // CREATED or FAILED
+    private String status;
+    private int line;
+    private UUID studentId;
+    private String email;
+    private String cne;
+    private String errorMessage;
+}
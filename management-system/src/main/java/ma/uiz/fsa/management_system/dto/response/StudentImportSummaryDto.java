@@ -0,0 +1,25 @@
+package ma.uiz.fsa.management_system.dto.response;
+
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Last NDJSON line of a streamed roster import
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StudentImportSummaryDto {
+
+    // COMPLETED, or ABORTED if the import stopped before the end of the file
+    private String status;
+    // Tracks the background QR code generation of the created students
+    private UUID importId;
+    private int totalRows;
+    private int successCount;
+    private int failureCount;
+    private String errorMessage;
+}
@@ -1,6 +1,8 @@
 package ma.uiz.fsa.management_system.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.*;
+import ma.uiz.fsa.management_system.config.SparseFieldsetAdvice;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -12,6 +14,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonFilter(SparseFieldsetAdvice.FILTER_ID)
 public class StudentResponseDto {
 
     private UUID id;
@@ -27,7 +30,6 @@ public class StudentResponseDto {
     private String address;
     private String photoUrl;
     private String qrCode;
-    private String qrCodeImage;  // Base64 encoded image
 
     // Filiere info
     private UUID filiereId;
@@ -55,12 +57,4 @@ public class StudentResponseDto {
     private LocalDateTime updatedAt;
     private String createdBy;
     private String lastModifiedBy;
-
-    // Or provide data URI for direct use in <img> tags
-    public String getQrCodeDataUri() {
-        if (qrCodeImage != null) {
-            return "data:image/png;base64," + qrCodeImage;
-        }
-        return null;
-    }
 }
@@ -9,6 +9,7 @@ import ma.uiz.fsa.management_system.exception.ResourceNotFoundException;
 import ma.uiz.fsa.management_system.model.entity.AttendanceRecord;
 import ma.uiz.fsa.management_system.model.entity.Session;
 import ma.uiz.fsa.management_system.model.entity.Student;
+import ma.uiz.fsa.management_system.repository.AttendanceRecordRepository;
 import ma.uiz.fsa.management_system.repository.SessionRepository;
 import ma.uiz.fsa.management_system.repository.StudentRepository;
 import org.springframework.stereotype.Component;
@@ -85,6 +86,43 @@ public class AttendanceRecordMapper implements BaseMapper<AttendanceRecord, Atte
                 .build();
     }
 
+    public AttendanceRecordResponseDto toResponseDto(AttendanceRecordRepository.AttendanceListing listing) {
+        if (listing == null) return null;
+
+        String locationName = listing.getLocationBuilding() != null
+                ? listing.getLocationBuilding() + " - " + listing.getLocationRoomNumber()
+                : null;
+
+        return AttendanceRecordResponseDto.builder()
+                .id(listing.getId())
+                .date(listing.getDate())
+                .status(listing.getStatus())
+                .scannedAt(listing.getScannedAt())
+                .isJustified(listing.getIsJustified())
+                .justificationNote(listing.getJustificationNote())
+                .justificationDocumentUrl(listing.getJustificationDocumentUrl())
+                .studentId(listing.getStudentId())
+                .studentName(listing.getStudentFirstName() + " " + listing.getStudentLastName())
+                .studentCne(listing.getStudentCne())
+                .studentEmail(listing.getStudentEmail())
+                .sessionId(listing.getSessionId())
+                .sessionType(listing.getSessionType().name())
+                .sessionSchedule(listing.getSessionSchedule())
+                .locationName(locationName)
+                .locationBuilding(listing.getLocationBuilding())
+                .locationRoomNumber(listing.getLocationRoomNumber())
+                .moduleTitle(listing.getModuleTitle())
+                .moduleCode(listing.getModuleCode())
+                .deviceInfo(listing.getDeviceInfo())
+                .ipAddress(listing.getIpAddress())
+                .markedBy(listing.getMarkedBy())
+                .createdAt(listing.getCreatedAt())
+                .updatedAt(listing.getUpdatedAt())
+                .createdBy(listing.getCreatedBy())
+                .lastModifiedBy(listing.getLastModifiedBy())
+                .build();
+    }
+
     public AttendanceRecordSimpleResponseDto toSimpleResponseDto(AttendanceRecord entity) {
         if (entity == null) return null;
 
@@ -102,6 +140,20 @@ public class AttendanceRecordMapper implements BaseMapper<AttendanceRecord, Atte
                 .build();
     }
 
+    public AttendanceRecordSimpleResponseDto toSimpleResponseDto(AttendanceRecordRepository.AttendanceSimpleListing listing) {
+        if (listing == null) return null;
+
+        return AttendanceRecordSimpleResponseDto.builder()
+                .id(listing.getId())
+                .date(listing.getDate())
+                .status(listing.getStatus())
+                .scannedAt(listing.getScannedAt())
+                .studentName(listing.getStudentFirstName() + " " + listing.getStudentLastName())
+                .moduleTitle(listing.getModuleTitle())
+                .isJustified(listing.getIsJustified())
+                .build();
+    }
+
     @Override
     public void updateEntityFromDto(AttendanceRecordRequestDto dto, AttendanceRecord entity) {
         if (dto == null || entity == null) return;
@@ -9,6 +9,7 @@ import ma.uiz.fsa.management_system.exception.ResourceNotFoundException;
 import ma.uiz.fsa.management_system.model.entity.Evaluation;
 import ma.uiz.fsa.management_system.model.entity.Module;
 import ma.uiz.fsa.management_system.model.entity.Student;
+import ma.uiz.fsa.management_system.repository.EvaluationRepository;
 import ma.uiz.fsa.management_system.repository.ModuleRepository;
 import ma.uiz.fsa.management_system.repository.StudentRepository;
 import org.springframework.stereotype.Component;
@@ -92,6 +93,40 @@ public class EvaluationMapper implements BaseMapper<Evaluation, EvaluationReques
                 .build();
     }
 
+    public EvaluationResponseDto toResponseDto(EvaluationRepository.EvaluationListing listing) {
+        if (listing == null) return null;
+
+        Double normalizedGrade = (listing.getGrade() / listing.getMaxGrade()) * 20.0;
+        Double passingGrade = listing.getModulePassingGrade();
+
+        return EvaluationResponseDto.builder()
+                .id(listing.getId())
+                .type(listing.getType())
+                .date(listing.getDate())
+                .grade(listing.getGrade())
+                .coefficient(listing.getCoefficient())
+                .maxGrade(listing.getMaxGrade())
+                .comments(listing.getComments())
+                .isValidated(listing.getIsValidated())
+                .normalizedGrade(normalizedGrade)
+                .weightedGrade(normalizedGrade * listing.getCoefficient())
+                .letterGrade(calculateLetterGrade(normalizedGrade))
+                .isPassing(normalizedGrade >= passingGrade)
+                .studentId(listing.getStudentId())
+                .studentName(listing.getStudentFirstName() + " " + listing.getStudentLastName())
+                .studentCne(listing.getStudentCne())
+                .studentEmail(listing.getStudentEmail())
+                .moduleId(listing.getModuleId())
+                .moduleTitle(listing.getModuleTitle())
+                .moduleCode(listing.getModuleCode())
+                .modulePassingGrade(passingGrade)
+                .createdAt(listing.getCreatedAt())
+                .updatedAt(listing.getUpdatedAt())
+                .createdBy(listing.getCreatedBy())
+                .lastModifiedBy(listing.getLastModifiedBy())
+                .build();
+    }
+
     public EvaluationSimpleResponseDto toSimpleResponseDto(Evaluation entity) {
         if (entity == null) return null;
 
@@ -109,6 +144,21 @@ public class EvaluationMapper implements BaseMapper<Evaluation, EvaluationReques
                 .build();
     }
 
+    public EvaluationSimpleResponseDto toSimpleResponseDto(EvaluationRepository.EvaluationSimpleListing listing) {
+        if (listing == null) return null;
+
+        return EvaluationSimpleResponseDto.builder()
+                .id(listing.getId())
+                .type(listing.getType())
+                .date(listing.getDate())
+                .grade(listing.getGrade())
+                .coefficient(listing.getCoefficient())
+                .studentName(listing.getStudentFirstName() + " " + listing.getStudentLastName())
+                .moduleTitle(listing.getModuleTitle())
+                .isValidated(listing.getIsValidated())
+                .build();
+    }
+
     @Override
     public void updateEntityFromDto(EvaluationRequestDto dto, Evaluation entity) {
         if (dto == null || entity == null) return;
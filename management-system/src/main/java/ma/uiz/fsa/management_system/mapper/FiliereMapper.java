@@ -9,6 +9,7 @@ import ma.uiz.fsa.management_system.exception.ResourceNotFoundException;
 import ma.uiz.fsa.management_system.model.entity.Department;
 import ma.uiz.fsa.management_system.model.entity.Filiere;
 import ma.uiz.fsa.management_system.repository.DepartmentRepository;
+import ma.uiz.fsa.management_system.repository.FiliereRepository;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -87,6 +88,19 @@ public class FiliereMapper implements BaseMapper<Filiere, FiliereRequestDto, Fil
                 .build();
     }
 
+    public FiliereSimpleResponseDto toSimpleResponseDto(FiliereRepository.FiliereSimpleListing listing) {
+        if (listing == null) return null;
+
+        return FiliereSimpleResponseDto.builder()
+                .id(listing.getId())
+                .name(listing.getName())
+                .code(listing.getCode())
+                .degreeType(listing.getDegreeType())
+                .departmentName(listing.getDepartmentName())
+                .isActive(listing.getIsActive())
+                .build();
+    }
+
     @Override
     public void updateEntityFromDto(FiliereRequestDto dto, Filiere entity) {
         if (dto == null || entity == null) return;
@@ -10,6 +10,7 @@ import ma.uiz.fsa.management_system.exception.ResourceNotFoundException;
 import ma.uiz.fsa.management_system.model.entity.Group;
 import ma.uiz.fsa.management_system.model.entity.Module;
 import ma.uiz.fsa.management_system.model.entity.Student;
+import ma.uiz.fsa.management_system.repository.GroupRepository;
 import ma.uiz.fsa.management_system.repository.ModuleRepository;
 import ma.uiz.fsa.management_system.repository.StudentRepository;
 import org.springframework.stereotype.Component;
@@ -109,6 +110,20 @@ public class GroupMapper implements BaseMapper<Group, GroupRequestDto, GroupResp
                 .build();
     }
 
+    public GroupSimpleResponseDto toSimpleResponseDto(GroupRepository.GroupSimpleListing listing) {
+        if (listing == null) return null;
+
+        return GroupSimpleResponseDto.builder()
+                .id(listing.getId())
+                .name(listing.getName())
+                .code(listing.getCode())
+                .studentCount(listing.getStudentCount())
+                .maxCapacity(listing.getMaxCapacity())
+                .moduleTitle(listing.getModuleTitle())
+                .isActive(listing.getIsActive())
+                .build();
+    }
+
     @Override
     public void updateEntityFromDto(GroupRequestDto dto, Group entity) {
         if (dto == null || entity == null) return;
@@ -10,6 +10,7 @@ import ma.uiz.fsa.management_system.exception.ResourceNotFoundException;
 import ma.uiz.fsa.management_system.model.entity.Module;
 import ma.uiz.fsa.management_system.model.entity.Professor;
 import ma.uiz.fsa.management_system.model.entity.Semester;
+import ma.uiz.fsa.management_system.repository.ModuleRepository;
 import ma.uiz.fsa.management_system.repository.ProfessorRepository;
 import ma.uiz.fsa.management_system.repository.SemesterRepository;
 import org.springframework.stereotype.Component;
@@ -108,6 +109,19 @@ public class ModuleMapper implements BaseMapper<Module, ModuleRequestDto, Module
                 .build();
     }
 
+    public ModuleSimpleResponseDto toSimpleResponseDto(ModuleRepository.ModuleSimpleListing listing) {
+        if (listing == null) return null;
+
+        return ModuleSimpleResponseDto.builder()
+                .id(listing.getId())
+                .title(listing.getTitle())
+                .code(listing.getCode())
+                .credits(listing.getCredits())
+                .semesterName(listing.getSemesterName())
+                .isActive(listing.getIsActive())
+                .build();
+    }
+
     @Override
     public void updateEntityFromDto(ModuleRequestDto dto, Module entity) {
         if (dto == null || entity == null) return;
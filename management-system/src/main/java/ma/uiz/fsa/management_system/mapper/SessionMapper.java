@@ -14,6 +14,7 @@ import ma.uiz.fsa.management_system.repository.GroupRepository;
 import ma.uiz.fsa.management_system.repository.LocationRepository;
 import ma.uiz.fsa.management_system.repository.ModuleRepository;
 import ma.uiz.fsa.management_system.repository.ProfessorRepository;
+import ma.uiz.fsa.management_system.repository.SessionRepository;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -109,7 +110,6 @@ public class SessionMapper implements BaseMapper<Session, SessionRequestDto, Ses
                 .description(entity.getDescription())
                 .attendanceMode(entity.getAttendanceMode())
                 .qrCode(entity.getQrCode())
-                .qrCodeImage(entity.getQrCodeImage())
                 .isCompleted(entity.getIsCompleted())
                 .attendanceTaken(entity.getAttendanceTaken())
                 .moduleId(entity.getModule() != null ? entity.getModule().getId() : null)
@@ -134,6 +134,65 @@ public class SessionMapper implements BaseMapper<Session, SessionRequestDto, Ses
                 .build();
     }
 
+    /**
+     * Map a listing row; {@code groups} are loaded separately for the whole page
+     */
+    public SessionResponseDto toResponseDto(SessionRepository.SessionListing listing,
+                                            List<GroupSimpleResponseDto> groups) {
+        if (listing == null) return null;
+
+        long totalAttendanceRecords = listing.getTotalAttendanceRecords();
+        long presentCount = listing.getPresentCount();
+        Double attendanceRate = totalAttendanceRecords > 0 ? (presentCount * 100.0) / totalAttendanceRecords : null;
+
+        return SessionResponseDto.builder()
+                .id(listing.getId())
+                .name(listing.getName())
+                .type(listing.getType())
+                .schedule(listing.getSchedule())
+                .duration(listing.getDuration())
+                .locationId(listing.getLocationId())
+                .locationName(listing.getLocationId() != null
+                        ? listing.getLocationBuilding() + " - " + listing.getLocationRoomNumber()
+                        : null)
+                .locationBuilding(listing.getLocationBuilding())
+                .locationRoomNumber(listing.getLocationRoomNumber())
+                .locationCapacity(listing.getLocationCapacity())
+                .description(listing.getDescription())
+                .attendanceMode(listing.getAttendanceMode())
+                .qrCode(listing.getQrCode())
+                .isCompleted(listing.getIsCompleted())
+                .attendanceTaken(listing.getAttendanceTaken())
+                .moduleId(listing.getModuleId())
+                .moduleTitle(listing.getModuleTitle())
+                .moduleCode(listing.getModuleCode())
+                .professorId(listing.getProfessorId())
+                .professorName(listing.getProfessorId() != null
+                        ? listing.getProfessorFirstName() + " " + listing.getProfessorLastName()
+                        : null)
+                .professorEmail(listing.getProfessorEmail())
+                .groups(groups)
+                .totalGroups(listing.getTotalGroups())
+                .totalAttendanceRecords((int) totalAttendanceRecords)
+                .presentCount((int) presentCount)
+                .absentCount(listing.getAbsentCount().intValue())
+                .attendanceRate(attendanceRate)
+                .createdAt(listing.getCreatedAt())
+                .updatedAt(listing.getUpdatedAt())
+                .createdBy(listing.getCreatedBy())
+                .lastModifiedBy(listing.getLastModifiedBy())
+                .build();
+    }
+
+    public GroupSimpleResponseDto toGroupSimpleDto(SessionRepository.SessionGroupSummary group) {
+        return GroupSimpleResponseDto.builder()
+                .id(group.getId())
+                .name(group.getName())
+                .code(group.getCode())
+                .studentCount(group.getStudentCount())
+                .build();
+    }
+
     public SessionSimpleResponseDto toSimpleResponseDto(Session entity) {
         if (entity == null) return null;
 
@@ -153,6 +212,25 @@ public class SessionMapper implements BaseMapper<Session, SessionRequestDto, Ses
                 .build();
     }
 
+    public SessionSimpleResponseDto toSimpleResponseDto(SessionRepository.SessionSimpleListing listing) {
+        if (listing == null) return null;
+
+        return SessionSimpleResponseDto.builder()
+                .id(listing.getId())
+                .name(listing.getName())
+                .type(listing.getType())
+                .schedule(listing.getSchedule())
+                .duration(listing.getDuration())
+                .locationId(listing.getLocationId())
+                .moduleTitle(listing.getModuleTitle())
+                .professorName(listing.getProfessorFirstName() != null
+                        ? listing.getProfessorFirstName() + " " + listing.getProfessorLastName()
+                        : null)
+                .isCompleted(listing.getIsCompleted())
+                .attendanceTaken(listing.getAttendanceTaken())
+                .build();
+    }
+
     private GroupSimpleResponseDto toGroupSimpleDto(Group group) {
         if (group == null) return null;
 
@@ -12,6 +12,7 @@ import ma.uiz.fsa.management_system.model.entity.Student;
 import ma.uiz.fsa.management_system.model.enums.RoleType;
 import ma.uiz.fsa.management_system.repository.FiliereRepository;
 import ma.uiz.fsa.management_system.repository.RoleRepository;
+import ma.uiz.fsa.management_system.repository.StudentRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -37,13 +38,22 @@ public class StudentMapper {
         Role studentRole = roleRepository.findByName(RoleType.ROLE_STUDENT)
                 .orElseThrow(() -> new ResourceNotFoundException("Student role not found"));
 
+        return toEntity(dto, filiere, studentRole, passwordEncoder.encode(dto.getPassword()));
+    }
+
+    /**
+     * Build a student from already resolved references and an already hashed password (bulk imports)
+     */
+    public Student toEntity(StudentRequestDto dto, Filiere filiere, Role studentRole, String passwordHash) {
+        if (dto == null) return null;
+
         Set<Role> roles = new HashSet<>();
         roles.add(studentRole);
 
         return Student.builder()
                 .username(dto.getUsername())
                 .email(dto.getEmail())
-                .passwordHash(passwordEncoder.encode(dto.getPassword()))
+                .passwordHash(passwordHash)
                 .roles(roles)
                 .enabled(true)
                 .accountNonExpired(true)
@@ -92,7 +102,6 @@ public class StudentMapper {
                 .address(entity.getAddress())
                 .photoUrl(entity.getPhotoUrl())
                 .qrCode(entity.getQrCode())
-                .qrCodeImage(entity.getQrCodeImage())
                 .filiereId(entity.getFiliere() != null ? entity.getFiliere().getId() : null)
                 .filiereName(entity.getFiliere() != null ? entity.getFiliere().getName() : null)
                 .filiereCode(entity.getFiliere() != null ? entity.getFiliere().getCode() : null)
@@ -114,6 +123,46 @@ public class StudentMapper {
                 .build();
     }
 
+    /**
+     * Map a listing row; {@code roles} are loaded separately for the whole page
+     */
+    public StudentResponseDto toResponseDto(StudentRepository.StudentListing listing, Set<String> roles) {
+        if (listing == null) return null;
+
+        return StudentResponseDto.builder()
+                .id(listing.getId())
+                .username(listing.getUsername())
+                .email(listing.getEmail())
+                .cne(listing.getCne())
+                .cin(listing.getCin())
+                .firstName(listing.getFirstName())
+                .lastName(listing.getLastName())
+                .fullName(listing.getFirstName() + " " + listing.getLastName())
+                .dateOfBirth(listing.getDateOfBirth())
+                .phoneNumber(listing.getPhoneNumber())
+                .address(listing.getAddress())
+                .photoUrl(listing.getPhotoUrl())
+                .qrCode(listing.getQrCode())
+                .filiereId(listing.getFiliereId())
+                .filiereName(listing.getFiliereName())
+                .filiereCode(listing.getFiliereCode())
+                .departmentName(listing.getDepartmentName())
+                .totalGroups(listing.getTotalGroups())
+                .totalEvaluations(listing.getTotalEvaluations())
+                .totalAttendanceRecords(listing.getTotalAttendanceRecords())
+                .averageGrade(listing.getAverageGrade())
+                .enabled(listing.getEnabled())
+                .accountNonExpired(listing.getAccountNonExpired())
+                .accountNonLocked(listing.getAccountNonLocked())
+                .credentialsNonExpired(listing.getCredentialsNonExpired())
+                .roles(roles)
+                .createdAt(listing.getCreatedAt())
+                .updatedAt(listing.getUpdatedAt())
+                .createdBy(listing.getCreatedBy())
+                .lastModifiedBy(listing.getLastModifiedBy())
+                .build();
+    }
+
     public StudentSimpleResponseDto toSimpleResponseDto(Student entity) {
         if (entity == null) return null;
 
@@ -127,6 +176,19 @@ public class StudentMapper {
                 .build();
     }
 
+    public StudentSimpleResponseDto toSimpleResponseDto(StudentRepository.StudentSimpleListing listing) {
+        if (listing == null) return null;
+
+        return StudentSimpleResponseDto.builder()
+                .id(listing.getId())
+                .fullName(listing.getFirstName() + " " + listing.getLastName())
+                .email(listing.getEmail())
+                .cne(listing.getCne())
+                .filiereName(listing.getFiliereName())
+                .photoUrl(listing.getPhotoUrl())
+                .build();
+    }
+
     public void updateEntityFromDto(StudentUpdateDto dto, Student entity) {
         if (dto == null || entity == null) return;
 
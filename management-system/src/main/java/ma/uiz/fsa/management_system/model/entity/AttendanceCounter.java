@@ -0,0 +1,24 @@
+package ma.uiz.fsa.management_system.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Number of attendance records with a given status for one session, module, student or group.
+ * Maintained incrementally by folding the {@link AttendanceCounterDelta}s written with the attendance records.
+ */
+@Entity
+@Table(name = "attendance_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceCounter {
+
+    @EmbeddedId
+    private AttendanceCounterId id;
+
+    @Column(nullable = false)
+    private Long total;
+}
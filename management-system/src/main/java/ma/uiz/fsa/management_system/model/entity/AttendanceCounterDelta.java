@@ -0,0 +1,41 @@
+package ma.uiz.fsa.management_system.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ma.uiz.fsa.management_system.model.enums.AttendanceCounterScope;
+import ma.uiz.fsa.management_system.model.enums.AttendanceStatus;
+
+import java.util.UUID;
+
+/**
+ * Change to an attendance counter not yet added to it. Writes append deltas instead of updating the shared
+ * counter rows, so concurrent scans never wait for each other; a periodic fold moves them into the counters.
+ */
+@Entity
+@Table(name = "attendance_counter_deltas",
+        indexes = @Index(name = "idx_attendance_counter_deltas_scope", columnList = "scope_type, scope_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceCounterDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope_type", nullable = false, length = 20)
+    private AttendanceCounterScope scopeType;
+
+    @Column(name = "scope_id", nullable = false)
+    private UUID scopeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AttendanceStatus status;
+
+    @Column(nullable = false)
+    private Long delta;
+}
@@ -0,0 +1,29 @@
+package ma.uiz.fsa.management_system.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ma.uiz.fsa.management_system.model.enums.AttendanceCounterScope;
+import ma.uiz.fsa.management_system.model.enums.AttendanceStatus;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class AttendanceCounterId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope_type", nullable = false, length = 20)
+    private AttendanceCounterScope scopeType;
+
+    @Column(name = "scope_id", nullable = false)
+    private UUID scopeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AttendanceStatus status;
+}
@@ -9,7 +9,17 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "attendance_records")
+@Table(name = "attendance_records",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_attendance_student_session", columnNames = {"student_id", "session_id"})
+        },
+        indexes = {
+                @Index(name = "idx_attendance_session_student", columnList = "session_id, student_id"),
+                // Keyset pages, newest scan first
+                @Index(name = "idx_attendance_scanned_at_id", columnList = "scanned_at, id"),
+                @Index(name = "idx_attendance_status_justified_scanned_at_id",
+                        columnList = "status, is_justified, scanned_at, id")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
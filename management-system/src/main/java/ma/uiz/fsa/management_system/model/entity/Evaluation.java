@@ -8,7 +8,15 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "evaluations")
+@Table(name = "evaluations",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_evaluations_student_module_type_date",
+                        columnNames = {"student_id", "module_id", "type", "date"})
+        },
+        indexes = {
+                // Keyset pages, newest first
+                @Index(name = "idx_evaluations_created_at_id", columnList = "created_at, id")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
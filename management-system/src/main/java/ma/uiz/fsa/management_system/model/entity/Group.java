@@ -33,7 +33,9 @@ public class Group extends Auditable {
     @JoinTable(
             name = "group_students",
             joinColumns = @JoinColumn(name = "group_id"),
-            inverseJoinColumns = @JoinColumn(name = "student_id")
+            inverseJoinColumns = @JoinColumn(name = "student_id"),
+            // The primary key leads with group_id; per-student lookups (group counts, enrollment) need their own
+            indexes = @Index(name = "idx_group_students_student", columnList = "student_id")
     )
     @Builder.Default
     private Set<Student> students = new HashSet<>();
@@ -7,7 +7,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "password_reset_tokens")
+@Table(name = "password_reset_tokens",
+        indexes = {
+                @Index(name = "idx_password_reset_tokens_expiry_date", columnList = "expiry_date")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
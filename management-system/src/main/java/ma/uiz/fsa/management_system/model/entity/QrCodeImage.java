@@ -0,0 +1,41 @@
+package ma.uiz.fsa.management_system.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ma.uiz.fsa.management_system.model.enums.QrCodeOwnerType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Rendered QR code PNG of a student or session, kept out of the owner's row so that student and
+ * session queries do not carry the image.
+ */
+@Entity
+@Table(name = "qr_code_images")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QrCodeImage {
+
+    // ID of the owning student or session
+    @Id
+    @Column(name = "owner_id")
+    private UUID ownerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "owner_type", nullable = false, length = 20)
+    private QrCodeOwnerType ownerType;
+
+    // QR code content the image was rendered from
+    @Column(name = "qr_code", nullable = false, length = 500)
+    private String qrCode;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] image;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
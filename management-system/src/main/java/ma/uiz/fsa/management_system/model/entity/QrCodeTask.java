@@ -0,0 +1,58 @@
+package ma.uiz.fsa.management_system.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ma.uiz.fsa.management_system.model.enums.QrCodeOwnerType;
+import ma.uiz.fsa.management_system.model.enums.QrCodeTaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outbox entry asking for the QR code image of a student to be rendered once the transaction that created
+ * the student has committed. Entries of one bulk import share a batch ID, which is used to report progress.
+ */
+@Entity
+@Table(name = "qr_code_outbox",
+        indexes = {
+                @Index(name = "idx_qr_code_outbox_status_created", columnList = "status, created_at"),
+                @Index(name = "idx_qr_code_outbox_batch", columnList = "batch_id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QrCodeTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "batch_id", nullable = false)
+    private UUID batchId;
+
+    @Column(name = "owner_id", nullable = false)
+    private UUID ownerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "owner_type", nullable = false, length = 20)
+    private QrCodeOwnerType ownerType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private QrCodeTaskStatus status = QrCodeTaskStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime processedAt;
+}
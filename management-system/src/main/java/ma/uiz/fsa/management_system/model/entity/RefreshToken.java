@@ -7,7 +7,14 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_refresh_tokens_token_hash", columnNames = {"token_hash"})
+        },
+        indexes = {
+                @Index(name = "idx_refresh_tokens_user_created", columnList = "user_id, created_at"),
+                @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,7 +26,12 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @Column(nullable = false, unique = true)
+    // SHA-256 of the token handed to the client, hex encoded
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    // Raw token, only known right after creation
+    @Transient
     private String token;
 
     @ManyToOne(fetch = FetchType.LAZY)
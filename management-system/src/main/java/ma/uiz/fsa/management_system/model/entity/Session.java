@@ -13,7 +13,9 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "sessions")
+@Table(name = "sessions", indexes = {
+        @Index(name = "idx_sessions_schedule", columnList = "schedule")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -71,10 +73,7 @@ public class Session extends Auditable {
     private Boolean attendanceTaken = false;
 
     @Column(name = "qr_code", length = 500)
-    private String qrCode;  // QR code content: "SESSION:UUID:DATETIME"
-
-    @Column(name = "qr_code_image", columnDefinition = "TEXT")
-    private String qrCodeImage;  // Base64 encoded PNG image
+    private String qrCode;  // QR code content: "SESSION:UUID:DATETIME", image stored in qr_code_images
 
     @Column(name = "qr_code_expiry")
     private LocalDateTime qrCodeExpiry;  // QR code expiration time
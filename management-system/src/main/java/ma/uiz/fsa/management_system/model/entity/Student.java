@@ -62,11 +62,7 @@ public class Student extends User {
 
     // QR Code content (format: "STUDENT:UUID:CNE")
     @Column(unique = true, length = 500)
-    private String qrCode;
-
-    // Store QR Code image as Base64
-    @Column(name = "qr_code_image", columnDefinition = "TEXT")
-    private String qrCodeImage;  // Base64 encoded PNG image
+    private String qrCode;  // Image stored in qr_code_images
 
     @PreRemove
     private void removeStudentFromGroups() {
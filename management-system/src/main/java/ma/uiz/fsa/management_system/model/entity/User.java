@@ -5,13 +5,18 @@ import ma.uiz.fsa.management_system.model.audit.Auditable;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+        indexes = {
+                // Revocations are synchronized between instances by time
+                @Index(name = "idx_users_tokens_revoked_before", columnList = "tokens_revoked_before")
+        })
 @Inheritance(strategy = InheritanceType.JOINED)
 @Getter
 @Setter
@@ -54,6 +59,9 @@ public abstract class User extends Auditable {
     @Builder.Default
     private Boolean credentialsNonExpired = true;
 
+    // Access tokens issued before this time are rejected, see JwtRevocationList
+    private LocalDateTime tokensRevokedBefore;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<RefreshToken> refreshTokens = new ArrayList<>();
 }
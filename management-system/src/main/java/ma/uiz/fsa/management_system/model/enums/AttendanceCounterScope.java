@@ -0,0 +1,27 @@
+package ma.uiz.fsa.management_system.model.enums;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.Getter;
+
+@JsonFormat(shape = JsonFormat.Shape.OBJECT)
+@Getter
+public enum AttendanceCounterScope {
+    SESSION("Session", "Séance"),
+    MODULE("Module", "Module"),
+    STUDENT("Student", "Étudiant"),
+    GROUP("Group", "Groupe");
+
+    private final String label;
+    private final String labelFr;
+
+    AttendanceCounterScope(String label, String labelFr) {
+        this.label = label;
+        this.labelFr = labelFr;
+    }
+
+    @JsonValue
+    public String getName() {
+        return this.name();
+    }
+}
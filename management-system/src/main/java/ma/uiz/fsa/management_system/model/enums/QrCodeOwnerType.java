@@ -0,0 +1,6 @@
+package ma.uiz.fsa.management_system.model.enums;
+
+public enum QrCodeOwnerType {
+    STUDENT,
+    SESSION
+}
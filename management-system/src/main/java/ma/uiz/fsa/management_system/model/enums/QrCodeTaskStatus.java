@@ -0,0 +1,7 @@
+package ma.uiz.fsa.management_system.model.enums;
+
+public enum QrCodeTaskStatus {
+    PENDING,
+    DONE,
+    FAILED
+}
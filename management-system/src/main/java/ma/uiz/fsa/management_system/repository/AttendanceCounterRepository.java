@@ -0,0 +1,43 @@
+package ma.uiz.fsa.management_system.repository;
+
+import ma.uiz.fsa.management_system.model.entity.AttendanceCounter;
+import ma.uiz.fsa.management_system.model.entity.AttendanceCounterId;
+import ma.uiz.fsa.management_system.model.enums.AttendanceCounterScope;
+import ma.uiz.fsa.management_system.model.enums.AttendanceStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AttendanceCounterRepository
+        extends JpaRepository<AttendanceCounter, AttendanceCounterId>, AttendanceCounterRepositoryCustom {
+
+    // Counters plus the deltas not folded into them yet, read in one statement so a concurrent fold
+    // is seen either entirely or not at all
+    @Query("SELECT t.scopeId AS scopeId, t.status AS status, SUM(t.total) AS total FROM (" +
+            "SELECT c.id.scopeId AS scopeId, c.id.status AS status, c.total AS total FROM AttendanceCounter c " +
+            "WHERE c.id.scopeType = :scopeType AND c.id.scopeId IN :scopeIds " +
+            "UNION ALL " +
+            "SELECT d.scopeId, d.status, d.delta FROM AttendanceCounterDelta d " +
+            "WHERE d.scopeType = :scopeType AND d.scopeId IN :scopeIds) t " +
+            "GROUP BY t.scopeId, t.status")
+    List<StatusCount> findCounts(
+            @Param("scopeType") AttendanceCounterScope scopeType,
+            @Param("scopeIds") Collection<UUID> scopeIds);
+
+    /**
+     * Number of attendance records with a given status for one session, module, student or group
+     */
+    interface StatusCount {
+        UUID getScopeId();
+
+        AttendanceStatus getStatus();
+
+        Long getTotal();
+    }
+}
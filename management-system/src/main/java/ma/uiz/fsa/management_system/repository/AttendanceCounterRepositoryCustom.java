@@ -0,0 +1,35 @@
+package ma.uiz.fsa.management_system.repository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface AttendanceCounterRepositoryCustom {
+
+    /**
+     * Appends {@code sign} (1 or -1) times the session, student, module and group counts of the given records
+     * as counter deltas, in a single set-based insert
+     */
+    void applyRecords(Collection<UUID> recordIds, int sign);
+
+    /**
+     * Appends {@code sign} times the counts of every record of a session as counter deltas
+     */
+    void applySession(UUID sessionId, int sign);
+
+    /**
+     * Adds the committed counter deltas to their counters and deletes them
+     *
+     * @return number of counters updated
+     */
+    int foldDeltas();
+
+    /**
+     * Corrects the group counters of the given groups to match the attendance records
+     */
+    void rebuildGroups(Collection<UUID> groupIds);
+
+    /**
+     * Recomputes every counter from the attendance records
+     */
+    void rebuildAll();
+}
@@ -0,0 +1,129 @@
+package ma.uiz.fsa.management_system.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class AttendanceCounterRepositoryCustomImpl implements AttendanceCounterRepositoryCustom {
+
+    // Counts the records matching %s per status for every scope
+    private static final String COUNT_SQL = "WITH r AS (" +
+            "    SELECT ar.student_id, ar.session_id, ar.status FROM attendance_records ar WHERE %s) " +
+            "SELECT d.scope_type, d.scope_id, d.status, COUNT(*) AS total " +
+            "FROM (SELECT 'SESSION' AS scope_type, r.session_id AS scope_id, r.status FROM r " +
+            "      UNION ALL " +
+            "      SELECT 'STUDENT', r.student_id, r.status FROM r " +
+            "      UNION ALL " +
+            "      SELECT 'MODULE', s.module_id, r.status FROM r " +
+            "      JOIN sessions s ON s.id = r.session_id " +
+            "      WHERE s.module_id IS NOT NULL " +
+            "      UNION ALL " +
+            "      SELECT 'GROUP', sg.group_id, r.status FROM r " +
+            "      JOIN session_groups sg ON sg.session_id = r.session_id " +
+            "      JOIN group_students gs ON gs.group_id = sg.group_id AND gs.student_id = r.student_id) d " +
+            "GROUP BY d.scope_type, d.scope_id, d.status";
+
+    // Appends the counts, times the sign, as deltas: no shared row is locked, so concurrent scans never wait
+    private static final String APPLY_SQL = "INSERT INTO attendance_counter_deltas " +
+            "(id, scope_type, scope_id, status, delta) " +
+            "SELECT gen_random_uuid(), c.scope_type, c.scope_id, c.status, CAST(? AS bigint) * c.total " +
+            "FROM (" + COUNT_SQL + ") c";
+
+    // Moves every committed delta into its counter. Counters are upserted in key order so concurrent folds
+    // lock them in the same order; a delta deleted by one fold is skipped by the other.
+    private static final String FOLD_SQL = "WITH folded AS (" +
+            "    DELETE FROM attendance_counter_deltas RETURNING scope_type, scope_id, status, delta) " +
+            "INSERT INTO attendance_counters (scope_type, scope_id, status, total) " +
+            "SELECT f.scope_type, f.scope_id, f.status, SUM(f.delta) FROM folded f " +
+            "GROUP BY f.scope_type, f.scope_id, f.status " +
+            "ORDER BY f.scope_type, f.scope_id, f.status " +
+            "ON CONFLICT (scope_type, scope_id, status) " +
+            "DO UPDATE SET total = attendance_counters.total + EXCLUDED.total";
+
+    // Appends the difference between the group counts derived from the records and the stored ones
+    // (counters plus unfolded deltas). Both are read from the same snapshot, so scans committing meanwhile
+    // are counted exactly once: either in the snapshot or by their own delta.
+    private static final String REBUILD_GROUPS_SQL = "WITH actual AS (" +
+            "    SELECT sg.group_id AS scope_id, ar.status, COUNT(*) AS total " +
+            "    FROM attendance_records ar " +
+            "    JOIN session_groups sg ON sg.session_id = ar.session_id " +
+            "    JOIN group_students gs ON gs.group_id = sg.group_id AND gs.student_id = ar.student_id " +
+            "    WHERE sg.group_id = ANY (?) " +
+            "    GROUP BY sg.group_id, ar.status), " +
+            "stored AS (" +
+            "    SELECT c.scope_id, c.status, SUM(c.total) AS total " +
+            "    FROM (SELECT scope_id, status, total FROM attendance_counters " +
+            "          WHERE scope_type = 'GROUP' AND scope_id = ANY (?) " +
+            "          UNION ALL " +
+            "          SELECT scope_id, status, delta FROM attendance_counter_deltas " +
+            "          WHERE scope_type = 'GROUP' AND scope_id = ANY (?)) c " +
+            "    GROUP BY c.scope_id, c.status) " +
+            "INSERT INTO attendance_counter_deltas (id, scope_type, scope_id, status, delta) " +
+            "SELECT gen_random_uuid(), 'GROUP', COALESCE(a.scope_id, st.scope_id), COALESCE(a.status, st.status), " +
+            "       COALESCE(a.total, 0) - COALESCE(st.total, 0) " +
+            "FROM actual a FULL JOIN stored st ON st.scope_id = a.scope_id AND st.status = a.status " +
+            "WHERE COALESCE(a.total, 0) <> COALESCE(st.total, 0)";
+
+    // Serialises rebuilds of the same group, taken in ID order so overlapping rebuilds cannot deadlock
+    private static final String LOCK_GROUPS_SQL = "SELECT pg_advisory_xact_lock(" +
+            "hashtextextended(CAST(g AS text), 0)) FROM unnest(CAST(? AS uuid[])) AS g ORDER BY g";
+
+    // Blocks concurrent counter updates and folds (not reads) until the full rebuild commits.
+    // Deltas are locked first, in the order a fold takes them.
+    private static final String LOCK_SQL =
+            "LOCK TABLE attendance_counter_deltas, attendance_counters IN EXCLUSIVE MODE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void applyRecords(Collection<UUID> recordIds, int sign) {
+        jdbcTemplate.update(APPLY_SQL.formatted("ar.id = ANY (?)"), ps -> {
+            ps.setInt(1, sign);
+            ps.setArray(2, uuidArray(ps, recordIds));
+        });
+    }
+
+    @Override
+    public void applySession(UUID sessionId, int sign) {
+        jdbcTemplate.update(APPLY_SQL.formatted("ar.session_id = ?"), ps -> {
+            ps.setInt(1, sign);
+            ps.setObject(2, sessionId);
+        });
+    }
+
+    @Override
+    public int foldDeltas() {
+        return jdbcTemplate.update(FOLD_SQL);
+    }
+
+    @Override
+    public void rebuildGroups(Collection<UUID> groupIds) {
+        jdbcTemplate.query(LOCK_GROUPS_SQL, ps -> ps.setArray(1, uuidArray(ps, groupIds)), (RowCallbackHandler) rs -> {
+        });
+        jdbcTemplate.update(REBUILD_GROUPS_SQL, ps -> {
+            ps.setArray(1, uuidArray(ps, groupIds));
+            ps.setArray(2, uuidArray(ps, groupIds));
+            ps.setArray(3, uuidArray(ps, groupIds));
+        });
+    }
+
+    @Override
+    public void rebuildAll() {
+        jdbcTemplate.execute(LOCK_SQL);
+        jdbcTemplate.update("DELETE FROM attendance_counter_deltas");
+        jdbcTemplate.update("DELETE FROM attendance_counters");
+        jdbcTemplate.update("INSERT INTO attendance_counters (scope_type, scope_id, status, total) " +
+                COUNT_SQL.formatted("TRUE"));
+    }
+
+    private static Array uuidArray(PreparedStatement ps, Collection<UUID> ids) throws SQLException {
+        return ps.getConnection().createArrayOf("uuid", ids.toArray());
+    }
+}
@@ -1,21 +1,27 @@
 package ma.uiz.fsa.management_system.repository;
 
+import jakarta.persistence.QueryHint;
 import ma.uiz.fsa.management_system.model.entity.AttendanceRecord;
 import ma.uiz.fsa.management_system.model.enums.AttendanceStatus;
+import ma.uiz.fsa.management_system.model.enums.SessionType;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface AttendanceRecordRepository extends JpaRepository<AttendanceRecord, UUID> {
+public interface AttendanceRecordRepository extends JpaRepository<AttendanceRecord, UUID>, AttendanceRecordRepositoryCustom {
 
     Page<AttendanceRecord> findByStudentId(UUID studentId, Pageable pageable);
 
@@ -27,6 +33,12 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
 
     Optional<AttendanceRecord> findByStudentIdAndSessionId(UUID studentId, UUID sessionId);
 
+    // Duplicate check on the scan path: one column read through the (student, session) unique key
+    @Query("SELECT ar.status FROM AttendanceRecord ar WHERE ar.student.id = :studentId AND ar.session.id = :sessionId")
+    Optional<AttendanceStatus> findStatusByStudentIdAndSessionId(
+            @Param("studentId") UUID studentId,
+            @Param("sessionId") UUID sessionId);
+
     @Query("SELECT ar FROM AttendanceRecord ar WHERE ar.student.id = :studentId AND ar.date BETWEEN :startDate AND :endDate")
     List<AttendanceRecord> findByStudentIdAndDateBetween(
             @Param("studentId") UUID studentId,
@@ -47,33 +59,12 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
             @Param("endDate") LocalDate endDate,
             Pageable pageable);
 
-    @Query("SELECT COUNT(ar) FROM AttendanceRecord ar WHERE ar.student.id = :studentId AND ar.status = :status")
-    Long countByStudentIdAndStatus(
-            @Param("studentId") UUID studentId,
-            @Param("status") AttendanceStatus status);
-
-    @Query("SELECT COUNT(ar) FROM AttendanceRecord ar WHERE ar.session.id = :sessionId AND ar.status = :status")
-    Long countBySessionIdAndStatus(
-            @Param("sessionId") UUID sessionId,
-            @Param("status") AttendanceStatus status);
-
-    @Query("SELECT COUNT(ar) FROM AttendanceRecord ar WHERE ar.session.module.id = :moduleId AND ar.status = :status")
-    Long countByModuleIdAndStatus(
-            @Param("moduleId") UUID moduleId,
-            @Param("status") AttendanceStatus status);
-
-    @Query("SELECT COUNT(ar) FROM AttendanceRecord ar WHERE ar.session.module.id = :moduleId")
-    Long countByModuleId(@Param("moduleId") UUID moduleId);
-
     @Query("SELECT ar FROM AttendanceRecord ar WHERE ar.status = 'ABSENT' AND ar.isJustified = false")
     Page<AttendanceRecord> findUnjustifiedAbsences(Pageable pageable);
 
     @Query("SELECT ar FROM AttendanceRecord ar WHERE ar.student.id = :studentId AND ar.status = 'ABSENT' AND ar.isJustified = false")
     List<AttendanceRecord> findUnjustifiedAbsencesByStudent(@Param("studentId") UUID studentId);
 
-    @Query("SELECT COUNT(ar) FROM AttendanceRecord ar WHERE ar.student.id = :studentId")
-    Long countByStudentId(@Param("studentId") UUID studentId);
-
     Boolean existsByStudentIdAndSessionId(UUID studentId, UUID sessionId);
 
     @Query("SELECT ar FROM AttendanceRecord ar WHERE " +
@@ -81,4 +72,122 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
             "LOWER(ar.student.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(ar.student.cne) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     Page<AttendanceRecord> searchAttendanceRecords(@Param("searchTerm") String searchTerm, Pageable pageable);
-}
\ No newline at end of file
+
+    // Flat listing row for keyset pages, newest scan first: student, session, location and module are joined
+    // so a page is read in one statement, the cursor being a row comparison served by the (scanned_at, id) indexes
+    String LISTING_SELECT = "SELECT ar.id AS id, ar.date AS date, ar.status AS status, ar.scannedAt AS scannedAt, " +
+            "ar.isJustified AS isJustified, ar.justificationNote AS justificationNote, " +
+            "ar.justificationDocumentUrl AS justificationDocumentUrl, st.id AS studentId, " +
+            "st.firstName AS studentFirstName, st.lastName AS studentLastName, st.cne AS studentCne, " +
+            "st.email AS studentEmail, s.id AS sessionId, s.type AS sessionType, s.schedule AS sessionSchedule, " +
+            "l.building AS locationBuilding, l.roomNumber AS locationRoomNumber, " +
+            "m.title AS moduleTitle, m.code AS moduleCode, ar.deviceInfo AS deviceInfo, ar.ipAddress AS ipAddress, " +
+            "ar.markedBy AS markedBy, ar.createdAt AS createdAt, ar.updatedAt AS updatedAt, " +
+            "ar.createdBy AS createdBy, ar.lastModifiedBy AS lastModifiedBy " +
+            "FROM AttendanceRecord ar JOIN ar.student st JOIN ar.session s " +
+            "LEFT JOIN s.location l LEFT JOIN s.module m ";
+
+    String KEYSET_BEFORE = "(ar.scannedAt, ar.id) < (:scannedAt, :id) ORDER BY ar.scannedAt DESC, ar.id DESC";
+
+    @Query(LISTING_SELECT + "WHERE " + KEYSET_BEFORE)
+    List<AttendanceListing> findListingsBefore(@Param("scannedAt") LocalDateTime scannedAt,
+                                               @Param("id") UUID id,
+                                               Pageable pageable);
+
+    @Query(LISTING_SELECT + "WHERE m.id = :moduleId AND " + KEYSET_BEFORE)
+    List<AttendanceListing> findListingsByModuleIdBefore(@Param("moduleId") UUID moduleId,
+                                                         @Param("scannedAt") LocalDateTime scannedAt,
+                                                         @Param("id") UUID id,
+                                                         Pageable pageable);
+
+    @Query(LISTING_SELECT + "WHERE ar.status = 'ABSENT' AND ar.isJustified = false AND " + KEYSET_BEFORE)
+    List<AttendanceListing> findUnjustifiedAbsenceListingsBefore(@Param("scannedAt") LocalDateTime scannedAt,
+                                                                 @Param("id") UUID id,
+                                                                 Pageable pageable);
+
+    @Query("SELECT COUNT(ar) FROM AttendanceRecord ar WHERE ar.session.module.id = :moduleId")
+    Long countByModuleId(@Param("moduleId") UUID moduleId);
+
+    @Query("SELECT COUNT(ar) FROM AttendanceRecord ar WHERE ar.status = 'ABSENT' AND ar.isJustified = false")
+    Long countUnjustifiedAbsences();
+
+    // Forward-only read of the whole table for the streamed "simple" listing, see StreamingQueries
+    @Query("SELECT ar.id AS id, ar.date AS date, ar.status AS status, ar.scannedAt AS scannedAt, " +
+            "st.firstName AS studentFirstName, st.lastName AS studentLastName, m.title AS moduleTitle, " +
+            "ar.isJustified AS isJustified " +
+            "FROM AttendanceRecord ar JOIN ar.student st JOIN ar.session s LEFT JOIN s.module m")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE))
+    Stream<AttendanceSimpleListing> streamAllSimpleListings();
+
+    interface AttendanceListing {
+        UUID getId();
+
+        LocalDate getDate();
+
+        AttendanceStatus getStatus();
+
+        LocalDateTime getScannedAt();
+
+        Boolean getIsJustified();
+
+        String getJustificationNote();
+
+        String getJustificationDocumentUrl();
+
+        UUID getStudentId();
+
+        String getStudentFirstName();
+
+        String getStudentLastName();
+
+        String getStudentCne();
+
+        String getStudentEmail();
+
+        UUID getSessionId();
+
+        SessionType getSessionType();
+
+        LocalDateTime getSessionSchedule();
+
+        String getLocationBuilding();
+
+        String getLocationRoomNumber();
+
+        String getModuleTitle();
+
+        String getModuleCode();
+
+        String getDeviceInfo();
+
+        String getIpAddress();
+
+        String getMarkedBy();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+
+        String getCreatedBy();
+
+        String getLastModifiedBy();
+    }
+
+    interface AttendanceSimpleListing {
+        UUID getId();
+
+        LocalDate getDate();
+
+        AttendanceStatus getStatus();
+
+        LocalDateTime getScannedAt();
+
+        String getStudentFirstName();
+
+        String getStudentLastName();
+
+        String getModuleTitle();
+
+        Boolean getIsJustified();
+    }
+}
@@ -0,0 +1,38 @@
+package ma.uiz.fsa.management_system.repository;
+
+import ma.uiz.fsa.management_system.model.entity.AttendanceRecord;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public interface AttendanceRecordRepositoryCustom {
+
+    /**
+     * Inserts the record unless one already exists for the same student and session, in a single
+     * {@code INSERT ... ON CONFLICT DO NOTHING RETURNING} statement. The record must already carry
+     * its ID and audit fields.
+     *
+     * @return true if the record was inserted, false if the student already has attendance for the session
+     */
+    boolean insertIfAbsent(AttendanceRecord attendanceRecord);
+
+    /**
+     * Inserts every record that does not conflict with an existing one for the same student and session,
+     * in a single multi-row {@code INSERT ... SELECT FROM unnest(...) ON CONFLICT DO NOTHING RETURNING}
+     * statement. The records must already carry their ID and audit fields; justification fields are not written.
+     *
+     * @return IDs of the inserted records
+     */
+    Set<UUID> insertAllIfAbsent(List<AttendanceRecord> attendanceRecords);
+
+    /**
+     * Inserts an ABSENT record for every student enrolled (through the session groups) in one of the
+     * given (incomplete) sessions who has no attendance record yet. Runs as a single anti-join INSERT ... SELECT.
+     *
+     * @return IDs of the ABSENT records inserted
+     */
+    List<UUID> insertMissingAbsences(Collection<UUID> sessionIds, LocalDateTime now, String auditor);
+}
@@ -0,0 +1,150 @@
+package ma.uiz.fsa.management_system.repository;
+
+import lombok.RequiredArgsConstructor;
+import ma.uiz.fsa.management_system.model.entity.AttendanceRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class AttendanceRecordRepositoryCustomImpl implements AttendanceRecordRepositoryCustom {
+
+    private static final String INSERT_IF_ABSENT_SQL = "INSERT INTO attendance_records " +
+            "(id, student_id, session_id, date, status, scanned_at, is_justified, justification_note, " +
+            "justification_document_url, device_info, ip_address, marked_by, " +
+            "created_at, updated_at, created_by, last_modified_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (student_id, session_id) DO NOTHING " +
+            "RETURNING id";
+
+    private static final String INSERT_ALL_IF_ABSENT_SQL = "INSERT INTO attendance_records " +
+            "(id, student_id, session_id, date, status, scanned_at, is_justified, device_info, ip_address, " +
+            "marked_by, created_at, updated_at, created_by, last_modified_by) " +
+            "SELECT t.id, t.student_id, t.session_id, t.date, t.status, t.scanned_at, false, t.device_info, " +
+            "t.ip_address, t.marked_by, t.created_at, t.created_at, t.created_by, t.created_by " +
+            "FROM unnest(CAST(? AS uuid[]), CAST(? AS uuid[]), CAST(? AS uuid[]), CAST(? AS date[]), " +
+            "CAST(? AS varchar[]), CAST(? AS timestamp[]), CAST(? AS varchar[]), CAST(? AS varchar[]), " +
+            "CAST(? AS varchar[]), CAST(? AS timestamp[]), CAST(? AS varchar[])) " +
+            "AS t(id, student_id, session_id, date, status, scanned_at, device_info, ip_address, " +
+            "marked_by, created_at, created_by) " +
+            "ON CONFLICT (student_id, session_id) DO NOTHING " +
+            "RETURNING id";
+
+    private static final String INSERT_MISSING_ABSENCES_SQL = "INSERT INTO attendance_records " +
+            "(id, student_id, session_id, date, status, scanned_at, is_justified, marked_by, " +
+            "created_at, updated_at, created_by, last_modified_by) " +
+            "SELECT gen_random_uuid(), e.student_id, e.session_id, CAST(e.schedule AS date), 'ABSENT', ?, false, " +
+            "'SYSTEM', ?, ?, ?, ? " +
+            "FROM (SELECT DISTINCT gs.student_id, s.id AS session_id, s.schedule " +
+            "      FROM sessions s " +
+            "      JOIN session_groups sg ON sg.session_id = s.id " +
+            "      JOIN group_students gs ON gs.group_id = sg.group_id " +
+            "      WHERE s.id = ANY (?) AND s.is_completed = false) e " +
+            "WHERE NOT EXISTS (SELECT 1 FROM attendance_records ar " +
+            "                  WHERE ar.session_id = e.session_id AND ar.student_id = e.student_id) " +
+            "ON CONFLICT (student_id, session_id) DO NOTHING " +
+            "RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean insertIfAbsent(AttendanceRecord attendanceRecord) {
+        Boolean inserted = jdbcTemplate.query(INSERT_IF_ABSENT_SQL, ps -> {
+            ps.setObject(1, attendanceRecord.getId());
+            ps.setObject(2, attendanceRecord.getStudent().getId());
+            ps.setObject(3, attendanceRecord.getSession().getId());
+            ps.setDate(4, Date.valueOf(attendanceRecord.getDate()));
+            ps.setString(5, attendanceRecord.getStatus().name());
+            ps.setTimestamp(6, Timestamp.valueOf(attendanceRecord.getScannedAt()));
+            ps.setBoolean(7, Boolean.TRUE.equals(attendanceRecord.getIsJustified()));
+            ps.setString(8, attendanceRecord.getJustificationNote());
+            ps.setString(9, attendanceRecord.getJustificationDocumentUrl());
+            ps.setString(10, attendanceRecord.getDeviceInfo());
+            ps.setString(11, attendanceRecord.getIpAddress());
+            ps.setString(12, attendanceRecord.getMarkedBy());
+            ps.setTimestamp(13, Timestamp.valueOf(attendanceRecord.getCreatedAt()));
+            ps.setTimestamp(14, Timestamp.valueOf(attendanceRecord.getUpdatedAt()));
+            ps.setString(15, attendanceRecord.getCreatedBy());
+            ps.setString(16, attendanceRecord.getLastModifiedBy());
+        }, (ResultSetExtractor<Boolean>) ResultSet::next);
+
+        return Boolean.TRUE.equals(inserted);
+    }
+
+    @Override
+    public Set<UUID> insertAllIfAbsent(List<AttendanceRecord> attendanceRecords) {
+        if (attendanceRecords.isEmpty()) {
+            return Set.of();
+        }
+
+        int size = attendanceRecords.size();
+        UUID[] ids = new UUID[size];
+        UUID[] studentIds = new UUID[size];
+        UUID[] sessionIds = new UUID[size];
+        Date[] dates = new Date[size];
+        String[] statuses = new String[size];
+        Timestamp[] scannedAts = new Timestamp[size];
+        String[] deviceInfos = new String[size];
+        String[] ipAddresses = new String[size];
+        String[] markedBys = new String[size];
+        Timestamp[] createdAts = new Timestamp[size];
+        String[] createdBys = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            AttendanceRecord attendanceRecord = attendanceRecords.get(i);
+            ids[i] = attendanceRecord.getId();
+            studentIds[i] = attendanceRecord.getStudent().getId();
+            sessionIds[i] = attendanceRecord.getSession().getId();
+            dates[i] = Date.valueOf(attendanceRecord.getDate());
+            statuses[i] = attendanceRecord.getStatus().name();
+            scannedAts[i] = Timestamp.valueOf(attendanceRecord.getScannedAt());
+            deviceInfos[i] = attendanceRecord.getDeviceInfo();
+            ipAddresses[i] = attendanceRecord.getIpAddress();
+            markedBys[i] = attendanceRecord.getMarkedBy();
+            createdAts[i] = Timestamp.valueOf(attendanceRecord.getCreatedAt());
+            createdBys[i] = attendanceRecord.getCreatedBy();
+        }
+
+        Set<UUID> insertedIds = new HashSet<>();
+        jdbcTemplate.query(INSERT_ALL_IF_ABSENT_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("uuid", ids));
+            ps.setArray(2, connection.createArrayOf("uuid", studentIds));
+            ps.setArray(3, connection.createArrayOf("uuid", sessionIds));
+            ps.setArray(4, connection.createArrayOf("date", dates));
+            ps.setArray(5, connection.createArrayOf("varchar", statuses));
+            ps.setArray(6, connection.createArrayOf("timestamp", scannedAts));
+            ps.setArray(7, connection.createArrayOf("varchar", deviceInfos));
+            ps.setArray(8, connection.createArrayOf("varchar", ipAddresses));
+            ps.setArray(9, connection.createArrayOf("varchar", markedBys));
+            ps.setArray(10, connection.createArrayOf("timestamp", createdAts));
+            ps.setArray(11, connection.createArrayOf("varchar", createdBys));
+        }, (RowCallbackHandler) rs -> insertedIds.add(rs.getObject(1, UUID.class)));
+
+        return insertedIds;
+    }
+
+    @Override
+    public List<UUID> insertMissingAbsences(Collection<UUID> sessionIds, LocalDateTime now, String auditor) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        return jdbcTemplate.query(INSERT_MISSING_ABSENCES_SQL, ps -> {
+            ps.setTimestamp(1, timestamp);
+            ps.setTimestamp(2, timestamp);
+            ps.setTimestamp(3, timestamp);
+            ps.setString(4, auditor);
+            ps.setString(5, auditor);
+            ps.setArray(6, ps.getConnection().createArrayOf("uuid", sessionIds.toArray()));
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+    }
+}
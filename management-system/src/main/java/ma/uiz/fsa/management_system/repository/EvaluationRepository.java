@@ -1,20 +1,25 @@
 package ma.uiz.fsa.management_system.repository;
 
+import jakarta.persistence.QueryHint;
 import ma.uiz.fsa.management_system.model.entity.Evaluation;
 import ma.uiz.fsa.management_system.model.enums.EvaluationType;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface EvaluationRepository extends JpaRepository<Evaluation, UUID> {
+public interface EvaluationRepository extends JpaRepository<Evaluation, UUID>, EvaluationRepositoryCustom {
 
     Page<Evaluation> findByStudentId(UUID studentId, Pageable pageable);
 
@@ -26,6 +31,12 @@ public interface EvaluationRepository extends JpaRepository<Evaluation, UUID> {
 
     Page<Evaluation> findByIsValidated(Boolean isValidated, Pageable pageable);
 
+    Boolean existsByStudentIdAndModuleIdAndTypeAndDate(UUID studentId, UUID moduleId, EvaluationType type,
+                                                      LocalDate date);
+
+    Boolean existsByStudentIdAndModuleIdAndTypeAndDateAndIdNot(UUID studentId, UUID moduleId, EvaluationType type,
+                                                              LocalDate date, UUID id);
+
     @Query("SELECT e FROM Evaluation e WHERE e.date BETWEEN :startDate AND :endDate")
     Page<Evaluation> findByDateBetween(
             @Param("startDate") LocalDate startDate,
@@ -70,4 +81,89 @@ public interface EvaluationRepository extends JpaRepository<Evaluation, UUID> {
 
     @Query("SELECT e FROM Evaluation e WHERE e.student.id = :studentId AND (e.grade / e.maxGrade) * 20.0 < e.module.passingGrade")
     List<Evaluation> findFailingGradesByStudent(@Param("studentId") UUID studentId);
-}
\ No newline at end of file
+
+    // Flat listing row for keyset pages, newest first: student and module are joined so a page is read in one
+    // statement, the cursor being a row comparison served by the (created_at, id) index
+    @Query("SELECT e.id AS id, e.type AS type, e.date AS date, e.grade AS grade, e.coefficient AS coefficient, " +
+            "e.maxGrade AS maxGrade, e.comments AS comments, e.isValidated AS isValidated, st.id AS studentId, " +
+            "st.firstName AS studentFirstName, st.lastName AS studentLastName, st.cne AS studentCne, " +
+            "st.email AS studentEmail, m.id AS moduleId, m.title AS moduleTitle, m.code AS moduleCode, " +
+            "m.passingGrade AS modulePassingGrade, e.createdAt AS createdAt, e.updatedAt AS updatedAt, " +
+            "e.createdBy AS createdBy, e.lastModifiedBy AS lastModifiedBy " +
+            "FROM Evaluation e JOIN e.student st JOIN e.module m " +
+            "WHERE (e.createdAt, e.id) < (:createdAt, :id) ORDER BY e.createdAt DESC, e.id DESC")
+    List<EvaluationListing> findListingsBefore(@Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") UUID id,
+                                               Pageable pageable);
+
+    // Forward-only read of the whole table for the streamed "simple" listing, see StreamingQueries
+    @Query("SELECT e.id AS id, e.type AS type, e.date AS date, e.grade AS grade, e.coefficient AS coefficient, " +
+            "st.firstName AS studentFirstName, st.lastName AS studentLastName, m.title AS moduleTitle, " +
+            "e.isValidated AS isValidated FROM Evaluation e JOIN e.student st JOIN e.module m")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE))
+    Stream<EvaluationSimpleListing> streamAllSimpleListings();
+
+    interface EvaluationListing {
+        UUID getId();
+
+        EvaluationType getType();
+
+        LocalDate getDate();
+
+        Double getGrade();
+
+        Double getCoefficient();
+
+        Double getMaxGrade();
+
+        String getComments();
+
+        Boolean getIsValidated();
+
+        UUID getStudentId();
+
+        String getStudentFirstName();
+
+        String getStudentLastName();
+
+        String getStudentCne();
+
+        String getStudentEmail();
+
+        UUID getModuleId();
+
+        String getModuleTitle();
+
+        String getModuleCode();
+
+        Double getModulePassingGrade();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+
+        String getCreatedBy();
+
+        String getLastModifiedBy();
+    }
+
+    interface EvaluationSimpleListing {
+        UUID getId();
+
+        EvaluationType getType();
+
+        LocalDate getDate();
+
+        Double getGrade();
+
+        Double getCoefficient();
+
+        String getStudentFirstName();
+
+        String getStudentLastName();
+
+        String getModuleTitle();
+
+        Boolean getIsValidated();
+    }
+}
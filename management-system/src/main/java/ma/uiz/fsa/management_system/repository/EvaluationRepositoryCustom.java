@@ -0,0 +1,25 @@
+package ma.uiz.fsa.management_system.repository;
+
+import ma.uiz.fsa.management_system.model.entity.Evaluation;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface EvaluationRepositoryCustom {
+
+    /**
+     * Outcome of one written evaluation: its ID (the existing one when updated) and whether it was inserted
+     */
+    record UpsertedEvaluation(UUID id, UUID studentId, boolean inserted) {
+    }
+
+    /**
+     * Inserts the evaluations, or updates the grade, coefficient, max grade and comments of the existing evaluation
+     * of the same student, module, type and date, in a single multi-row
+     * {@code INSERT ... SELECT FROM unnest(...) ON CONFLICT DO UPDATE RETURNING} statement. Validated evaluations
+     * are left untouched and are not returned. The evaluations must already carry their ID and audit fields.
+     *
+     * @return the inserted or updated evaluations
+     */
+    List<UpsertedEvaluation> upsertAll(List<Evaluation> evaluations);
+}
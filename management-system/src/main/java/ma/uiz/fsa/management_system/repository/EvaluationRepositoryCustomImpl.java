@@ -0,0 +1,91 @@
+package ma.uiz.fsa.management_system.repository;
+
+import lombok.RequiredArgsConstructor;
+import ma.uiz.fsa.management_system.model.entity.Evaluation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class EvaluationRepositoryCustomImpl implements EvaluationRepositoryCustom {
+
+    private static final String UPSERT_ALL_SQL = "INSERT INTO evaluations " +
+            "(id, student_id, module_id, type, date, grade, coefficient, max_grade, comments, is_validated, " +
+            "created_at, updated_at, created_by, last_modified_by) " +
+            "SELECT t.id, t.student_id, t.module_id, t.type, t.date, t.grade, t.coefficient, t.max_grade, " +
+            "t.comments, false, t.created_at, t.created_at, t.created_by, t.created_by " +
+            "FROM unnest(CAST(? AS uuid[]), CAST(? AS uuid[]), CAST(? AS uuid[]), CAST(? AS varchar[]), " +
+            "CAST(? AS date[]), CAST(? AS float8[]), CAST(? AS float8[]), CAST(? AS float8[]), " +
+            "CAST(? AS varchar[]), CAST(? AS timestamp[]), CAST(? AS varchar[])) " +
+            "AS t(id, student_id, module_id, type, date, grade, coefficient, max_grade, comments, " +
+            "created_at, created_by) " +
+            "ON CONFLICT (student_id, module_id, type, date) DO UPDATE SET " +
+            "grade = EXCLUDED.grade, coefficient = EXCLUDED.coefficient, max_grade = EXCLUDED.max_grade, " +
+            "comments = EXCLUDED.comments, updated_at = EXCLUDED.updated_at, " +
+            "last_modified_by = EXCLUDED.last_modified_by " +
+            "WHERE evaluations.is_validated = false " +
+            // xmax is 0 only for rows created by this statement
+            "RETURNING id, student_id, (xmax = 0) AS inserted";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<UpsertedEvaluation> upsertAll(List<Evaluation> evaluations) {
+        if (evaluations.isEmpty()) {
+            return List.of();
+        }
+
+        int size = evaluations.size();
+        UUID[] ids = new UUID[size];
+        UUID[] studentIds = new UUID[size];
+        UUID[] moduleIds = new UUID[size];
+        String[] types = new String[size];
+        Date[] dates = new Date[size];
+        Double[] grades = new Double[size];
+        Double[] coefficients = new Double[size];
+        Double[] maxGrades = new Double[size];
+        String[] comments = new String[size];
+        Timestamp[] createdAts = new Timestamp[size];
+        String[] createdBys = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            Evaluation evaluation = evaluations.get(i);
+            ids[i] = evaluation.getId();
+            studentIds[i] = evaluation.getStudent().getId();
+            moduleIds[i] = evaluation.getModule().getId();
+            types[i] = evaluation.getType().name();
+            dates[i] = Date.valueOf(evaluation.getDate());
+            grades[i] = evaluation.getGrade();
+            coefficients[i] = evaluation.getCoefficient();
+            maxGrades[i] = evaluation.getMaxGrade();
+            comments[i] = evaluation.getComments();
+            createdAts[i] = Timestamp.valueOf(evaluation.getCreatedAt());
+            createdBys[i] = evaluation.getCreatedBy();
+        }
+
+        List<UpsertedEvaluation> upserted = new ArrayList<>(size);
+        jdbcTemplate.query(UPSERT_ALL_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("uuid", ids));
+            ps.setArray(2, connection.createArrayOf("uuid", studentIds));
+            ps.setArray(3, connection.createArrayOf("uuid", moduleIds));
+            ps.setArray(4, connection.createArrayOf("varchar", types));
+            ps.setArray(5, connection.createArrayOf("date", dates));
+            ps.setArray(6, connection.createArrayOf("float8", grades));
+            ps.setArray(7, connection.createArrayOf("float8", coefficients));
+            ps.setArray(8, connection.createArrayOf("float8", maxGrades));
+            ps.setArray(9, connection.createArrayOf("varchar", comments));
+            ps.setArray(10, connection.createArrayOf("timestamp", createdAts));
+            ps.setArray(11, connection.createArrayOf("varchar", createdBys));
+        }, (RowCallbackHandler) rs -> upserted.add(new UpsertedEvaluation(
+                rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getBoolean(3))));
+
+        return upserted;
+    }
+}
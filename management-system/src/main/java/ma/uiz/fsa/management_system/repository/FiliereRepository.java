@@ -1,17 +1,21 @@
 package ma.uiz.fsa.management_system.repository;
 
+import jakarta.persistence.QueryHint;
 import ma.uiz.fsa.management_system.model.entity.Filiere;
 import ma.uiz.fsa.management_system.model.enums.DegreeType;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface FiliereRepository extends JpaRepository<Filiere, UUID> {
@@ -42,4 +46,24 @@ public interface FiliereRepository extends JpaRepository<Filiere, UUID> {
 
     @Query("SELECT COUNT(f) FROM Filiere f WHERE f.department.id = :departmentId")
     Long countByDepartmentId(@Param("departmentId") UUID departmentId);
-}
\ No newline at end of file
+
+    // Forward-only read of the whole table for the streamed "simple" listing, see StreamingQueries
+    @Query("SELECT f.id AS id, f.name AS name, f.code AS code, f.degreeType AS degreeType, " +
+            "d.name AS departmentName, f.isActive AS isActive FROM Filiere f LEFT JOIN f.department d")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE))
+    Stream<FiliereSimpleListing> streamAllSimpleListings();
+
+    interface FiliereSimpleListing {
+        UUID getId();
+
+        String getName();
+
+        String getCode();
+
+        DegreeType getDegreeType();
+
+        String getDepartmentName();
+
+        Boolean getIsActive();
+    }
+}
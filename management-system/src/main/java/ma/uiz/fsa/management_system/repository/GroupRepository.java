@@ -1,16 +1,20 @@
 package ma.uiz.fsa.management_system.repository;
 
+import jakarta.persistence.QueryHint;
 import ma.uiz.fsa.management_system.model.entity.Group;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface GroupRepository extends JpaRepository<Group, UUID> {
@@ -51,4 +55,27 @@ public interface GroupRepository extends JpaRepository<Group, UUID> {
 
     @Query("SELECT g FROM Group g WHERE g.module.id = :moduleId AND g.isActive = true")
     List<Group> findActiveGroupsByModule(@Param("moduleId") UUID moduleId);
-}
\ No newline at end of file
+
+    // Forward-only read of the whole table for the streamed "simple" listing, see StreamingQueries
+    @Query("SELECT g.id AS id, g.name AS name, g.code AS code, SIZE(g.students) AS studentCount, " +
+            "g.maxCapacity AS maxCapacity, m.title AS moduleTitle, g.isActive AS isActive " +
+            "FROM Group g LEFT JOIN g.module m")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE))
+    Stream<GroupSimpleListing> streamAllSimpleListings();
+
+    interface GroupSimpleListing {
+        UUID getId();
+
+        String getName();
+
+        String getCode();
+
+        Integer getStudentCount();
+
+        Integer getMaxCapacity();
+
+        String getModuleTitle();
+
+        Boolean getIsActive();
+    }
+}
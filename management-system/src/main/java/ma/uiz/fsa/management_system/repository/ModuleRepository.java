@@ -1,16 +1,20 @@
 package ma.uiz.fsa.management_system.repository;
 
+import jakarta.persistence.QueryHint;
 import ma.uiz.fsa.management_system.model.entity.Module;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ModuleRepository extends JpaRepository<Module, UUID> {
@@ -50,4 +54,24 @@ public interface ModuleRepository extends JpaRepository<Module, UUID> {
 
     @Query("SELECT m FROM Module m WHERE m.semester.id = :semesterId AND m.isActive = true")
     List<Module> findActiveModulesBySemester(@Param("semesterId") UUID semesterId);
-}
\ No newline at end of file
+
+    // Forward-only read of the whole table for the streamed "simple" listing, see StreamingQueries
+    @Query("SELECT m.id AS id, m.title AS title, m.code AS code, m.credits AS credits, " +
+            "se.name AS semesterName, m.isActive AS isActive FROM Module m LEFT JOIN m.semester se")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE))
+    Stream<ModuleSimpleListing> streamAllSimpleListings();
+
+    interface ModuleSimpleListing {
+        UUID getId();
+
+        String getTitle();
+
+        String getCode();
+
+        Integer getCredits();
+
+        String getSemesterName();
+
+        Boolean getIsActive();
+    }
+}
@@ -18,4 +18,15 @@ public interface PasswordResetTokenRepository extends JpaRepository<PasswordRese
     @Modifying
     @Query("DELETE FROM PasswordResetToken prt WHERE prt.expiryDate < :now")
     void deleteExpiredTokens(LocalDateTime now);
+
+    /**
+     * Delete up to {@code batchSize} expired or used password reset tokens
+     *
+     * @return number of tokens deleted
+     */
+    @Modifying
+    @Query(value = "DELETE FROM password_reset_tokens WHERE id IN (" +
+            "SELECT id FROM password_reset_tokens WHERE expiry_date < :now OR used LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredOrUsedBatch(LocalDateTime now, int batchSize);
 }
\ No newline at end of file
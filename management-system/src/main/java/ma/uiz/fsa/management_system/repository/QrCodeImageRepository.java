@@ -0,0 +1,27 @@
+package ma.uiz.fsa.management_system.repository;
+
+import ma.uiz.fsa.management_system.model.entity.QrCodeImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface QrCodeImageRepository extends JpaRepository<QrCodeImage, UUID> {
+
+    @Query("SELECT q.image FROM QrCodeImage q WHERE q.ownerId = :ownerId")
+    Optional<byte[]> findImageByOwnerId(@Param("ownerId") UUID ownerId);
+
+    @Query("SELECT q.image FROM QrCodeImage q WHERE q.ownerId = :ownerId AND q.qrCode = :qrCode")
+    Optional<byte[]> findImageByOwnerIdAndQrCode(
+            @Param("ownerId") UUID ownerId,
+            @Param("qrCode") String qrCode);
+
+    @Modifying
+    @Query("DELETE FROM QrCodeImage q WHERE q.ownerId = :ownerId")
+    void deleteByOwnerId(@Param("ownerId") UUID ownerId);
+}
@@ -0,0 +1,39 @@
+package ma.uiz.fsa.management_system.repository;
+
+import ma.uiz.fsa.management_system.model.entity.QrCodeTask;
+import ma.uiz.fsa.management_system.model.enums.QrCodeTaskStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface QrCodeTaskRepository extends JpaRepository<QrCodeTask, UUID> {
+
+    /**
+     * Lock the oldest pending tasks, skipping the ones another instance is already processing
+     */
+    @Query(value = "SELECT * FROM qr_code_outbox WHERE status = 'PENDING' " +
+            "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<QrCodeTask> lockPending(@Param("limit") int limit);
+
+    @Query("SELECT t.status AS status, COUNT(t) AS total FROM QrCodeTask t " +
+            "WHERE t.batchId = :batchId GROUP BY t.status")
+    List<StatusCount> countByBatchIdGroupByStatus(@Param("batchId") UUID batchId);
+
+    @Modifying
+    @Query("DELETE FROM QrCodeTask t WHERE t.status <> :pending AND t.processedAt < :before")
+    int deleteProcessedBefore(@Param("pending") QrCodeTaskStatus pending, @Param("before") LocalDateTime before);
+
+    interface StatusCount {
+        QrCodeTaskStatus getStatus();
+
+        Long getTotal();
+    }
+}
@@ -7,15 +7,23 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
 
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
 
-    Optional<RefreshToken> findByUserAndRevokedFalse(User user);
+    /**
+     * IDs of the user's usable refresh tokens, newest first
+     */
+    @Query("SELECT rt.id FROM RefreshToken rt " +
+            "WHERE rt.user = :user AND rt.revoked = false AND rt.expiryDate > :now " +
+            "ORDER BY rt.createdAt DESC")
+    List<UUID> findActiveTokenIdsByUser(User user, LocalDateTime now);
 
     @Modifying
     @Query("DELETE FROM RefreshToken rt WHERE rt.user = :user")
@@ -24,4 +32,15 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID
     @Modifying
     @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user = :user")
     void revokeAllUserTokens(User user);
+
+    /**
+     * Delete up to {@code batchSize} expired or revoked refresh tokens
+     *
+     * @return number of tokens deleted
+     */
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN (" +
+            "SELECT id FROM refresh_tokens WHERE expiry_date < :now OR revoked LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredOrRevokedBatch(LocalDateTime now, int batchSize);
 }
\ No newline at end of file
@@ -1,42 +1,110 @@
 package ma.uiz.fsa.management_system.repository;
 
+import jakarta.persistence.QueryHint;
 import ma.uiz.fsa.management_system.model.entity.Session;
+import ma.uiz.fsa.management_system.model.enums.AttendanceMode;
 import ma.uiz.fsa.management_system.model.enums.SessionType;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface SessionRepository extends JpaRepository<Session, UUID> {
 
-    Page<Session> findByModuleId(UUID moduleId, Pageable pageable);
+    // Flat listing row: location, module and professor are joined and the attendance statistics are read from
+    // the session's attendance counters, so a page is read in one statement without loading any session association
+    String LISTING_SELECT = "SELECT s.id AS id, s.name AS name, s.type AS type, s.schedule AS schedule, " +
+            "s.duration AS duration, s.description AS description, s.isCompleted AS isCompleted, " +
+            "s.attendanceTaken AS attendanceTaken, s.attendanceMode AS attendanceMode, s.qrCode AS qrCode, " +
+            "l.id AS locationId, l.building AS locationBuilding, l.roomNumber AS locationRoomNumber, " +
+            "l.capacity AS locationCapacity, m.id AS moduleId, m.title AS moduleTitle, m.code AS moduleCode, " +
+            "p.id AS professorId, p.firstName AS professorFirstName, p.lastName AS professorLastName, " +
+            "p.email AS professorEmail, SIZE(s.groups) AS totalGroups, " +
+            "(SELECT COALESCE(SUM(c.total), 0) FROM AttendanceCounter c WHERE c.id.scopeType = 'SESSION' " +
+            "AND c.id.scopeId = s.id) AS totalAttendanceRecords, " +
+            "(SELECT COALESCE(SUM(c.total), 0) FROM AttendanceCounter c WHERE c.id.scopeType = 'SESSION' " +
+            "AND c.id.scopeId = s.id AND c.id.status = 'PRESENT') AS presentCount, " +
+            "(SELECT COALESCE(SUM(c.total), 0) FROM AttendanceCounter c WHERE c.id.scopeType = 'SESSION' " +
+            "AND c.id.scopeId = s.id AND c.id.status = 'ABSENT') AS absentCount, " +
+            "s.createdAt AS createdAt, s.updatedAt AS updatedAt, s.createdBy AS createdBy, " +
+            "s.lastModifiedBy AS lastModifiedBy " +
+            "FROM Session s LEFT JOIN s.location l LEFT JOIN s.module m LEFT JOIN s.professor p ";
 
-    Page<Session> findByProfessorId(UUID professorId, Pageable pageable);
+    @Query(value = LISTING_SELECT,
+            countQuery = "SELECT COUNT(s) FROM Session s")
+    Page<SessionListing> findAllListings(Pageable pageable);
 
-    Page<Session> findByType(SessionType type, Pageable pageable);
+    @Query(value = LISTING_SELECT + "WHERE m.id = :moduleId",
+            countQuery = "SELECT COUNT(s) FROM Session s WHERE s.module.id = :moduleId")
+    Page<SessionListing> findListingsByModuleId(@Param("moduleId") UUID moduleId, Pageable pageable);
 
-    Page<Session> findByIsCompleted(Boolean isCompleted, Pageable pageable);
+    @Query(value = LISTING_SELECT + "WHERE p.id = :professorId",
+            countQuery = "SELECT COUNT(s) FROM Session s WHERE s.professor.id = :professorId")
+    Page<SessionListing> findListingsByProfessorId(@Param("professorId") UUID professorId, Pageable pageable);
 
-    @Query("SELECT s FROM Session s WHERE s.schedule BETWEEN :startDate AND :endDate")
-    Page<Session> findByScheduleBetween(
+    @Query(value = LISTING_SELECT + "WHERE s.type = :type",
+            countQuery = "SELECT COUNT(s) FROM Session s WHERE s.type = :type")
+    Page<SessionListing> findListingsByType(@Param("type") SessionType type, Pageable pageable);
+
+    @Query(value = LISTING_SELECT + "WHERE s.isCompleted = :isCompleted",
+            countQuery = "SELECT COUNT(s) FROM Session s WHERE s.isCompleted = :isCompleted")
+    Page<SessionListing> findListingsByIsCompleted(@Param("isCompleted") Boolean isCompleted, Pageable pageable);
+
+    @Query(value = LISTING_SELECT + "WHERE s.schedule BETWEEN :startDate AND :endDate",
+            countQuery = "SELECT COUNT(s) FROM Session s WHERE s.schedule BETWEEN :startDate AND :endDate")
+    Page<SessionListing> findListingsByScheduleBetween(
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate,
             Pageable pageable);
 
+    @Query(value = LISTING_SELECT + "JOIN s.groups g WHERE g.id = :groupId",
+            countQuery = "SELECT COUNT(s) FROM Session s JOIN s.groups g WHERE g.id = :groupId")
+    Page<SessionListing> findListingsByGroupId(@Param("groupId") UUID groupId, Pageable pageable);
+
+    @Query(value = LISTING_SELECT + "WHERE s.schedule >= :now AND s.isCompleted = false ORDER BY s.schedule ASC",
+            countQuery = "SELECT COUNT(s) FROM Session s WHERE s.schedule >= :now AND s.isCompleted = false")
+    Page<SessionListing> findUpcomingListings(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query(value = LISTING_SELECT + "WHERE " +
+            "LOWER(CONCAT(l.building, ' - ', l.roomNumber)) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(m.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(p.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(p.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))",
+            countQuery = "SELECT COUNT(s) FROM Session s " +
+                    "LEFT JOIN s.location l LEFT JOIN s.module m LEFT JOIN s.professor p WHERE " +
+                    "LOWER(CONCAT(l.building, ' - ', l.roomNumber)) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                    "LOWER(m.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                    "LOWER(p.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                    "LOWER(p.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+    Page<SessionListing> searchListings(@Param("searchTerm") String searchTerm, Pageable pageable);
+
+    /**
+     * Groups of several sessions at once, for the listing pages
+     */
+    @Query("SELECT s.id AS sessionId, g.id AS id, g.name AS name, g.code AS code, SIZE(g.students) AS studentCount " +
+            "FROM Session s JOIN s.groups g WHERE s.id IN :sessionIds")
+    List<SessionGroupSummary> findGroupSummariesBySessionIdIn(@Param("sessionIds") Collection<UUID> sessionIds);
+
     @Query("SELECT s FROM Session s WHERE s.professor.id = :professorId AND s.schedule >= :startDate")
     List<Session> findUpcomingSessionsByProfessor(
             @Param("professorId") UUID professorId,
             @Param("startDate") LocalDateTime startDate);
 
-    @Query("SELECT s FROM Session s JOIN s.groups g WHERE g.id = :groupId")
-    Page<Session> findByGroupId(@Param("groupId") UUID groupId, Pageable pageable);
+    @Query("SELECT COUNT(s) FROM Session s JOIN s.groups g WHERE g.id = :groupId")
+    Long countByGroupId(@Param("groupId") UUID groupId);
 
     @Query("SELECT s FROM Session s WHERE s.module.id = :moduleId AND s.schedule BETWEEN :startDate AND :endDate")
     List<Session> findByModuleIdAndScheduleBetween(
@@ -55,22 +123,147 @@ public interface SessionRepository extends JpaRepository<Session, UUID> {
     @Query("SELECT COUNT(s) FROM Session s WHERE s.module.id = :moduleId")
     Long countByModuleId(@Param("moduleId") UUID moduleId);
 
+    @Query("SELECT s.module.id AS moduleId, COUNT(s) AS total FROM Session s " +
+            "WHERE s.module.id IN :moduleIds GROUP BY s.module.id")
+    List<ModuleSessionCount> countByModuleIds(@Param("moduleIds") Collection<UUID> moduleIds);
+
+    @Query("SELECT s FROM Session s JOIN FETCH s.module WHERE s.id IN :sessionIds")
+    List<Session> findAllWithModuleByIdIn(@Param("sessionIds") Collection<UUID> sessionIds);
+
     @Query("SELECT COUNT(s) FROM Session s WHERE s.professor.id = :professorId AND s.schedule BETWEEN :startDate AND :endDate")
     Long countByProfessorIdAndScheduleBetween(
             @Param("professorId") UUID professorId,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT s FROM Session s WHERE " +
-            "LOWER(s.location) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(s.module.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(s.professor.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(s.professor.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Session> searchSessions(@Param("searchTerm") String searchTerm, Pageable pageable);
+    @Query("SELECT s FROM Session s WHERE s.isCompleted = false AND s.schedule BETWEEN :startDate AND :endDate")
+    List<Session> findIncompleteSessionsScheduledBetween(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT MAX(s.duration) FROM Session s WHERE s.isCompleted = false")
+    Integer findMaxIncompleteSessionDuration();
+
+    @Query("SELECT g.id FROM Session s JOIN s.groups g WHERE s.id = :sessionId")
+    List<UUID> findGroupIdsBySessionId(@Param("sessionId") UUID sessionId);
+
+    @Query("SELECT DISTINCT st.id FROM Session s JOIN s.groups g JOIN g.students st WHERE s.id = :sessionId")
+    List<UUID> findEnrolledStudentIdsBySessionId(@Param("sessionId") UUID sessionId);
+
+    @Query("SELECT s.qrCode FROM Session s WHERE s.id = :sessionId")
+    Optional<String> findQrCodeById(@Param("sessionId") UUID sessionId);
+
+    @Modifying
+    @Query("UPDATE Session s SET s.attendanceTaken = true WHERE s.id IN :sessionIds AND s.isCompleted = false")
+    int markAttendanceTaken(@Param("sessionIds") Collection<UUID> sessionIds);
+
+    // Forward-only read of the whole table for the streamed "simple" listing, see StreamingQueries
+    @Query("SELECT s.id AS id, s.name AS name, s.type AS type, s.schedule AS schedule, s.duration AS duration, " +
+            "l.id AS locationId, m.title AS moduleTitle, p.firstName AS professorFirstName, " +
+            "p.lastName AS professorLastName, s.isCompleted AS isCompleted, s.attendanceTaken AS attendanceTaken " +
+            "FROM Session s LEFT JOIN s.location l LEFT JOIN s.module m LEFT JOIN s.professor p")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE))
+    Stream<SessionSimpleListing> streamAllSimpleListings();
+
+    interface ModuleSessionCount {
+        UUID getModuleId();
+
+        Long getTotal();
+    }
+
+    interface SessionListing {
+        UUID getId();
+
+        String getName();
+
+        SessionType getType();
+
+        LocalDateTime getSchedule();
+
+        Integer getDuration();
+
+        String getDescription();
+
+        Boolean getIsCompleted();
+
+        Boolean getAttendanceTaken();
+
+        AttendanceMode getAttendanceMode();
+
+        String getQrCode();
+
+        UUID getLocationId();
+
+        String getLocationBuilding();
+
+        String getLocationRoomNumber();
+
+        Integer getLocationCapacity();
+
+        UUID getModuleId();
+
+        String getModuleTitle();
+
+        String getModuleCode();
+
+        UUID getProfessorId();
+
+        String getProfessorFirstName();
+
+        String getProfessorLastName();
+
+        String getProfessorEmail();
+
+        Integer getTotalGroups();
+
+        Long getTotalAttendanceRecords();
+
+        Long getPresentCount();
+
+        Long getAbsentCount();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+
+        String getCreatedBy();
+
+        String getLastModifiedBy();
+    }
+
+    interface SessionGroupSummary {
+        UUID getSessionId();
+
+        UUID getId();
+
+        String getName();
+
+        String getCode();
+
+        Integer getStudentCount();
+    }
+
+    interface SessionSimpleListing {
+        UUID getId();
+
+        String getName();
+
+        SessionType getType();
+
+        LocalDateTime getSchedule();
+
+        Integer getDuration();
+
+        UUID getLocationId();
+
+        String getModuleTitle();
+
+        String getProfessorFirstName();
+
+        String getProfessorLastName();
 
-    @Query("SELECT s FROM Session s WHERE s.schedule >= :now AND s.isCompleted = false ORDER BY s.schedule ASC")
-    Page<Session> findUpcomingSessions(@Param("now") LocalDateTime now, Pageable pageable);
+        Boolean getIsCompleted();
 
-    @Query("SELECT s FROM Session s WHERE s.schedule < :now AND s.isCompleted = false")
-    List<Session> findPastIncompleteSessions(@Param("now") LocalDateTime now);
-}
\ No newline at end of file
+        Boolean getAttendanceTaken();
+    }
+}
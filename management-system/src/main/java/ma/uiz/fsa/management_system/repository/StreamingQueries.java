@@ -0,0 +1,17 @@
+package ma.uiz.fsa.management_system.repository;
+
+/**
+ * Settings of the repository methods returning a {@link java.util.stream.Stream}, which read with a forward-only
+ * cursor. Such a stream must be consumed and closed inside a transaction, without which the PostgreSQL driver
+ * ignores the fetch size and buffers the whole result.
+ */
+public final class StreamingQueries {
+
+    /**
+     * Rows fetched per round trip
+     */
+    public static final String FETCH_SIZE = "1000";
+
+    private StreamingQueries() {
+    }
+}
@@ -1,16 +1,23 @@
 package ma.uiz.fsa.management_system.repository;
 
+import jakarta.persistence.QueryHint;
 import ma.uiz.fsa.management_system.model.entity.Student;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, UUID> {
@@ -31,25 +38,176 @@ public interface StudentRepository extends JpaRepository<Student, UUID> {
 
     Boolean existsByEmail(String email);
 
+    @Query("SELECT s.cne FROM Student s WHERE s.cne IN :cnes")
+    List<String> findCnesByCneIn(@Param("cnes") Collection<String> cnes);
+
+    @Query("SELECT s.cin FROM Student s WHERE s.cin IN :cins")
+    List<String> findCinsByCinIn(@Param("cins") Collection<String> cins);
+
     List<Student> findByFiliereId(UUID filiereId);
 
-    Page<Student> findByFiliereId(UUID filiereId, Pageable pageable);
+    @Query("SELECT COUNT(s) FROM Student s WHERE s.filiere.id = :filiereId")
+    Long countByFiliereId(@Param("filiereId") UUID filiereId);
 
-    @Query("SELECT s FROM Student s WHERE " +
+    // Flat listing row: filiere and department are joined, statistics are correlated aggregates,
+    // so a page is read in one statement without loading any student collection
+    String LISTING_SELECT = "SELECT s.id AS id, s.username AS username, s.email AS email, s.cne AS cne, " +
+            "s.cin AS cin, s.firstName AS firstName, s.lastName AS lastName, s.dateOfBirth AS dateOfBirth, " +
+            "s.phoneNumber AS phoneNumber, s.address AS address, s.photoUrl AS photoUrl, s.qrCode AS qrCode, " +
+            "f.id AS filiereId, f.name AS filiereName, f.code AS filiereCode, d.name AS departmentName, " +
+            "SIZE(s.groups) AS totalGroups, SIZE(s.evaluations) AS totalEvaluations, " +
+            "SIZE(s.attendanceRecords) AS totalAttendanceRecords, " +
+            "(SELECT AVG(e.grade) FROM Evaluation e WHERE e.student.id = s.id) AS averageGrade, " +
+            "s.enabled AS enabled, s.accountNonExpired AS accountNonExpired, " +
+            "s.accountNonLocked AS accountNonLocked, s.credentialsNonExpired AS credentialsNonExpired, " +
+            "s.createdAt AS createdAt, s.updatedAt AS updatedAt, s.createdBy AS createdBy, " +
+            "s.lastModifiedBy AS lastModifiedBy " +
+            "FROM Student s LEFT JOIN s.filiere f LEFT JOIN f.department d ";
+
+    @Query(value = LISTING_SELECT,
+            countQuery = "SELECT COUNT(s) FROM Student s")
+    Page<StudentListing> findAllListings(Pageable pageable);
+
+    @Query(value = LISTING_SELECT + "WHERE f.id = :filiereId",
+            countQuery = "SELECT COUNT(s) FROM Student s WHERE s.filiere.id = :filiereId")
+    Page<StudentListing> findListingsByFiliereId(@Param("filiereId") UUID filiereId, Pageable pageable);
+
+    @Query(value = LISTING_SELECT + "WHERE " +
             "LOWER(s.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(s.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(s.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(s.cne) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(s.cin) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(s.filiere.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Student> searchStudents(@Param("searchTerm") String searchTerm, Pageable pageable);
+            "LOWER(f.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))",
+            countQuery = "SELECT COUNT(s) FROM Student s LEFT JOIN s.filiere f WHERE " +
+                    "LOWER(s.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                    "LOWER(s.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                    "LOWER(s.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                    "LOWER(s.cne) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                    "LOWER(s.cin) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                    "LOWER(f.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+    Page<StudentListing> searchListings(@Param("searchTerm") String searchTerm, Pageable pageable);
 
-    @Query("SELECT COUNT(s) FROM Student s WHERE s.filiere.id = :filiereId")
-    Long countByFiliereId(@Param("filiereId") UUID filiereId);
+    @Query(value = LISTING_SELECT + "WHERE s.enabled = :enabled",
+            countQuery = "SELECT COUNT(s) FROM Student s WHERE s.enabled = :enabled")
+    Page<StudentListing> findListingsByEnabled(@Param("enabled") Boolean enabled, Pageable pageable);
+
+    @Query(value = LISTING_SELECT + "JOIN s.groups g WHERE g.id = :groupId",
+            countQuery = "SELECT COUNT(s) FROM Student s JOIN s.groups g WHERE g.id = :groupId")
+    Page<StudentListing> findListingsByGroupId(@Param("groupId") UUID groupId, Pageable pageable);
+
+    @Query("SELECT s.id AS id, s.firstName AS firstName, s.lastName AS lastName FROM Student s WHERE s.id IN :ids")
+    List<StudentName> findNamesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT s.id AS id, s.qrCode AS qrCode FROM Student s WHERE s.id IN :ids AND s.qrCode IS NOT NULL")
+    List<StudentQrCode> findQrCodesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Existing students among {@code ids}, each with the number of groups of the module they are enrolled in
+     */
+    @Query("SELECT s.id AS id, COUNT(g.id) AS moduleGroupCount FROM Student s " +
+            "LEFT JOIN s.groups g ON g.module.id = :moduleId " +
+            "WHERE s.id IN :ids GROUP BY s.id")
+    List<StudentModuleEnrollment> findModuleEnrollmentsByIdIn(@Param("moduleId") UUID moduleId,
+                                                              @Param("ids") Collection<UUID> ids);
+
+    // Forward-only read of the whole table for the streamed "simple" listing, see StreamingQueries
+    @Query("SELECT s.id AS id, s.firstName AS firstName, s.lastName AS lastName, s.email AS email, " +
+            "s.cne AS cne, f.name AS filiereName, s.photoUrl AS photoUrl FROM Student s LEFT JOIN s.filiere f")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE))
+    Stream<StudentSimpleListing> streamAllSimpleListings();
+
+    interface StudentListing {
+        UUID getId();
+
+        String getUsername();
+
+        String getEmail();
+
+        String getCne();
+
+        String getCin();
+
+        String getFirstName();
+
+        String getLastName();
+
+        LocalDate getDateOfBirth();
+
+        String getPhoneNumber();
+
+        String getAddress();
+
+        String getPhotoUrl();
+
+        String getQrCode();
+
+        UUID getFiliereId();
+
+        String getFiliereName();
+
+        String getFiliereCode();
+
+        String getDepartmentName();
+
+        Integer getTotalGroups();
+
+        Integer getTotalEvaluations();
+
+        Integer getTotalAttendanceRecords();
+
+        Double getAverageGrade();
+
+        Boolean getEnabled();
+
+        Boolean getAccountNonExpired();
+
+        Boolean getAccountNonLocked();
+
+        Boolean getCredentialsNonExpired();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+
+        String getCreatedBy();
+
+        String getLastModifiedBy();
+    }
+
+    interface StudentName {
+        UUID getId();
+
+        String getFirstName();
+
+        String getLastName();
+    }
+
+    interface StudentQrCode {
+        UUID getId();
+
+        String getQrCode();
+    }
+
+    interface StudentModuleEnrollment {
+        UUID getId();
+
+        long getModuleGroupCount();
+    }
+
+    interface StudentSimpleListing {
+        UUID getId();
+
+        String getFirstName();
+
+        String getLastName();
+
+        String getEmail();
+
+        String getCne();
 
-    @Query("SELECT s FROM Student s WHERE s.enabled = :enabled")
-    Page<Student> findByEnabled(@Param("enabled") Boolean enabled, Pageable pageable);
+        String getFiliereName();
 
-    @Query("SELECT s FROM Student s JOIN s.groups g WHERE g.id = :groupId")
-    Page<Student> findByGroupId(@Param("groupId") UUID groupId, Pageable pageable);
-}
\ No newline at end of file
+        String getPhotoUrl();
+    }
+}
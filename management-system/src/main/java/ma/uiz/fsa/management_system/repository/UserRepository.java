@@ -1,11 +1,16 @@
 package ma.uiz.fsa.management_system.repository;
 
 import ma.uiz.fsa.management_system.model.entity.User;
+import ma.uiz.fsa.management_system.model.enums.RoleType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,4 +27,41 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findEmailsByEmailIn(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findUsernamesByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.id AS userId, r.name AS roleName FROM User u JOIN u.roles r WHERE u.id IN :ids")
+    List<UserRoleName> findRoleNamesByUserIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.email = :email")
+    int updatePasswordHash(@Param("email") String email, @Param("passwordHash") String passwordHash);
+
+    /**
+     * Record that the user's access tokens issued before {@code revokedBefore} are revoked, keeping a later time
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.tokensRevokedBefore = :revokedBefore WHERE u.email = :email " +
+            "AND (u.tokensRevokedBefore IS NULL OR u.tokensRevokedBefore < :revokedBefore)")
+    int revokeTokensBefore(@Param("email") String email, @Param("revokedBefore") LocalDateTime revokedBefore);
+
+    @Query("SELECT u.email AS email, u.tokensRevokedBefore AS revokedBefore FROM User u " +
+            "WHERE u.tokensRevokedBefore > :since")
+    List<TokenRevocation> findTokenRevocationsAfter(@Param("since") LocalDateTime since);
+
+    interface UserRoleName {
+        UUID getUserId();
+
+        RoleType getRoleName();
+    }
+
+    interface TokenRevocation {
+        String getEmail();
+
+        LocalDateTime getRevokedBefore();
+    }
+}
@@ -0,0 +1,35 @@
+package ma.uiz.fsa.management_system.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Principal loaded from the users table. The Spring Security username is the email; the user ID and the account
+ * username are kept alongside so login can answer without loading the user a second time.
+ */
+@Getter
+public class AuthenticatedUser extends User {
+
+    private final UUID id;
+    private final String accountUsername;
+
+    public AuthenticatedUser(UUID id, String accountUsername, String email, String password, boolean enabled,
+                             boolean accountNonExpired, boolean credentialsNonExpired, boolean accountNonLocked,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(email, password, enabled, accountNonExpired, credentialsNonExpired, accountNonLocked, authorities);
+        this.id = id;
+        this.accountUsername = accountUsername;
+    }
+
+    /**
+     * Copy of this principal with another password hash
+     */
+    public AuthenticatedUser withPassword(String password) {
+        return new AuthenticatedUser(id, accountUsername, getUsername(), password, isEnabled(), isAccountNonExpired(),
+                isCredentialsNonExpired(), isAccountNonLocked(), getAuthorities());
+    }
+}
@@ -0,0 +1,74 @@
+package ma.uiz.fsa.management_system.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ma.uiz.fsa.management_system.exception.ApiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated, bounded pool for password verification.
+ *
+ * Logins run here instead of on Tomcat request threads, which are released while the password hash is checked,
+ * so a login rush is limited to a fixed number of cores and cannot starve attendance scans. When the queue is full,
+ * further logins are rejected with 503 rather than queued indefinitely. Published as the {@code executor.*}
+ * meters tagged {@code name=login}.
+ */
+@Component
+@Slf4j
+public class LoginExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    public LoginExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${security.login.threads:0}") int threads,
+            @Value("${security.login.queue-capacity:500}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> Thread.ofPlatform()
+                        .name("login-" + threadCount.incrementAndGet())
+                        .daemon(true)
+                        .unstarted(runnable),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        new ExecutorServiceMetrics(executor, "login", Tags.empty()).bindTo(meterRegistry);
+        log.info("Login executor started with {} threads and a queue of {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Run a login on the pool
+     *
+     * @throws ApiException with status 503 when the pool is saturated
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> login) {
+        try {
+            return CompletableFuture.supplyAsync(login, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Login rejected: {} logins already queued", executor.getQueue().size());
+            throw new ApiException("Too many login attempts in progress, please retry shortly",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,74 @@
+package ma.uiz.fsa.management_system.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated, bounded pool hashing the passwords of bulk-imported users.
+ *
+ * Imports hash thousands of passwords at once; running them on the common fork-join pool would take every core
+ * from logins, scans and anything else sharing that pool. Here they are limited to a fixed number of threads.
+ * When the queue is full the importing thread hashes the password itself, which slows the import down instead of
+ * queueing without limit. Published as the {@code executor.*} meters tagged {@code name=password-hashing}.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashingExecutor(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${security.password-hashing.threads:0}") int threads,
+            @Value("${security.password-hashing.queue-capacity:1000}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> Thread.ofPlatform()
+                        .name("password-hashing-" + threadCount.incrementAndGet())
+                        .daemon(true)
+                        .unstarted(runnable),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        new ExecutorServiceMetrics(executor, "password-hashing", Tags.empty()).bindTo(meterRegistry);
+        log.info("Password hashing executor started with {} threads and a queue of {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Hash the given passwords on the pool and wait for all of them
+     *
+     * @return the hashes, in the order of {@code rawPasswords}
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<CompletableFuture<String>> hashes = rawPasswords.stream()
+                .map(rawPassword -> CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor))
+                .toList();
+        return hashes.stream()
+                .map(CompletableFuture::join)
+                .toList();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
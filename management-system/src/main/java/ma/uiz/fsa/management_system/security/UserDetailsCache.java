@@ -0,0 +1,146 @@
+package ma.uiz.fsa.management_system.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Size- and TTL-bounded LRU cache of {@link UserDetails} keyed by email, in front of the users table.
+ *
+ * Used whenever a request is authenticated against the database rather than from token claims, so the
+ * {@code enabled} and {@code accountNonLocked} checks cost one lookup per user per TTL instead of one per request.
+ * Entries are evicted as soon as a password, account status or logout touches the user, and again once that
+ * transaction commits so a concurrent load cannot put the old state back. Hits, misses and evictions are published
+ * as the standard {@code cache.*} meters tagged {@code cache=userDetails}.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    // Access-ordered, guarded by this
+    private final LinkedHashMap<String, CachedUserDetails> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped on every invalidation so a load racing with it is not cached
+    private long generation;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+
+    public UserDetailsCache(
+            MeterRegistry meterRegistry,
+            @Value("${security.user-details-cache.enabled:true}") boolean enabled,
+            @Value("${security.user-details-cache.max-size:10000}") int maxSize,
+            @Value("${security.user-details-cache.ttl:PT5M}") Duration ttl) {
+        this.enabled = enabled && maxSize > 0;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+
+        Tags tags = Tags.of("cache", "userDetails");
+        this.hitCounter = Counter.builder("cache.gets").tags(tags).tag("result", "hit")
+                .description("User details served from the cache")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("cache.gets").tags(tags).tag("result", "miss")
+                .description("User details loaded from the users table")
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("cache.evictions").tags(tags)
+                .description("User details dropped for size or age")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, UserDetailsCache::size).tags(tags)
+                .description("User details currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Return the cached user details of this email, loading them on a miss.
+     * Each call returns its own copy, since authentication erases the password of the principal it is given.
+     */
+    public UserDetails get(String email, Function<String, UserDetails> loader) {
+        if (!enabled) {
+            return loader.apply(email);
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            CachedUserDetails cached = entries.get(email);
+            if (cached != null && System.nanoTime() - cached.loadedAtNanos() < ttlNanos) {
+                hitCounter.increment();
+                return copyOf(cached.userDetails());
+            }
+            if (cached != null) {
+                entries.remove(email);
+                evictionCounter.increment();
+            }
+            loadGeneration = generation;
+        }
+
+        missCounter.increment();
+        UserDetails userDetails = loader.apply(email);
+        put(email, copyOf(userDetails), loadGeneration);
+        return userDetails;
+    }
+
+    /**
+     * Drop the cached user details of this email now and once the current transaction commits
+     */
+    public void evict(String email) {
+        invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(email);
+                }
+            });
+        }
+    }
+
+    private synchronized void invalidate(String email) {
+        generation++;
+        entries.remove(email);
+    }
+
+    private synchronized void put(String email, UserDetails userDetails, long loadGeneration) {
+        if (generation != loadGeneration) {
+            return;
+        }
+
+        entries.put(email, new CachedUserDetails(userDetails, System.nanoTime()));
+
+        Iterator<Map.Entry<String, CachedUserDetails>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictionCounter.increment();
+        }
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private static UserDetails copyOf(UserDetails userDetails) {
+        if (userDetails instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.withPassword(authenticatedUser.getPassword());
+        }
+        return User.withUserDetails(userDetails).build();
+    }
+
+    private record CachedUserDetails(UserDetails userDetails, long loadedAtNanos) {
+    }
+}
@@ -1,11 +1,13 @@
 package ma.uiz.fsa.management_system.security;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import ma.uiz.fsa.management_system.model.entity.User;
 import ma.uiz.fsa.management_system.repository.UserRepository;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -16,22 +18,48 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+@Slf4j
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
 
     /**
-     * Load user by email
+     * Load user by email, from the user details cache when possible
      */
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        return userDetailsCache.get(email, this::loadFromDatabase);
+    }
+
+    /**
+     * Load user by email from the users table (roles are fetched eagerly)
+     */
+    private UserDetails loadFromDatabase(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
         return buildUserDetails(user);
     }
 
+    /**
+     * Store a password hash upgraded by the password encoder after a successful login
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordHash(user.getUsername(), newPassword);
+        userDetailsCache.evict(user.getUsername());
+
+        log.debug("Upgraded password hash of user with email: {}", user.getUsername());
+        if (user instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.withPassword(newPassword);
+        }
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
     /**
      * Build Spring Security UserDetails from User entity
      */
@@ -41,14 +69,15 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .collect(Collectors.toList());
 
         // IMPORTANT: Use email as the username for Spring Security
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail()) // ✅ Use email as username for Spring Security
-                .password(user.getPasswordHash())
-                .authorities(authorities)
-                .accountExpired(!user.getAccountNonExpired())
-                .accountLocked(!user.getAccountNonLocked())
-                .credentialsExpired(!user.getCredentialsNonExpired())
-                .disabled(!user.getEnabled())
-                .build();
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(), // ✅ Use email as username for Spring Security
+                user.getPasswordHash(),
+                user.getEnabled(),
+                user.getAccountNonExpired(),
+                user.getCredentialsNonExpired(),
+                user.getAccountNonLocked(),
+                authorities);
     }
-}
\ No newline at end of file
+}
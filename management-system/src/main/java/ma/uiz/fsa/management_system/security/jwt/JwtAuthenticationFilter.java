@@ -1,5 +1,6 @@
 package ma.uiz.fsa.management_system.security.jwt;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,6 +8,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ma.uiz.fsa.management_system.security.UserDetailsServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,6 +26,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsServiceImpl userDetailsService;
+    private final JwtRevocationList revocationList;
+
+    @Value("${jwt.stateless-authentication:true}")
+    private boolean statelessAuthentication;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -31,23 +37,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = extractJwtFromRequest(request);
+            // Verified once; every later check reads the parsed claims
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseToken(jwt) : null;
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromToken(jwt); // Get email from token
+            if (claims != null) {
+                String email = claims.getSubject(); // Get email from token
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                if (revocationList.isRevoked(email, claims.getIssuedAt())) {
+                    log.debug("Rejected revoked token for user with email: {}", email);
+                } else {
+                    // Fast path: roles and account flags come from the signed claims, no database lookup
+                    UserDetails userDetails = statelessAuthentication && tokenProvider.hasEmbeddedAuthorities(claims)
+                            ? tokenProvider.getUserDetails(claims)
+                            : userDetailsService.loadUserByUsername(email);
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
+                    if (isUsable(userDetails)) {
+                        UsernamePasswordAuthenticationToken authentication =
+                                new UsernamePasswordAuthenticationToken(
+                                        userDetails,
+                                        null,
+                                        userDetails.getAuthorities()
+                                );
 
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                log.debug("Set authentication for user with email: {}", email);
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                        log.debug("Set authentication for user with email: {}", email);
+                    }
+                }
             }
         } catch (Exception e) {
             log.error("Cannot set user authentication: {}", e.getMessage());
@@ -56,6 +73,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private boolean isUsable(UserDetails userDetails) {
+        return userDetails.isEnabled()
+                && userDetails.isAccountNonLocked()
+                && userDetails.isAccountNonExpired()
+                && userDetails.isCredentialsNonExpired();
+    }
+
     /**
      * Extract JWT token from Authorization header
      */
@@ -0,0 +1,122 @@
+package ma.uiz.fsa.management_system.security.jwt;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.uiz.fsa.management_system.repository.UserRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access tokens revoked before their expiry, keyed by user email.
+ *
+ * Access tokens are validated from their claims alone, so logging out, changing a password or disabling an account
+ * records the revocation time here and every token issued before it is rejected. An entry is only needed until the
+ * last token it covers has expired.
+ *
+ * Revocations are checked from memory but persisted on the user row ({@code users.tokens_revoked_before}).
+ * They are loaded on startup and revocations made on other instances are picked up every
+ * {@code jwt.revocation.sync-interval}, so a revoked token may still be accepted elsewhere for up to that long.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtRevocationList {
+
+    // Revocations committing shortly after a sync started are read again by the next one
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserRepository userRepository;
+
+    private final Map<String, Instant> revokedBefore = new ConcurrentHashMap<>();
+
+    // Written by the startup load, then only by the scheduled sync
+    private volatile LocalDateTime syncedUntil;
+
+    /**
+     * Revoke every access token issued so far to the user.
+     * Takes effect here once the current transaction commits, on other instances at their next sync.
+     */
+    @Transactional
+    public void revokeAll(String email) {
+        // Token issue times have a one-second resolution, see isRevoked
+        Instant revokedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        userRepository.revokeTokensBefore(email, LocalDateTime.ofInstant(revokedAt, ZoneId.systemDefault()));
+        afterCommit(() -> record(email, revokedAt));
+    }
+
+    /**
+     * Check whether a token issued to the user at the given time has been revoked.
+     * A token issued in the same second as the revocation cannot be told apart from one issued just before it,
+     * so it is rejected too; a login within that second has to be repeated.
+     */
+    public boolean isRevoked(String email, Date issuedAt) {
+        Instant revokedAt = revokedBefore.get(email);
+        return revokedAt != null && (issuedAt == null || !issuedAt.toInstant().isAfter(revokedAt));
+    }
+
+    /**
+     * Load the revocations still covering unexpired tokens, including those made before a restart
+     */
+    @PostConstruct
+    void load() {
+        syncedUntil = LocalDateTime.now().minus(Duration.ofMillis(jwtTokenProvider.getAccessTokenExpirationMs()));
+        sync();
+    }
+
+    /**
+     * Pick up the revocations recorded since the previous sync, by this or another instance
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:PT30S}",
+            initialDelayString = "${jwt.revocation.sync-interval:PT30S}")
+    public void sync() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        int loaded = 0;
+        for (UserRepository.TokenRevocation revocation :
+                userRepository.findTokenRevocationsAfter(syncedUntil.minus(SYNC_OVERLAP))) {
+            record(revocation.getEmail(), revocation.getRevokedBefore().atZone(ZoneId.systemDefault()).toInstant());
+            loaded++;
+        }
+        syncedUntil = startedAt;
+        log.debug("Synchronized {} access token revocations", loaded);
+    }
+
+    /**
+     * Drop revocations older than the access token lifetime: every token they cover has expired
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:PT15M}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minusMillis(jwtTokenProvider.getAccessTokenExpirationMs());
+        revokedBefore.values().removeIf(revokedAt -> revokedAt.isBefore(cutoff));
+    }
+
+    private void record(String email, Instant revokedAt) {
+        revokedBefore.merge(email, revokedAt, (previous, current) -> current.isAfter(previous) ? current : previous);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -3,20 +3,31 @@ package ma.uiz.fsa.management_system.security.jwt;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import ma.uiz.fsa.management_system.model.entity.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.List;
 
 @Component
 @Slf4j
 public class JwtTokenProvider {
 
+    private static final String ROLES_CLAIM = "roles";
+    private static final String ENABLED_CLAIM = "enabled";
+    private static final String ACCOUNT_NON_EXPIRED_CLAIM = "accountNonExpired";
+    private static final String ACCOUNT_NON_LOCKED_CLAIM = "accountNonLocked";
+    private static final String CREDENTIALS_NON_EXPIRED_CLAIM = "credentialsNonExpired";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -26,59 +37,140 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpirationMs;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Built once: the HMAC key and the parser are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     /**
-     * Generate JWT access token from Authentication
+     * Generate JWT access token from Authentication, embedding the principal's roles and account flags
      */
     public String generateAccessToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        return generateTokenFromUsername(userDetails.getUsername(), jwtExpirationMs);
+        return generateAccessToken(
+                userDetails.getUsername(),
+                AuthorityUtils.authorityListToSet(userDetails.getAuthorities()).stream().sorted().toList(),
+                userDetails.isEnabled(),
+                userDetails.isAccountNonExpired(),
+                userDetails.isAccountNonLocked(),
+                userDetails.isCredentialsNonExpired());
+    }
+
+    /**
+     * Generate JWT access token from a user entity, embedding its roles and account flags
+     */
+    public String generateAccessToken(User user) {
+        return generateAccessToken(
+                user.getEmail(),
+                user.getRoles().stream().map(role -> role.getName().name()).sorted().toList(),
+                user.getEnabled(),
+                user.getAccountNonExpired(),
+                user.getAccountNonLocked(),
+                user.getCredentialsNonExpired());
     }
 
     /**
      * Generate JWT access token from username
      */
     public String generateAccessTokenFromUsername(String username) {
-        return generateTokenFromUsername(username, jwtExpirationMs);
+        return tokenBuilder(username, jwtExpirationMs).compact();
     }
 
     /**
      * Generate JWT refresh token from username
      */
     public String generateRefreshToken(String username) {
-        return generateTokenFromUsername(username, refreshExpirationMs);
+        return tokenBuilder(username, refreshExpirationMs).compact();
+    }
+
+    private String generateAccessToken(String email, List<String> roles, boolean enabled, boolean accountNonExpired,
+                                       boolean accountNonLocked, boolean credentialsNonExpired) {
+        return tokenBuilder(email, jwtExpirationMs)
+                .claim(ROLES_CLAIM, roles)
+                .claim(ENABLED_CLAIM, enabled)
+                .claim(ACCOUNT_NON_EXPIRED_CLAIM, accountNonExpired)
+                .claim(ACCOUNT_NON_LOCKED_CLAIM, accountNonLocked)
+                .claim(CREDENTIALS_NON_EXPIRED_CLAIM, credentialsNonExpired)
+                .compact();
     }
 
     /**
      * Core token generation method
      */
-    private String generateTokenFromUsername(String username, long expiration) {
+    private JwtBuilder tokenBuilder(String subject, long expiration) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
-                .subject(username)
+                .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+                .signWith(signingKey);
+    }
+
+    /**
+     * Verify a token and return its claims, or null if the token is invalid.
+     * This is the only method the authentication filter needs: the token is parsed once per request.
+     */
+    public Claims parseToken(String token) {
+        try {
+            return jwtParser.parseSignedClaims(token).getPayload();
+        } catch (SignatureException e) {
+            log.error("Invalid JWT signature: {}", e.getMessage());
+        } catch (MalformedJwtException e) {
+            log.error("Invalid JWT token: {}", e.getMessage());
+        } catch (ExpiredJwtException e) {
+            log.error("JWT token is expired: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            log.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.error("JWT claims string is empty: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Whether the token carries the roles and account flags needed to authenticate without a database lookup.
+     * Tokens issued before these claims were introduced do not.
+     */
+    public boolean hasEmbeddedAuthorities(Claims claims) {
+        return claims.get(ROLES_CLAIM) instanceof List<?>
+                && claims.get(ENABLED_CLAIM) instanceof Boolean
+                && claims.get(ACCOUNT_NON_EXPIRED_CLAIM) instanceof Boolean
+                && claims.get(ACCOUNT_NON_LOCKED_CLAIM) instanceof Boolean
+                && claims.get(CREDENTIALS_NON_EXPIRED_CLAIM) instanceof Boolean;
+    }
+
+    /**
+     * Build the principal from the claims of a token for which {@link #hasEmbeddedAuthorities} holds
+     */
+    public UserDetails getUserDetails(Claims claims) {
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList(
+                ((List<?>) claims.get(ROLES_CLAIM)).stream().map(String::valueOf).toList());
+
+        return org.springframework.security.core.userdetails.User.builder()
+                .username(claims.getSubject())
+                .password("")
+                .authorities(authorities)
+                .disabled(!claims.get(ENABLED_CLAIM, Boolean.class))
+                .accountExpired(!claims.get(ACCOUNT_NON_EXPIRED_CLAIM, Boolean.class))
+                .accountLocked(!claims.get(ACCOUNT_NON_LOCKED_CLAIM, Boolean.class))
+                .credentialsExpired(!claims.get(CREDENTIALS_NON_EXPIRED_CLAIM, Boolean.class))
+                .build();
     }
 
     /**
      * Extract email from JWT token
      */
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject(); // Returns email
+        return jwtParser.parseSignedClaims(token).getPayload().getSubject(); // Returns email
     }
 
     /**
@@ -92,37 +184,14 @@ public class JwtTokenProvider {
      * Validate JWT token
      */
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (SignatureException e) {
-            log.error("Invalid JWT signature: {}", e.getMessage());
-        } catch (MalformedJwtException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            log.error("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            log.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            log.error("JWT claims string is empty: {}", e.getMessage());
-        }
-        return false;
+        return parseToken(token) != null;
     }
 
     /**
      * Get expiration date from token
      */
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getExpiration();
+        return jwtParser.parseSignedClaims(token).getPayload().getExpiration();
     }
 
     /**
@@ -136,4 +205,11 @@ public class JwtTokenProvider {
             return true;
         }
     }
+
+    /**
+     * Lifetime of access tokens in milliseconds
+     */
+    public long getAccessTokenExpirationMs() {
+        return jwtExpirationMs;
+    }
 }
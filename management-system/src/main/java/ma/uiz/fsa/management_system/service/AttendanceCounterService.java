@@ -0,0 +1,145 @@
+package ma.uiz.fsa.management_system.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.uiz.fsa.management_system.model.enums.AttendanceCounterScope;
+import ma.uiz.fsa.management_system.model.enums.AttendanceStatus;
+import ma.uiz.fsa.management_system.repository.AttendanceCounterRepository;
+import ma.uiz.fsa.management_system.repository.AttendanceRecordRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-status attendance counters for sessions, modules, students and groups.
+ *
+ * Every write to {@code attendance_records} appends the counter deltas of the affected scopes in the same
+ * transaction, so statistics are read from a handful of counter rows instead of counting records.
+ * Appending never waits on the counter rows shared by concurrent scans (session, module); the deltas are
+ * folded into the counters every {@code attendance.counters.fold-interval} and added to them when read.
+ * Status changes and deletions must be reported before the record is changed, insertions after.
+ * A periodic rebuild reconciles the counters with the records.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceCounterService {
+
+    private final AttendanceCounterRepository attendanceCounterRepository;
+    private final AttendanceRecordRepository attendanceRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Count newly inserted attendance records
+     */
+    @Transactional
+    public void recordsInserted(Collection<UUID> recordIds) {
+        if (recordIds.isEmpty()) {
+            return;
+        }
+        // Pending JPA changes must reach the database before the counters are derived from it
+        attendanceCounterRepository.flush();
+        attendanceCounterRepository.applyRecords(recordIds, 1);
+    }
+
+    /**
+     * Uncount attendance records about to be deleted or re-statused
+     */
+    @Transactional
+    public void recordsRemoving(Collection<UUID> recordIds) {
+        if (recordIds.isEmpty()) {
+            return;
+        }
+        attendanceCounterRepository.flush();
+        attendanceCounterRepository.applyRecords(recordIds, -1);
+    }
+
+    /**
+     * Uncount the records of a session about to move to another module
+     */
+    @Transactional
+    public void sessionRecordsRemoving(UUID sessionId) {
+        attendanceCounterRepository.flush();
+        attendanceCounterRepository.applySession(sessionId, -1);
+    }
+
+    /**
+     * Count the records of a session again after it moved to another module
+     */
+    @Transactional
+    public void sessionRecordsInserted(UUID sessionId) {
+        attendanceCounterRepository.flush();
+        attendanceCounterRepository.applySession(sessionId, 1);
+    }
+
+    /**
+     * Recompute the counters of groups whose students or sessions changed
+     */
+    @Transactional
+    public void groupsChanged(Collection<UUID> groupIds) {
+        if (groupIds.isEmpty()) {
+            return;
+        }
+        attendanceCounterRepository.flush();
+        attendanceCounterRepository.rebuildGroups(groupIds);
+    }
+
+    /**
+     * Status counts per scope ID. Every requested scope is present, with every status (0 when missing).
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Map<AttendanceStatus, Long>> getCounts(AttendanceCounterScope scope, Collection<UUID> scopeIds) {
+        Map<UUID, Map<AttendanceStatus, Long>> counts = new HashMap<>();
+        for (UUID scopeId : scopeIds) {
+            Map<AttendanceStatus, Long> statusCounts = new EnumMap<>(AttendanceStatus.class);
+            for (AttendanceStatus status : AttendanceStatus.values()) {
+                statusCounts.put(status, 0L);
+            }
+            counts.put(scopeId, statusCounts);
+        }
+
+        for (AttendanceCounterRepository.StatusCount row : attendanceCounterRepository.findCounts(scope, scopeIds)) {
+            counts.get(row.getScopeId()).put(row.getStatus(), row.getTotal());
+        }
+        return counts;
+    }
+
+    /**
+     * Add the committed deltas to their counters, keeping the delta table small for reads
+     */
+    @Scheduled(fixedDelayString = "${attendance.counters.fold-interval:PT5S}")
+    public void fold() {
+        Integer folded = transactionTemplate.execute(status -> attendanceCounterRepository.foldDeltas());
+        log.debug("Folded attendance counter deltas into {} counters", folded);
+    }
+
+    /**
+     * Rebuild every counter from the attendance records
+     */
+    @Scheduled(cron = "${attendance.counters.reconcile-cron:0 30 3 * * *}")
+    public void rebuild() {
+        long startNanos = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> attendanceCounterRepository.rebuildAll());
+        log.info("Attendance counters rebuilt in {} ms", (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Build the counters on first start with existing attendance records
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (attendanceCounterRepository.count() == 0 && attendanceRecordRepository.count() > 0) {
+            log.info("Attendance counters are empty, building them from existing records");
+            rebuild();
+        }
+    }
+}
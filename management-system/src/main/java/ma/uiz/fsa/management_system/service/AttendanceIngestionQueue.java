@@ -0,0 +1,346 @@
+package ma.uiz.fsa.management_system.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import ma.uiz.fsa.management_system.exception.BadRequestException;
+import ma.uiz.fsa.management_system.model.entity.AttendanceRecord;
+import ma.uiz.fsa.management_system.model.enums.AttendanceStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind ingestion of scanned attendance records.
+ *
+ * When enabled, validated scans are acknowledged immediately and appended to a bounded in-process queue.
+ * A single writer thread drains the queue and inserts the records in JDBC batches. Pending records are
+ * deduplicated by (studentId, sessionId) in memory before reaching the database. On shutdown the queue
+ * is drained after the web server has stopped accepting requests.
+ */
+@Service
+@Slf4j
+public class AttendanceIngestionQueue implements SmartLifecycle {
+
+    private static final String INSERT_SQL = "INSERT INTO attendance_records " +
+            "(id, student_id, session_id, date, status, scanned_at, is_justified, device_info, ip_address, marked_by, " +
+            "created_at, updated_at, created_by, last_modified_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, false, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (student_id, session_id) DO NOTHING";
+
+    // Rewritten batches report no per-row count, so inserted rows are told apart by their fresh IDs
+    private static final String SELECT_WRITTEN_SQL = "SELECT id FROM attendance_records WHERE id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AttendanceCounterService attendanceCounterService;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration shutdownTimeout;
+
+    private final BlockingQueue<PendingAttendance> queue;
+    private final Map<PendingKey, AttendanceStatus> pending = new ConcurrentHashMap<>();
+
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final Counter conflictCounter;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AttendanceIngestionQueue(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            AttendanceCounterService attendanceCounterService,
+            MeterRegistry meterRegistry,
+            @Value("${attendance.ingestion.write-behind:false}") boolean enabled,
+            @Value("${attendance.ingestion.capacity:10000}") int capacity,
+            @Value("${attendance.ingestion.batch-size:500}") int batchSize,
+            @Value("${attendance.ingestion.flush-interval:PT0.1S}") Duration flushInterval,
+            @Value("${attendance.ingestion.shutdown-timeout:PT30S}") Duration shutdownTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.attendanceCounterService = attendanceCounterService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("attendance.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("Scanned attendance records waiting to be written")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("attendance.ingestion.batch.size")
+                .description("Attendance records written per batch")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("attendance.ingestion.flush.latency")
+                .description("Time to write one batch of attendance records")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("attendance.ingestion.records.written")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("attendance.ingestion.records.failed")
+                .register(meterRegistry);
+        this.conflictCounter = Counter.builder("attendance.ingestion.records.conflicted")
+                .description("Acknowledged scans skipped because the student already had a record for the session")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether scans are currently acknowledged before being written
+     */
+    public boolean isAccepting() {
+        return enabled && running;
+    }
+
+    /**
+     * Status of a scanned record not yet written to the database, or null
+     */
+    public AttendanceStatus getPendingStatus(UUID studentId, UUID sessionId) {
+        return pending.get(new PendingKey(studentId, sessionId));
+    }
+
+    /**
+     * Enqueue a validated attendance record for writing. The record must already carry its ID and audit
+     * fields so it can be returned to the caller as is.
+     *
+     * @return false if write-behind is disabled, stopped or the queue is full; the caller must then save
+     * the record itself
+     */
+    public boolean submit(AttendanceRecord attendanceRecord) {
+        if (!isAccepting()) {
+            return false;
+        }
+
+        PendingKey key = new PendingKey(attendanceRecord.getStudent().getId(), attendanceRecord.getSession().getId());
+        AttendanceStatus existingStatus = pending.putIfAbsent(key, attendanceRecord.getStatus());
+        if (existingStatus != null) {
+            throw new BadRequestException(
+                    "Attendance already recorded for this student in this session. Status: " + existingStatus);
+        }
+
+        if (!queue.offer(PendingAttendance.of(attendanceRecord))) {
+            pending.remove(key);
+            log.warn("Attendance ingestion queue full, writing record synchronously");
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform()
+                .name("attendance-writer")
+                .daemon(true)
+                .start(this::drainLoop);
+        log.info("Attendance write-behind ingestion started (capacity {}, batch size {})",
+                queue.remainingCapacity(), batchSize);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!queue.isEmpty()) {
+            log.error("Attendance write-behind shutdown timed out with {} records still queued", queue.size());
+        } else {
+            log.info("Attendance write-behind ingestion stopped, queue drained");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server (DEFAULT_PHASE - 2048) so no scan is accepted once draining starts
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drainLoop() {
+        List<PendingAttendance> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAttendance first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (!running) {
+                    break;
+                }
+            } catch (Exception e) {
+                log.error("Unexpected error in attendance writer: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingAttendance> batch) {
+        // Last line of deduplication before the database: keep the first scan per (student, session)
+        Map<PendingKey, PendingAttendance> unique = new LinkedHashMap<>();
+        for (PendingAttendance attendance : batch) {
+            unique.putIfAbsent(attendance.key(), attendance);
+        }
+        List<PendingAttendance> rows = new ArrayList<>(unique.values());
+
+        long startNanos = System.nanoTime();
+        try {
+            Set<UUID> writtenIds = transactionTemplate.execute(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), this::bind);
+                // Rows skipped by ON CONFLICT keep their fresh ID unused
+                Set<UUID> inserted = findWritten(rows);
+                attendanceCounterService.recordsInserted(inserted);
+                return inserted;
+            });
+            writtenCounter.increment(writtenIds.size());
+            if (writtenIds.size() < rows.size()) {
+                rows.stream()
+                        .filter(attendance -> !writtenIds.contains(attendance.id()))
+                        .forEach(this::reportConflict);
+            }
+        } catch (Exception e) {
+            log.warn("Batch insert of {} attendance records failed, retrying row by row: {}",
+                    rows.size(), e.getMessage());
+            insertRowByRow(rows);
+        } finally {
+            flushTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            batchSizeSummary.record(rows.size());
+            batch.forEach(attendance -> pending.remove(attendance.key()));
+        }
+
+        log.debug("Flushed {} attendance records", rows.size());
+    }
+
+    private void insertRowByRow(List<PendingAttendance> rows) {
+        for (PendingAttendance attendance : rows) {
+            try {
+                Integer inserted = transactionTemplate.execute(status -> {
+                    int rowCount = jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, attendance));
+                    if (rowCount > 0) {
+                        attendanceCounterService.recordsInserted(List.of(attendance.id()));
+                    }
+                    return rowCount;
+                });
+                if (inserted > 0) {
+                    writtenCounter.increment();
+                } else {
+                    reportConflict(attendance);
+                }
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.error("Dropping attendance record for student {} in session {}: {}",
+                        attendance.studentId(), attendance.sessionId(), e.getMessage());
+            }
+        }
+    }
+
+    private Set<UUID> findWritten(List<PendingAttendance> rows) {
+        UUID[] ids = rows.stream().map(PendingAttendance::id).toArray(UUID[]::new);
+        Set<UUID> writtenIds = new HashSet<>();
+        jdbcTemplate.query(SELECT_WRITTEN_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids)),
+                (RowCallbackHandler) rs -> writtenIds.add(rs.getObject(1, UUID.class)));
+        return writtenIds;
+    }
+
+    /**
+     * An acknowledged scan lost to an existing record, typically an auto-absence inserted meanwhile
+     */
+    private void reportConflict(PendingAttendance attendance) {
+        conflictCounter.increment();
+        log.warn("Skipped {} attendance of student {} in session {}: a record already exists",
+                attendance.status(), attendance.studentId(), attendance.sessionId());
+    }
+
+    private void bind(PreparedStatement ps, PendingAttendance attendance) throws SQLException {
+        ps.setObject(1, attendance.id());
+        ps.setObject(2, attendance.studentId());
+        ps.setObject(3, attendance.sessionId());
+        ps.setDate(4, Date.valueOf(attendance.date()));
+        ps.setString(5, attendance.status().name());
+        ps.setTimestamp(6, Timestamp.valueOf(attendance.scannedAt()));
+        ps.setString(7, attendance.deviceInfo());
+        ps.setString(8, attendance.ipAddress());
+        ps.setString(9, attendance.markedBy());
+        ps.setTimestamp(10, Timestamp.valueOf(attendance.createdAt()));
+        ps.setTimestamp(11, Timestamp.valueOf(attendance.createdAt()));
+        ps.setString(12, attendance.createdBy());
+        ps.setString(13, attendance.createdBy());
+    }
+
+    private record PendingKey(UUID studentId, UUID sessionId) {
+    }
+
+    private record PendingAttendance(UUID id, UUID studentId, UUID sessionId, LocalDate date,
+                                     AttendanceStatus status, LocalDateTime scannedAt, String deviceInfo,
+                                     String ipAddress, String markedBy, LocalDateTime createdAt,
+                                     String createdBy) {
+
+        static PendingAttendance of(AttendanceRecord attendanceRecord) {
+            return new PendingAttendance(
+                    attendanceRecord.getId(),
+                    attendanceRecord.getStudent().getId(),
+                    attendanceRecord.getSession().getId(),
+                    attendanceRecord.getDate(),
+                    attendanceRecord.getStatus(),
+                    attendanceRecord.getScannedAt(),
+                    attendanceRecord.getDeviceInfo(),
+                    attendanceRecord.getIpAddress(),
+                    attendanceRecord.getMarkedBy(),
+                    attendanceRecord.getCreatedAt(),
+                    attendanceRecord.getCreatedBy());
+        }
+
+        PendingKey key() {
+            return new PendingKey(studentId, sessionId);
+        }
+    }
+}
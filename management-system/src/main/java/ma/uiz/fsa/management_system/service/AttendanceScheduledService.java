@@ -1,25 +1,18 @@
 package ma.uiz.fsa.management_system.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import ma.uiz.fsa.management_system.model.entity.AttendanceRecord;
-import ma.uiz.fsa.management_system.model.entity.Group;
-import ma.uiz.fsa.management_system.model.entity.Session;
-import ma.uiz.fsa.management_system.model.entity.Student;
-import ma.uiz.fsa.management_system.model.enums.AttendanceStatus;
 import ma.uiz.fsa.management_system.repository.AttendanceRecordRepository;
 import ma.uiz.fsa.management_system.repository.SessionRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -28,143 +21,85 @@ public class AttendanceScheduledService {
 
     private final SessionRepository sessionRepository;
     private final AttendanceRecordRepository attendanceRecordRepository;
-
-    @Value("${attendance.grace-period-minutes}")
-    private Integer gracePeriodMinutes;
-
-    /**
-     * Scheduled task that runs twice daily at 13:00 and 19:00 to automatically mark
-     * students as absent if they didn't mark their attendance within the grace period.
-     *
-     * This only processes sessions from the current day to avoid affecting historical data.
-     */
-    @Scheduled(cron = "0 0 13,19 * * *")
-    @Transactional
-    public void autoMarkAbsentStudents() {
-        log.info("Starting automatic absent-marking job...");
-
-        LocalDateTime now = LocalDateTime.now();
-        LocalDate today = now.toLocalDate();
-
-        // Get start and end of today
-        LocalDateTime startOfDay = today.atStartOfDay();
-        LocalDateTime endOfDay = today.atTime(LocalTime.MAX);
-
-        log.info("Processing sessions for date: {}", today);
-
-        // Find all sessions from today that have passed their grace period
-        List<Session> sessionsToProcess = findSessionsPastGracePeriod(now, startOfDay, endOfDay);
-
-        log.info("Found {} sessions past grace period", sessionsToProcess.size());
-
-        int totalSessionsProcessed = 0;
-        int totalStudentsMarkedAbsent = 0;
-
-        for (Session session : sessionsToProcess) {
-            try {
-                int studentsMarked = processSession(session, now);
-                totalStudentsMarkedAbsent += studentsMarked;
-                totalSessionsProcessed++;
-
-                log.info("Session '{}' (ID: {}): Marked {} students as ABSENT",
-                        session.getName(), session.getId(), studentsMarked);
-
-            } catch (Exception e) {
-                log.error("Error processing session {} ({}): {}",
-                        session.getId(), session.getName(), e.getMessage(), e);
-            }
+    private final TransactionTemplate transactionTemplate;
+    private final AttendanceCounterService attendanceCounterService;
+    private final AuditorAware<String> auditorProvider;
+
+    @Value("${attendance.auto-absence.chunk-size:100}")
+    private Integer chunkSize;
+
+    @PostConstruct
+    void validateChunkSize() {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException(
+                    "attendance.auto-absence.chunk-size must be at least 1, got " + chunkSize);
         }
-
-        log.info("Auto-absence job completed. Processed {} sessions, marked {} students as ABSENT",
-                totalSessionsProcessed, totalStudentsMarkedAbsent);
     }
 
     /**
-     * Find sessions from today that have passed their grace period and haven't been marked as completed
+     * Close a single session whose grace period has just ended.
+     * Called by {@link SessionCloseScheduler} at {@code schedule + duration + grace-period-minutes}.
+     *
+     * @return number of students marked absent
      */
-    private List<Session> findSessionsPastGracePeriod(LocalDateTime now, LocalDateTime startOfDay, LocalDateTime endOfDay) {
-        // Get all sessions scheduled for today
-        List<Session> todaySessions = sessionRepository.findByModuleIdAndScheduleBetween(null, startOfDay, endOfDay)
-                .stream()
-                .filter(session -> session.getSchedule().toLocalDate().equals(now.toLocalDate()))
-                .toList();
-
-        // Alternative: use custom query to get all sessions for today
-        // We need a more general query, so let's get all past incomplete sessions and filter for today
-        List<Session> allPastSessions = sessionRepository.findPastIncompleteSessions(now);
-
-        // Filter for sessions from today that passed grace period
-        return allPastSessions.stream()
-                .filter(session -> {
-                    LocalDate sessionDate = session.getSchedule().toLocalDate();
-                    LocalDateTime gracePeriodEnd = session.getSchedule()
-                            .plusMinutes(session.getDuration())
-                            .plusMinutes(gracePeriodMinutes);
-
-                    // Only process today's sessions that have passed grace period
-                    return sessionDate.equals(now.toLocalDate()) && now.isAfter(gracePeriodEnd);
-                })
-                .toList();
+    public int closeSession(UUID sessionId) {
+        return closeSessions(List.of(sessionId));
     }
 
     /**
-     * Process a single session: find students without attendance and mark them absent
+     * Automatically mark students as absent if they didn't mark their attendance within the grace period.
+     *
+     * Sessions are processed in chunks, each chunk in its own transaction, with one set-based
+     * INSERT ... SELECT per chunk instead of a lookup and an insert per student.
+     * Completed sessions are skipped.
      *
      * @return number of students marked absent
      */
-    private int processSession(Session session, LocalDateTime now) {
-        // Get all enrolled students for this session (from all groups)
-        Set<Student> enrolledStudents = getAllEnrolledStudents(session);
+    public int closeSessions(List<UUID> sessionIds) {
+        LocalDateTime now = LocalDateTime.now();
+        String auditor = auditorProvider.getCurrentAuditor().orElse("system");
 
-        if (enrolledStudents.isEmpty()) {
-            log.warn("Session {} has no enrolled students", session.getId());
-            return 0;
-        }
+        long startNanos = System.nanoTime();
+        int totalSessionsProcessed = 0;
+        int totalStudentsMarkedAbsent = 0;
 
-        // Find students who don't have attendance records
-        Set<Student> studentsWithoutAttendance = new HashSet<>();
+        // Each chunk of sessions is committed on its own so a failure only rolls back that chunk
+        for (int from = 0; from < sessionIds.size(); from += chunkSize) {
+            List<UUID> chunk = sessionIds.subList(from, Math.min(from + chunkSize, sessionIds.size()));
+            try {
+                Integer studentsMarked = transactionTemplate.execute(status -> processSessions(chunk, now, auditor));
+                totalStudentsMarkedAbsent += studentsMarked != null ? studentsMarked : 0;
+                totalSessionsProcessed += chunk.size();
 
-        for (Student student : enrolledStudents) {
-            boolean hasAttendance = attendanceRecordRepository
-                    .existsByStudentIdAndSessionId(student.getId(), session.getId());
+                log.debug("Chunk of {} sessions: Marked {} students as ABSENT", chunk.size(), studentsMarked);
 
-            if (!hasAttendance) {
-                studentsWithoutAttendance.add(student);
+            } catch (Exception e) {
+                log.error("Error processing chunk of {} sessions starting at {}: {}",
+                        chunk.size(), chunk.get(0), e.getMessage(), e);
             }
         }
 
-        // Create ABSENT records for students without attendance
-        for (Student student : studentsWithoutAttendance) {
-            AttendanceRecord absentRecord = AttendanceRecord.builder()
-                    .student(student)
-                    .session(session)
-                    .status(AttendanceStatus.ABSENT)
-                    .date(session.getSchedule().toLocalDate())
-                    .scannedAt(now)
-                    .isJustified(false)
-                    .markedBy("SYSTEM")
-                    .build();
-
-            attendanceRecordRepository.save(absentRecord);
-        }
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        double rowsPerSecond = elapsedSeconds > 0 ? totalStudentsMarkedAbsent / elapsedSeconds : 0.0;
 
-        // Mark session attendance as taken
-        session.setAttendanceTaken(true);
-        sessionRepository.save(session);
+        log.info("Auto-absence completed. Processed {} sessions, marked {} students as ABSENT " +
+                        "in {} s ({} rows/s)",
+                totalSessionsProcessed, totalStudentsMarkedAbsent,
+                String.format("%.3f", elapsedSeconds), String.format("%.0f", rowsPerSecond));
 
-        return studentsWithoutAttendance.size();
+        return totalStudentsMarkedAbsent;
     }
 
     /**
-     * Get all students enrolled in the session through its groups
+     * Process a chunk of sessions: insert ABSENT records for every enrolled student without attendance
+     * in a single anti-join statement, count them, then flag the sessions as having their attendance taken.
+     *
+     * @return number of students marked absent
      */
-    private Set<Student> getAllEnrolledStudents(Session session) {
-        Set<Student> allStudents = new HashSet<>();
-
-        for (Group group : session.getGroups()) {
-            allStudents.addAll(group.getStudents());
-        }
-
-        return allStudents;
+    private int processSessions(List<UUID> sessionIds, LocalDateTime now, String auditor) {
+        List<UUID> absenceIds = attendanceRecordRepository.insertMissingAbsences(sessionIds, now, auditor);
+        attendanceCounterService.recordsInserted(absenceIds);
+        sessionRepository.markAttendanceTaken(sessionIds);
+        return absenceIds.size();
     }
 }
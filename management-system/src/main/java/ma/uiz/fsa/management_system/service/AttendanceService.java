@@ -4,14 +4,18 @@ import ma.uiz.fsa.management_system.dto.request.*;
 import ma.uiz.fsa.management_system.dto.response.AttendanceRecordResponseDto;
 import ma.uiz.fsa.management_system.dto.response.AttendanceRecordSimpleResponseDto;
 import ma.uiz.fsa.management_system.dto.response.AttendanceStatisticsDto;
+import ma.uiz.fsa.management_system.dto.response.BulkAttendanceResponseDto;
+import ma.uiz.fsa.management_system.dto.response.CursorPageResponse;
 import ma.uiz.fsa.management_system.dto.response.MessageResponse;
 import ma.uiz.fsa.management_system.model.enums.AttendanceStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface AttendanceService {
 
@@ -21,7 +25,7 @@ public interface AttendanceService {
 
     AttendanceRecordResponseDto scanQrCode(ScanQrRequestDto scanQrRequestDto);
 
-    MessageResponse recordBulkAttendance(BulkAttendanceDto bulkDto);
+    BulkAttendanceResponseDto recordBulkAttendance(BulkAttendanceDto bulkDto);
 
     AttendanceRecordResponseDto updateAttendanceRecord(UUID id, AttendanceRecordUpdateDto requestDto);
 
@@ -31,7 +35,10 @@ public interface AttendanceService {
 
     Page<AttendanceRecordResponseDto> getAllAttendanceRecords(Pageable pageable);
 
-    List<AttendanceRecordSimpleResponseDto> getAllAttendanceRecordsSimple();
+    void streamAllAttendanceRecordsSimple(Consumer<AttendanceRecordSimpleResponseDto> consumer);
+
+    CursorPageResponse<AttendanceRecordResponseDto> scrollAttendanceRecords(String cursor, int size,
+                                                                            boolean includeTotal);
 
     Page<AttendanceRecordResponseDto> getAttendanceByStudent(UUID studentId, Pageable pageable);
 
@@ -39,6 +46,9 @@ public interface AttendanceService {
 
     Page<AttendanceRecordResponseDto> getAttendanceByModule(UUID moduleId, Pageable pageable);
 
+    CursorPageResponse<AttendanceRecordResponseDto> scrollAttendanceByModule(UUID moduleId, String cursor, int size,
+                                                                             boolean includeTotal);
+
     List<AttendanceRecordResponseDto> getAttendanceByModuleAndStudent(UUID moduleId, UUID studentId);
 
     Page<AttendanceRecordResponseDto> getAttendanceByStatus(AttendanceStatus status, Pageable pageable);
@@ -49,16 +59,29 @@ public interface AttendanceService {
 
     Page<AttendanceRecordResponseDto> getUnjustifiedAbsences(Pageable pageable);
 
+    CursorPageResponse<AttendanceRecordResponseDto> scrollUnjustifiedAbsences(String cursor, int size,
+                                                                              boolean includeTotal);
+
     List<AttendanceRecordSimpleResponseDto> getUnjustifiedAbsencesByStudent(UUID studentId);
 
     Page<AttendanceRecordResponseDto> searchAttendanceRecords(String searchTerm, Pageable pageable);
 
     AttendanceStatisticsDto getStudentAttendanceStatistics(UUID studentId);
 
+    List<AttendanceStatisticsDto> getStudentsAttendanceStatistics(Collection<UUID> studentIds);
+
     AttendanceStatisticsDto getModuleAttendanceStatistics(UUID moduleId);
 
+    List<AttendanceStatisticsDto> getModulesAttendanceStatistics(Collection<UUID> moduleIds);
+
     AttendanceStatisticsDto getSessionAttendanceStatistics(UUID sessionId);
 
+    List<AttendanceStatisticsDto> getSessionsAttendanceStatistics(Collection<UUID> sessionIds);
+
+    AttendanceStatisticsDto getGroupAttendanceStatistics(UUID groupId);
+
+    MessageResponse rebuildAttendanceCounters();
+
     void deleteAttendanceRecord(UUID id);
 
     boolean hasAttendanceForSession(UUID studentId, UUID sessionId);
@@ -11,12 +11,13 @@ import org.springframework.data.domain.Pageable;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface EvaluationService {
 
     EvaluationResponseDto createEvaluation(EvaluationRequestDto requestDto);
 
-    MessageResponse createBulkEvaluations(BulkEvaluationDto bulkDto);
+    BulkEvaluationResponseDto createBulkEvaluations(BulkEvaluationDto bulkDto);
 
     EvaluationResponseDto updateEvaluation(UUID id, EvaluationUpdateDto requestDto);
 
@@ -26,7 +27,9 @@ public interface EvaluationService {
 
     Page<EvaluationResponseDto> getAllEvaluations(Pageable pageable);
 
-    List<EvaluationSimpleResponseDto> getAllEvaluationsSimple();
+    void streamAllEvaluationsSimple(Consumer<EvaluationSimpleResponseDto> consumer);
+
+    CursorPageResponse<EvaluationResponseDto> scrollEvaluations(String cursor, int size, boolean includeTotal);
 
     Page<EvaluationResponseDto> getEvaluationsByStudent(UUID studentId, Pageable pageable);
 
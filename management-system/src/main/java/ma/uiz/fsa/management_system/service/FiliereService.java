@@ -7,8 +7,8 @@ import ma.uiz.fsa.management_system.model.enums.DegreeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
-import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface FiliereService {
 
@@ -22,7 +22,7 @@ public interface FiliereService {
 
     Page<FiliereResponseDto> getAllFilieres(Pageable pageable);
 
-    List<FiliereSimpleResponseDto> getAllFilieresSimple();
+    void streamAllFilieresSimple(Consumer<FiliereSimpleResponseDto> consumer);
 
     Page<FiliereResponseDto> getFilieresByDepartment(UUID departmentId, Pageable pageable);
 
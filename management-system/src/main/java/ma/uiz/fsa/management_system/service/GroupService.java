@@ -11,6 +11,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface GroupService {
 
@@ -24,7 +25,7 @@ public interface GroupService {
 
     Page<GroupResponseDto> getAllGroups(Pageable pageable);
 
-    List<GroupSimpleResponseDto> getAllGroupsSimple();
+    void streamAllGroupsSimple(Consumer<GroupSimpleResponseDto> consumer);
 
     Page<GroupResponseDto> getGroupsByModule(UUID moduleId, Pageable pageable);
 
@@ -11,6 +11,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface ModuleService {
 
@@ -24,7 +25,7 @@ public interface ModuleService {
 
     Page<ModuleResponseDto> getAllModules(Pageable pageable);
 
-    List<ModuleSimpleResponseDto> getAllModulesSimple();
+    void streamAllModulesSimple(Consumer<ModuleSimpleResponseDto> consumer);
 
     Page<ModuleResponseDto> getModulesBySemester(UUID semesterId, Pageable pageable);
 
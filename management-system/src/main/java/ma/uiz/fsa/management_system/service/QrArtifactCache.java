@@ -0,0 +1,94 @@
+package ma.uiz.fsa.management_system.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded LRU cache of rendered QR code PNGs, keyed by owner (session) ID and QR version.
+ *
+ * The version is the QR content, which changes on every (re)generation, so a regenerated QR code is a cache
+ * miss on every instance and stale entries simply age out. The ETag is derived from the version alone and
+ * stays the same across restarts and instances.
+ */
+@Service
+@Slf4j
+public class QrArtifactCache {
+
+    private final long maxBytes;
+
+    // Access-ordered, guarded by this
+    private final LinkedHashMap<Key, QrArtifact> artifacts = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public QrArtifactCache(@Value("${qr-code.artifact-cache.max-size:16MB}") DataSize maxSize) {
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    /**
+     * Return the cached PNG of this QR version, loading it (outside the lock) on a miss
+     */
+    public QrArtifact get(UUID ownerId, String version, Supplier<byte[]> pngLoader) {
+        Key key = new Key(ownerId, version);
+        synchronized (this) {
+            QrArtifact cached = artifacts.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        QrArtifact artifact = new QrArtifact(version, etagOf(version), pngLoader.get());
+        put(key, artifact);
+        return artifact;
+    }
+
+    /**
+     * Strong ETag of a QR version
+     */
+    public static String etagOf(String version) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(version.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private synchronized void put(Key key, QrArtifact artifact) {
+        if (artifact.png().length > maxBytes) {
+            return;
+        }
+
+        QrArtifact previous = artifacts.put(key, artifact);
+        if (previous != null) {
+            totalBytes -= previous.png().length;
+        }
+        totalBytes += artifact.png().length;
+
+        Iterator<Map.Entry<Key, QrArtifact>> eldest = artifacts.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().png().length;
+            eldest.remove();
+        }
+    }
+
+    private record Key(UUID ownerId, String version) {
+    }
+
+    /**
+     * Rendered QR code image of one QR version
+     */
+    public record QrArtifact(String version, String etag, byte[] png) {
+    }
+}
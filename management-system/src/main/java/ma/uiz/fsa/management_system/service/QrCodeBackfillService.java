@@ -0,0 +1,268 @@
+package ma.uiz.fsa.management_system.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ma.uiz.fsa.management_system.dto.response.QrCodeBackfillStatusDto;
+import ma.uiz.fsa.management_system.exception.ResourceNotFoundException;
+import ma.uiz.fsa.management_system.model.entity.QrCodeTask;
+import ma.uiz.fsa.management_system.model.enums.QrCodeOwnerType;
+import ma.uiz.fsa.management_system.model.enums.QrCodeTaskStatus;
+import ma.uiz.fsa.management_system.repository.QrCodeTaskRepository;
+import ma.uiz.fsa.management_system.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Background generation of student QR code images queued in the {@code qr_code_outbox} table.
+ *
+ * Bulk imports only write outbox entries; once they commit, a single worker thread drains the outbox in chunks,
+ * renders each chunk on the QR render pool and stores the images, one transaction per chunk. Pending entries are
+ * also picked up periodically, so work left by a restart or by another instance is not lost. Entries are locked
+ * with {@code SKIP LOCKED}, which lets several instances drain the same outbox.
+ *
+ * Images are stored behind a savepoint, so a failed insert leaves the chunk transaction usable and the failed
+ * attempts are committed with it. When a whole chunk fails, its entries are retried one by one and only the
+ * entries that fail again count an attempt.
+ */
+@Service
+@Slf4j
+public class QrCodeBackfillService {
+
+    private static final String INSERT_IMAGE_SQL = "INSERT INTO qr_code_images " +
+            "(owner_id, owner_type, qr_code, image, created_at) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (owner_id) DO NOTHING";
+
+    private final QrCodeTaskRepository qrCodeTaskRepository;
+    private final StudentRepository studentRepository;
+    private final QrCodeService qrCodeService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate savepointTemplate;
+
+    private final int chunkSize;
+    private final int maxAttempts;
+    private final Duration retention;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            runnable -> Thread.ofPlatform().name("qr-backfill").daemon(true).unstarted(runnable));
+    private final AtomicBoolean runRequested = new AtomicBoolean();
+
+    private final Counter generatedCounter;
+    private final Counter failedCounter;
+
+    public QrCodeBackfillService(
+            QrCodeTaskRepository qrCodeTaskRepository,
+            StudentRepository studentRepository,
+            QrCodeService qrCodeService,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${qr-code.backfill.chunk-size:200}") int chunkSize,
+            @Value("${qr-code.backfill.max-attempts:3}") int maxAttempts,
+            @Value("${qr-code.backfill.retention:P7D}") Duration retention) {
+        this.qrCodeTaskRepository = qrCodeTaskRepository;
+        this.studentRepository = studentRepository;
+        this.qrCodeService = qrCodeService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.savepointTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.chunkSize = chunkSize;
+        this.maxAttempts = maxAttempts;
+        this.retention = retention;
+
+        this.generatedCounter = Counter.builder("qr-code.backfill.generated")
+                .description("QR code images generated from the outbox")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("qr-code.backfill.failed")
+                .description("QR code outbox entries given up after repeated failures")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue the QR code generation of newly created students under one import batch.
+     * The worker is woken once the current transaction commits.
+     */
+    public void enqueueStudents(UUID batchId, Collection<UUID> studentIds) {
+        LocalDateTime now = LocalDateTime.now();
+        qrCodeTaskRepository.saveAll(studentIds.stream()
+                .map(studentId -> QrCodeTask.builder()
+                        .batchId(batchId)
+                        .ownerId(studentId)
+                        .ownerType(QrCodeOwnerType.STUDENT)
+                        .createdAt(now)
+                        .build())
+                .toList());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestRun();
+                }
+            });
+        } else {
+            requestRun();
+        }
+    }
+
+    /**
+     * Progress of the QR code generation of an import batch
+     */
+    public QrCodeBackfillStatusDto getStatus(UUID batchId) {
+        Map<QrCodeTaskStatus, Long> counts = qrCodeTaskRepository.countByBatchIdGroupByStatus(batchId).stream()
+                .collect(Collectors.toMap(
+                        QrCodeTaskRepository.StatusCount::getStatus,
+                        QrCodeTaskRepository.StatusCount::getTotal));
+        if (counts.isEmpty()) {
+            throw new ResourceNotFoundException("No QR code generation found for import: " + batchId);
+        }
+
+        long pending = counts.getOrDefault(QrCodeTaskStatus.PENDING, 0L);
+        long generated = counts.getOrDefault(QrCodeTaskStatus.DONE, 0L);
+        long failed = counts.getOrDefault(QrCodeTaskStatus.FAILED, 0L);
+
+        return QrCodeBackfillStatusDto.builder()
+                .importId(batchId)
+                .total(pending + generated + failed)
+                .generated(generated)
+                .pending(pending)
+                .failed(failed)
+                .completed(pending == 0)
+                .build();
+    }
+
+    /**
+     * Pick up pending entries left by a restart, a failed run or another instance
+     */
+    @Scheduled(fixedDelayString = "${qr-code.backfill.poll-interval:PT30S}")
+    public void requestRun() {
+        if (runRequested.compareAndSet(false, true)) {
+            worker.execute(this::drain);
+        }
+    }
+
+    /**
+     * Delete processed outbox entries once their import is old enough not to be queried anymore
+     */
+    @Scheduled(cron = "${qr-code.backfill.cleanup-cron:0 45 3 * * *}")
+    public void deleteProcessedTasks() {
+        Integer deleted = transactionTemplate.execute(status -> qrCodeTaskRepository.deleteProcessedBefore(
+                QrCodeTaskStatus.PENDING, LocalDateTime.now().minus(retention)));
+        log.info("Deleted {} processed QR code outbox entries", deleted);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void drain() {
+        // Cleared first: a request arriving while draining schedules another pass
+        runRequested.set(false);
+        try {
+            int processed;
+            do {
+                Integer chunk = transactionTemplate.execute(status -> processChunk());
+                processed = chunk != null ? chunk : 0;
+            } while (processed == chunkSize);
+        } catch (Exception e) {
+            log.error("QR code backfill interrupted: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Render and store the images of one chunk of pending entries
+     *
+     * @return number of entries processed
+     */
+    private int processChunk() {
+        List<QrCodeTask> tasks = qrCodeTaskRepository.lockPending(chunkSize);
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+
+        // 1. Load the QR contents; students deleted meanwhile have nothing left to render
+        Map<UUID, String> qrCodes = studentRepository.findQrCodesByIdIn(
+                        tasks.stream().map(QrCodeTask::getOwnerId).toList()).stream()
+                .collect(Collectors.toMap(StudentRepository.StudentQrCode::getId,
+                        StudentRepository.StudentQrCode::getQrCode));
+        LocalDateTime now = LocalDateTime.now();
+
+        try {
+            // 2. Render the whole chunk in parallel and store it in one batch
+            storeImages(new ArrayList<>(qrCodes.keySet()), qrCodes, now);
+            tasks.forEach(task -> markDone(task, now));
+            generatedCounter.increment(qrCodes.size());
+        } catch (RuntimeException e) {
+            // 3. Retry entry by entry, so that only the entries at fault count an attempt
+            log.warn("Failed to generate {} QR codes at once, retrying one by one: {}", tasks.size(), e.getMessage());
+            for (QrCodeTask task : tasks) {
+                UUID ownerId = task.getOwnerId();
+                try {
+                    if (qrCodes.containsKey(ownerId)) {
+                        storeImages(List.of(ownerId), qrCodes, now);
+                        generatedCounter.increment();
+                    }
+                    markDone(task, now);
+                } catch (RuntimeException rowException) {
+                    log.warn("Failed to generate the QR code of student {}: {}", ownerId, rowException.getMessage());
+                    markFailedAttempt(task, rowException, now);
+                }
+            }
+        }
+
+        log.debug("QR code backfill processed {} outbox entries", tasks.size());
+        return tasks.size();
+    }
+
+    /**
+     * Render and insert the images of the given owners behind a savepoint, rolled back on failure
+     */
+    private void storeImages(List<UUID> ownerIds, Map<UUID, String> qrCodes, LocalDateTime now) {
+        List<byte[]> images = qrCodeService.generateQrCodeBytes(ownerIds.stream().map(qrCodes::get).toList());
+
+        Timestamp createdAt = Timestamp.valueOf(now);
+        List<Object[]> rows = new ArrayList<>(ownerIds.size());
+        for (int i = 0; i < ownerIds.size(); i++) {
+            UUID ownerId = ownerIds.get(i);
+            rows.add(new Object[]{ownerId, QrCodeOwnerType.STUDENT.name(), qrCodes.get(ownerId), images.get(i),
+                    createdAt});
+        }
+        savepointTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_IMAGE_SQL, rows));
+    }
+
+    private void markDone(QrCodeTask task, LocalDateTime now) {
+        task.setStatus(QrCodeTaskStatus.DONE);
+        task.setProcessedAt(now);
+    }
+
+    private void markFailedAttempt(QrCodeTask task, RuntimeException e, LocalDateTime now) {
+        task.setAttempts(task.getAttempts() + 1);
+        task.setLastError(e.getMessage() != null && e.getMessage().length() > 500
+                ? e.getMessage().substring(0, 500)
+                : e.getMessage());
+        if (task.getAttempts() >= maxAttempts) {
+            task.setStatus(QrCodeTaskStatus.FAILED);
+            task.setProcessedAt(now);
+            failedCounter.increment();
+        }
+    }
+}
@@ -2,77 +2,156 @@ package ma.uiz.fsa.management_system.service;
 
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.util.Base64;
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * QR code rendering.
+ *
+ * Codes are rendered on a dedicated bounded pool whose threads each keep a {@link QrPngEncoder}, so the module
+ * matrix is written straight to a 1-bit PNG with a reused deflater instead of an ARGB image encoded by ImageIO.
+ * A pool thread closes its encoder when it ends, on shutdown. When the pool queue is full the caller renders
+ * the code itself with a throwaway encoder, so request threads never hold on to a deflater.
+ */
 @Service
 @Slf4j
 public class QrCodeService {
 
     private static final int QR_CODE_SIZE = 300;
-    private static final String IMAGE_FORMAT = "PNG";
+
+    private static final Map<EncodeHintType, Object> HINTS;
+
+    static {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        hints.put(EncodeHintType.MARGIN, 1);
+        HINTS = Map.copyOf(hints);
+    }
+
+    private final QRCodeWriter qrCodeWriter = new QRCodeWriter();
+    // Only set on render pool threads
+    private final ThreadLocal<QrPngEncoder> encoders = new ThreadLocal<>();
+    private final ThreadPoolExecutor renderPool;
+
+    public QrCodeService(
+            MeterRegistry meterRegistry,
+            @Value("${qr-code.render.threads:0}") int threads,
+            @Value("${qr-code.render.queue-capacity:1000}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.renderPool = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> Thread.ofPlatform()
+                        .name("qr-render-" + threadCount.incrementAndGet())
+                        .daemon(true)
+                        .unstarted(() -> runWithEncoder(runnable)),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        new ExecutorServiceMetrics(renderPool, "qr-render", Tags.empty()).bindTo(meterRegistry);
+    }
 
     /**
      * Generate QR code as Base64 string
      */
     public String generateQrCodeBase64(String data) {
-        try {
-            byte[] qrCodeBytes = generateQrCodeBytes(data);
-            return Base64.getEncoder().encodeToString(qrCodeBytes);
-        } catch (Exception e) {
-            log.error("Error generating QR code for data: {}", data, e);
-            throw new RuntimeException("Failed to generate QR code", e);
-        }
+        return Base64.getEncoder().encodeToString(generateQrCodeBytes(data));
     }
 
     /**
      * Generate QR code as byte array
      */
     public byte[] generateQrCodeBytes(String data) {
-        try {
-            Map<EncodeHintType, Object> hints = new HashMap<>();
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-            hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-            hints.put(EncodeHintType.MARGIN, 1);
+        return join(renderAsync(data));
+    }
 
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(
-                    data,
-                    BarcodeFormat.QR_CODE,
-                    QR_CODE_SIZE,
-                    QR_CODE_SIZE,
-                    hints
-            );
+    /**
+     * Generate the QR codes of several contents in parallel on the render pool.
+     *
+     * @return the PNG images, in the order of {@code data}
+     */
+    public List<byte[]> generateQrCodeBytes(List<String> data) {
+        List<CompletableFuture<byte[]>> renders = data.stream()
+                .map(this::renderAsync)
+                .toList();
+        return renders.stream()
+                .map(QrCodeService::join)
+                .toList();
+    }
 
-            BufferedImage qrImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
+    /**
+     * Generate data URI (data:image/png;base64,...)
+     */
+    public String generateQrCodeDataUri(String data) {
+        String base64 = generateQrCodeBase64(data);
+        return "data:image/png;base64," + base64;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderPool.shutdown();
+    }
 
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(qrImage, IMAGE_FORMAT, baos);
+    private void runWithEncoder(Runnable worker) {
+        QrPngEncoder encoder = new QrPngEncoder();
+        encoders.set(encoder);
+        try {
+            worker.run();
+        } finally {
+            encoders.remove();
+            encoder.close();
+        }
+    }
 
-            return baos.toByteArray();
+    private CompletableFuture<byte[]> renderAsync(String data) {
+        return CompletableFuture.supplyAsync(() -> render(data), renderPool);
+    }
 
+    private byte[] render(String data) {
+        try {
+            BitMatrix bitMatrix = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, QR_CODE_SIZE, QR_CODE_SIZE, HINTS);
+            QrPngEncoder encoder = encoders.get();
+            if (encoder != null) {
+                return encoder.encode(bitMatrix);
+            }
+            try (QrPngEncoder callerEncoder = new QrPngEncoder()) {
+                return callerEncoder.encode(bitMatrix);
+            }
         } catch (Exception e) {
             log.error("Error generating QR code bytes for data: {}", data, e);
             throw new RuntimeException("Failed to generate QR code", e);
         }
     }
 
-    /**
-     * Generate data URI (data:image/png;base64,...)
-     */
-    public String generateQrCodeDataUri(String data) {
-        String base64 = generateQrCodeBase64(data);
-        return "data:image/png;base64," + base64;
+    private static byte[] join(CompletableFuture<byte[]> render) {
+        try {
+            return render.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
-}
\ No newline at end of file
+}
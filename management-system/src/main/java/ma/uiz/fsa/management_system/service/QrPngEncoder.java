@@ -0,0 +1,117 @@
+package ma.uiz.fsa.management_system.service;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a {@link BitMatrix} straight to a 1-bit indexed PNG (palette: white, black), without going through an
+ * ARGB {@code BufferedImage} and ImageIO.
+ *
+ * Not thread-safe: the deflater, checksum and buffers are reused from one image to the next, so each rendering
+ * thread owns one encoder. The deflater holds native memory until the encoder is closed.
+ */
+class QrPngEncoder implements AutoCloseable {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] IHDR = "IHDR".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PLTE = "PLTE".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IDAT = "IDAT".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IEND = "IEND".getBytes(StandardCharsets.US_ASCII);
+    // Index 0 = white (unset module), index 1 = black (set module)
+    private static final byte[] PALETTE = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0, 0, 0};
+
+    private static final int BIT_DEPTH = 1;
+    private static final int COLOR_TYPE_INDEXED = 3;
+    private static final int FILTER_NONE = 0;
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final CRC32 crc = new CRC32();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+    private final byte[] header = new byte[13];
+    private final byte[] word = new byte[4];
+    private byte[] scanlines = new byte[0];
+    private byte[] compressed = new byte[4096];
+
+    byte[] encode(BitMatrix matrix) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int rowBytes = (width + 7) / 8;
+
+        // 1. Pack the rows, each prefixed with its filter type
+        int rawLength = height * (rowBytes + 1);
+        if (scanlines.length < rawLength) {
+            scanlines = new byte[rawLength];
+        }
+        Arrays.fill(scanlines, 0, rawLength, (byte) 0);
+        for (int y = 0, offset = 0; y < height; y++, offset += rowBytes + 1) {
+            scanlines[offset] = FILTER_NONE;
+            for (int x = 0; x < width; x++) {
+                if (matrix.get(x, y)) {
+                    scanlines[offset + 1 + (x >>> 3)] |= (byte) (0x80 >>> (x & 7));
+                }
+            }
+        }
+
+        // 2. Compress them into a single IDAT payload
+        deflater.reset();
+        deflater.setInput(scanlines, 0, rawLength);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+
+        // 3. Assemble the chunks
+        writeInt(header, 0, width);
+        writeInt(header, 4, height);
+        header[8] = BIT_DEPTH;
+        header[9] = COLOR_TYPE_INDEXED;
+        header[10] = 0; // compression: deflate
+        header[11] = 0; // filter method: adaptive
+        header[12] = 0; // interlace: none
+
+        out.reset();
+        out.writeBytes(PNG_SIGNATURE);
+        writeChunk(IHDR, header, header.length);
+        writeChunk(PLTE, PALETTE, PALETTE.length);
+        writeChunk(IDAT, compressed, compressedLength);
+        writeChunk(IEND, header, 0);
+        return out.toByteArray();
+    }
+
+    /**
+     * Release the native memory of the deflater; the encoder cannot be used afterwards
+     */
+    @Override
+    public void close() {
+        deflater.end();
+    }
+
+    private void writeChunk(byte[] type, byte[] data, int length) {
+        writeInt(word, 0, length);
+        out.writeBytes(word);
+        out.writeBytes(type);
+        out.write(data, 0, length);
+
+        crc.reset();
+        crc.update(type);
+        crc.update(data, 0, length);
+        writeInt(word, 0, (int) crc.getValue());
+        out.writeBytes(word);
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,194 @@
+package ma.uiz.fsa.management_system.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.uiz.fsa.management_system.model.entity.Session;
+import ma.uiz.fsa.management_system.repository.SessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Closes each session exactly when its attendance window ends ({@code schedule + duration + grace-period-minutes})
+ * instead of sweeping all sessions twice a day.
+ *
+ * Only sessions closing within the preload horizon are kept in memory; the horizon is refreshed periodically,
+ * which also catches up sessions whose close time passed while the application was down.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionCloseScheduler {
+
+    private final SessionRepository sessionRepository;
+    private final AttendanceScheduledService attendanceScheduledService;
+    private final TaskScheduler taskScheduler;
+
+    private final Map<UUID, ScheduledClose> scheduledCloses = new ConcurrentHashMap<>();
+
+    @Value("${attendance.grace-period-minutes}")
+    private Integer gracePeriodMinutes;
+
+    @Value("${attendance.auto-absence.preload-hours:24}")
+    private Integer preloadHours;
+
+    /**
+     * Register (or re-register after a reschedule) the close of a session.
+     * Takes effect once the current transaction commits.
+     */
+    public void register(Session session) {
+        UUID sessionId = session.getId();
+        LocalDateTime closeAt = closeTimeOf(session);
+        afterCommit(() -> {
+            if (closeAt.isAfter(LocalDateTime.now().plusHours(preloadHours))) {
+                // Outside the horizon: the next preload picks it up
+                unschedule(sessionId);
+            } else {
+                schedule(sessionId, closeAt);
+            }
+        });
+    }
+
+    /**
+     * Drop the pending close of a session (deleted or completed).
+     * Takes effect once the current transaction commits.
+     */
+    public void cancel(UUID sessionId) {
+        afterCommit(() -> unschedule(sessionId));
+    }
+
+    /**
+     * Load the sessions closing within the preload horizon and close the ones already past their grace period.
+     * Only sessions started today or still running (possibly since before midnight) are considered,
+     * to avoid affecting historical data.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${attendance.auto-absence.preload-interval:PT1H}",
+            initialDelayString = "${attendance.auto-absence.preload-interval:PT1H}")
+    public void preloadUpcomingCloses() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer maxDuration = sessionRepository.findMaxIncompleteSessionDuration();
+        LocalDateTime earliestRunning = now.minusMinutes((maxDuration != null ? maxDuration : 0) + gracePeriodMinutes);
+        LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
+        LocalDateTime from = earliestRunning.isBefore(startOfDay) ? earliestRunning : startOfDay;
+
+        List<Session> sessions = sessionRepository.findIncompleteSessionsScheduledBetween(
+                from, now.plusHours(preloadHours));
+
+        List<UUID> overdueSessionIds = new ArrayList<>();
+        for (Session session : sessions) {
+            LocalDateTime closeAt = closeTimeOf(session);
+            if (closeAt.isAfter(now)) {
+                schedule(session.getId(), closeAt);
+            } else if (!session.getAttendanceTaken()) {
+                overdueSessionIds.add(session.getId());
+            }
+        }
+
+        log.info("Session close schedule refreshed: {} pending, {} overdue",
+                scheduledCloses.size(), overdueSessionIds.size());
+
+        if (!overdueSessionIds.isEmpty()) {
+            attendanceScheduledService.closeSessions(overdueSessionIds);
+        }
+    }
+
+    private void schedule(UUID sessionId, LocalDateTime closeAt) {
+        ScheduledClose current = scheduledCloses.get(sessionId);
+        if (current != null && current.closeAt().equals(closeAt)) {
+            return;
+        }
+
+        // Registered before submitting: a close time already past runs the task immediately
+        ScheduledClose scheduledClose = new ScheduledClose(closeAt);
+        ScheduledClose previous = scheduledCloses.put(sessionId, scheduledClose);
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        scheduledClose.future = taskScheduler.schedule(
+                () -> close(sessionId, scheduledClose),
+                closeAt.atZone(ZoneId.systemDefault()).toInstant());
+
+        log.debug("Session {} will be closed at {}", sessionId, closeAt);
+    }
+
+    private void unschedule(UUID sessionId) {
+        ScheduledClose previous = scheduledCloses.remove(sessionId);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    private void close(UUID sessionId, ScheduledClose scheduledClose) {
+        if (!scheduledCloses.remove(sessionId, scheduledClose)) {
+            // Rescheduled or cancelled meanwhile
+            return;
+        }
+
+        try {
+            int studentsMarked = attendanceScheduledService.closeSession(sessionId);
+            log.info("Session {} closed: Marked {} students as ABSENT", sessionId, studentsMarked);
+        } catch (Exception e) {
+            log.error("Error closing session {}: {}", sessionId, e.getMessage(), e);
+        }
+    }
+
+    private LocalDateTime closeTimeOf(Session session) {
+        return session.getSchedule()
+                .plusMinutes(session.getDuration())
+                .plusMinutes(gracePeriodMinutes);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * A pending close, compared by identity so that a task only acts on the registration that submitted it
+     */
+    private static final class ScheduledClose {
+
+        private final LocalDateTime closeAt;
+        private volatile ScheduledFuture<?> future;
+
+        private ScheduledClose(LocalDateTime closeAt) {
+            this.closeAt = closeAt;
+        }
+
+        private LocalDateTime closeAt() {
+            return closeAt;
+        }
+
+        private void cancel() {
+            // Not yet submitted: the task finds itself unregistered and does nothing
+            ScheduledFuture<?> submitted = future;
+            if (submitted != null) {
+                submitted.cancel(false);
+            }
+        }
+    }
+}
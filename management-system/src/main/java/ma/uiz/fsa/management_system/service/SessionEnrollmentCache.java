@@ -0,0 +1,115 @@
+package ma.uiz.fsa.management_system.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.uiz.fsa.management_system.model.entity.Session;
+import ma.uiz.fsa.management_system.repository.SessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory enrollment index for sessions whose attendance window is open.
+ *
+ * The set of enrolled student IDs of a session is loaded once, on the first scan, with two id-only queries,
+ * so QR scan validation no longer hydrates the session groups and their students. Entries are dropped when the
+ * attendance window closes and invalidated whenever group membership or the session groups change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionEnrollmentCache {
+
+    private final SessionRepository sessionRepository;
+
+    private final Map<UUID, SessionEnrollment> enrollments = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation so a load racing with an enrollment change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${attendance.grace-period-minutes}")
+    private Integer gracePeriodMinutes;
+
+    /**
+     * Check whether the student is enrolled in at least one of the session's groups
+     */
+    public boolean isEnrolled(Session session, UUID studentId) {
+        SessionEnrollment enrollment = enrollments.get(session.getId());
+
+        if (enrollment == null) {
+            long loadGeneration = generation.get();
+            enrollment = load(session);
+            if (generation.get() == loadGeneration) {
+                enrollments.putIfAbsent(session.getId(), enrollment);
+            }
+        }
+
+        return enrollment.studentIds().contains(studentId);
+    }
+
+    /**
+     * Invalidate the cached enrollment of every session the group is assigned to.
+     * Takes effect once the current transaction commits.
+     */
+    public void evictGroup(UUID groupId) {
+        afterCommit(() -> enrollments.values().removeIf(enrollment -> enrollment.groupIds().contains(groupId)));
+    }
+
+    /**
+     * Invalidate the cached enrollment of a session.
+     * Takes effect once the current transaction commits.
+     */
+    public void evictSession(UUID sessionId) {
+        afterCommit(() -> enrollments.remove(sessionId));
+    }
+
+    /**
+     * Drop sessions whose attendance window has closed
+     */
+    @Scheduled(fixedDelayString = "${attendance.enrollment-cache.purge-interval:PT10M}")
+    public void purgeClosedSessions() {
+        LocalDateTime now = LocalDateTime.now();
+        enrollments.values().removeIf(enrollment -> enrollment.expiresAt().isBefore(now));
+    }
+
+    private SessionEnrollment load(Session session) {
+        Set<UUID> groupIds = Set.copyOf(sessionRepository.findGroupIdsBySessionId(session.getId()));
+        Set<UUID> studentIds = Set.copyOf(sessionRepository.findEnrolledStudentIdsBySessionId(session.getId()));
+
+        LocalDateTime expiresAt = session.getSchedule()
+                .plusMinutes(session.getDuration())
+                .plusMinutes(gracePeriodMinutes);
+
+        log.debug("Loaded enrollment of session {}: {} students in {} groups",
+                session.getId(), studentIds.size(), groupIds.size());
+
+        return new SessionEnrollment(groupIds, studentIds, expiresAt);
+    }
+
+    private void afterCommit(Runnable action) {
+        generation.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record SessionEnrollment(Set<UUID> groupIds, Set<UUID> studentIds, LocalDateTime expiresAt) {
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.data.domain.Pageable;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface SessionService {
 
@@ -24,7 +25,7 @@ public interface SessionService {
 
     Page<SessionResponseDto> getAllSessions(Pageable pageable);
 
-    List<SessionSimpleResponseDto> getAllSessionsSimple();
+    void streamAllSessionsSimple(Consumer<SessionSimpleResponseDto> consumer);
 
     Page<SessionResponseDto> getSessionsByModule(UUID moduleId, Pageable pageable);
 
@@ -60,6 +61,8 @@ public interface SessionService {
 
     String generateSessionQrCode(UUID sessionId);
 
+    QrArtifactCache.QrArtifact getSessionQrArtifact(UUID sessionId);
+
     String regenerateSessionQrCode(UUID sessionId);
 
     void activateSessionQrCode(UUID sessionId, Integer validityMinutes);
@@ -0,0 +1,196 @@
+package ma.uiz.fsa.management_system.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.uiz.fsa.management_system.dto.request.StudentBulkItemDto;
+import ma.uiz.fsa.management_system.dto.request.StudentRequestDto;
+import ma.uiz.fsa.management_system.exception.ResourceNotFoundException;
+import ma.uiz.fsa.management_system.mapper.StudentMapper;
+import ma.uiz.fsa.management_system.model.entity.Filiere;
+import ma.uiz.fsa.management_system.model.entity.Role;
+import ma.uiz.fsa.management_system.model.entity.Student;
+import ma.uiz.fsa.management_system.model.enums.RoleType;
+import ma.uiz.fsa.management_system.repository.FiliereRepository;
+import ma.uiz.fsa.management_system.repository.RoleRepository;
+import ma.uiz.fsa.management_system.repository.StudentRepository;
+import ma.uiz.fsa.management_system.repository.UserRepository;
+import ma.uiz.fsa.management_system.security.PasswordHashingExecutor;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Set-based import of a batch of students.
+ *
+ * The whole batch is validated up front with one {@code IN} query per unique column plus in-memory duplicate
+ * detection, the filiere and student role are resolved once, passwords are hashed on a bounded pool and the valid
+ * rows are inserted with JDBC batching. Rows that fail validation are reported without aborting the others.
+ * The unique constraints of the database remain the last line of defense.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StudentBulkImporter {
+
+    // Keeps IN lists well below the PostgreSQL bind parameter limit
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final StudentRepository studentRepository;
+    private final UserRepository userRepository;
+    private final FiliereRepository filiereRepository;
+    private final RoleRepository roleRepository;
+    private final StudentMapper studentMapper;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${student.bulk-import.jdbc-batch-size:500}")
+    private Integer jdbcBatchSize;
+
+    /**
+     * Outcome of one imported row: the saved student, or the reason it was rejected
+     */
+    public record RowOutcome(int index, StudentBulkItemDto item, Student student, String errorMessage) {
+
+        public boolean isSuccess() {
+            return student != null;
+        }
+    }
+
+    /**
+     * Validate and insert a batch of students in the caller's transaction.
+     *
+     * @param firstIndex index reported for the first item, so chunks of a larger import keep their row numbers
+     * @return one outcome per item, in the order of {@code items}
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<RowOutcome> importStudents(UUID filiereId, List<StudentBulkItemDto> items, int firstIndex) {
+        // 1. Shared references, resolved once for the whole batch
+        Filiere filiere = filiereRepository.findById(filiereId)
+                .orElseThrow(() -> new ResourceNotFoundException("Filiere not found with ID: " + filiereId));
+        Role studentRole = roleRepository.findByName(RoleType.ROLE_STUDENT)
+                .orElseThrow(() -> new ResourceNotFoundException("Student role not found"));
+
+        // 2. Values already taken, one IN query per unique column
+        Set<String> takenEmails = lookup(items, StudentBulkItemDto::getEmail, userRepository::findEmailsByEmailIn);
+        Set<String> takenUsernames = lookup(items, StudentBulkItemDto::getUsername,
+                userRepository::findUsernamesByUsernameIn);
+        Set<String> takenCnes = lookup(items, item -> upperCase(item.getCne()), studentRepository::findCnesByCneIn);
+        Set<String> takenCins = lookup(items, item -> upperCase(item.getCin()), studentRepository::findCinsByCinIn);
+
+        // 3. Validate every row against the database and against the rows before it
+        String[] errors = new String[items.size()];
+        Set<String> batchEmails = new HashSet<>();
+        Set<String> batchUsernames = new HashSet<>();
+        Set<String> batchCnes = new HashSet<>();
+        Set<String> batchCins = new HashSet<>();
+        List<Integer> validRows = new ArrayList<>(items.size());
+
+        for (int i = 0; i < items.size(); i++) {
+            StudentBulkItemDto item = items.get(i);
+            String cne = upperCase(item.getCne());
+            String cin = upperCase(item.getCin());
+
+            if (takenEmails.contains(item.getEmail())) {
+                errors[i] = "Student with email '" + item.getEmail() + "' already exists";
+            } else if (takenUsernames.contains(item.getUsername())) {
+                errors[i] = "Username '" + item.getUsername() + "' is already taken";
+            } else if (takenCnes.contains(cne)) {
+                errors[i] = "Student with CNE '" + item.getCne() + "' already exists";
+            } else if (takenCins.contains(cin)) {
+                errors[i] = "Student with CIN '" + item.getCin() + "' already exists";
+            } else if (!batchEmails.add(item.getEmail())) {
+                errors[i] = "Duplicate email '" + item.getEmail() + "' in this import";
+            } else if (!batchUsernames.add(item.getUsername())) {
+                errors[i] = "Duplicate username '" + item.getUsername() + "' in this import";
+            } else if (!batchCnes.add(cne)) {
+                errors[i] = "Duplicate CNE '" + item.getCne() + "' in this import";
+            } else if (!batchCins.add(cin)) {
+                errors[i] = "Duplicate CIN '" + item.getCin() + "' in this import";
+            } else {
+                validRows.add(i);
+            }
+        }
+
+        // 4. Hash the passwords of the valid rows in parallel, BCrypt being the dominant cost of an import
+        List<String> passwordHashes = passwordHashingExecutor.encodeAll(validRows.stream()
+                .map(i -> items.get(i).getPassword())
+                .toList());
+
+        // 5. Insert the valid rows with JDBC batches larger than the default used by regular requests
+        List<Student> students = IntStream.range(0, validRows.size())
+                .mapToObj(n -> studentMapper.toEntity(toRequestDto(items.get(validRows.get(n)), filiereId), filiere,
+                        studentRole, passwordHashes.get(n)))
+                .toList();
+
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(jdbcBatchSize);
+        try {
+            studentRepository.saveAll(students);
+            studentRepository.flush();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+
+        Student[] saved = new Student[items.size()];
+        for (int n = 0; n < validRows.size(); n++) {
+            saved[validRows.get(n)] = students.get(n);
+        }
+
+        log.debug("Imported {} of {} students into filiere {}", students.size(), items.size(), filiereId);
+
+        return IntStream.range(0, items.size())
+                .mapToObj(i -> new RowOutcome(firstIndex + i, items.get(i), saved[i], errors[i]))
+                .toList();
+    }
+
+    private Set<String> lookup(List<StudentBulkItemDto> items, Function<StudentBulkItemDto, String> key,
+                               Function<Collection<String>, List<String>> query) {
+        List<String> values = items.stream()
+                .map(key)
+                .distinct()
+                .toList();
+
+        Set<String> taken = new HashSet<>();
+        for (int from = 0; from < values.size(); from += LOOKUP_CHUNK_SIZE) {
+            taken.addAll(query.apply(values.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, values.size()))));
+        }
+        return taken;
+    }
+
+    private static String upperCase(String value) {
+        return value != null ? value.toUpperCase() : null;
+    }
+
+    private static StudentRequestDto toRequestDto(StudentBulkItemDto item, UUID filiereId) {
+        return StudentRequestDto.builder()
+                .email(item.getEmail())
+                .password(item.getPassword())
+                .username(item.getUsername())
+                .cne(item.getCne())
+                .cin(item.getCin())
+                .firstName(item.getFirstName())
+                .lastName(item.getLastName())
+                .dateOfBirth(item.getDateOfBirth())
+                .filiereId(filiereId)
+                .phoneNumber(item.getPhoneNumber())
+                .address(item.getAddress())
+                .photoUrl(item.getPhotoUrl())
+                .build();
+    }
+}
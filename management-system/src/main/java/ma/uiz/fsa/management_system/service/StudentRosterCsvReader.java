@@ -0,0 +1,203 @@
+package ma.uiz.fsa.management_system.service;
+
+import ma.uiz.fsa.management_system.dto.request.StudentBulkItemDto;
+import ma.uiz.fsa.management_system.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Forward-only reader of a student roster in CSV, one {@link Row} at a time.
+ *
+ * The first record is a header naming the columns, matched case-insensitively and ignoring spaces, dashes and
+ * underscores ({@code firstName}, {@code first_name} and {@code First Name} are the same column). Fields may be
+ * quoted as in RFC 4180. Both comma and semicolon separated files are accepted, the latter being what
+ * spreadsheet software writes in French locales. Dates are {@code yyyy-MM-dd} or {@code dd/MM/yyyy}.
+ */
+public class StudentRosterCsvReader implements Closeable {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of(
+            "email", "password", "username", "cne", "cin", "firstname", "lastname", "dateofbirth");
+
+    private static final DateTimeFormatter DAY_FIRST_DATE = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+
+    // Guards memory against a stray quote swallowing the rest of the file into one field
+    private static final int MAX_RECORD_LENGTH = 8192;
+
+    private final BufferedReader reader;
+    private final char separator;
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    private int lineNumber;
+
+    /**
+     * A parsed roster row. {@code item} is null when the row could not be parsed, {@code error} says why.
+     *
+     * @param line line of the file on which the row starts, the header being line 1
+     */
+    public record Row(int line, StudentBulkItemDto item, String error) {
+    }
+
+    /**
+     * Open a roster and read its header
+     *
+     * @throws BadRequestException if the file is empty or a required column is missing
+     */
+    public StudentRosterCsvReader(InputStream csv) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new BadRequestException("The roster file is empty");
+        }
+        lineNumber = 1;
+
+        // Excel prepends a byte order mark to UTF-8 exports
+        if (headerLine.startsWith("\uFEFF")) {
+            headerLine = headerLine.substring(1);
+        }
+        this.separator = headerLine.indexOf(';') >= 0 && headerLine.indexOf(',') < 0 ? ';' : ',';
+
+        List<String> header = split(headerLine);
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(normalize(header.get(i)), i);
+        }
+
+        List<String> missing = REQUIRED_COLUMNS.stream()
+                .filter(column -> !columns.containsKey(column))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new BadRequestException("The roster file is missing the columns: " + String.join(", ", missing));
+        }
+    }
+
+    /**
+     * Read the next non-blank row
+     *
+     * @return the row, or null at the end of the file
+     */
+    public Row next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        int firstLine = lineNumber;
+
+        // A quoted field may span several lines
+        StringBuilder record = new StringBuilder(line);
+        while (hasOpenQuote(record)) {
+            String continuation = reader.readLine();
+            if (continuation == null) {
+                return new Row(firstLine, null, "Unterminated quoted field");
+            }
+            lineNumber++;
+            if (record.length() + continuation.length() > MAX_RECORD_LENGTH) {
+                return new Row(firstLine, null, "Row exceeds " + MAX_RECORD_LENGTH + " characters");
+            }
+            record.append('\n').append(continuation);
+        }
+
+        try {
+            return new Row(firstLine, toItem(split(record.toString())), null);
+        } catch (DateTimeParseException e) {
+            return new Row(firstLine, null, "Invalid date of birth '" + e.getParsedString() + "'");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private StudentBulkItemDto toItem(List<String> fields) {
+        return StudentBulkItemDto.builder()
+                .email(field(fields, "email"))
+                .password(field(fields, "password"))
+                .username(field(fields, "username"))
+                .cne(field(fields, "cne"))
+                .cin(field(fields, "cin"))
+                .firstName(field(fields, "firstname"))
+                .lastName(field(fields, "lastname"))
+                .dateOfBirth(parseDate(field(fields, "dateofbirth")))
+                .phoneNumber(field(fields, "phonenumber"))
+                .address(field(fields, "address"))
+                .photoUrl(field(fields, "photourl"))
+                .build();
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.indexOf('/') >= 0 ? LocalDate.parse(value, DAY_FIRST_DATE) : LocalDate.parse(value);
+    }
+
+    private static boolean hasOpenQuote(CharSequence record) {
+        boolean open = false;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                open = !open;
+            }
+        }
+        return open;
+    }
+
+    private List<String> split(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String normalize(String column) {
+        return column.trim().replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -8,13 +8,31 @@ import ma.uiz.fsa.management_system.dto.response.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface StudentService {
 
     BulkStudentResponseDto createBulkStudents(BulkStudentRequestDto requestDto);
 
+    QrCodeBackfillStatusDto getBulkQrCodeStatus(UUID importId);
+
+    /**
+     * Check the target filiere and read the header of a CSV roster, before any response is written
+     */
+    StudentRosterCsvReader openRosterImport(UUID filiereId, InputStream csv) throws IOException;
+
+    /**
+     * Import a CSV roster chunk by chunk, each chunk in its own transaction, passing the outcome of its rows
+     * to {@code chunkSink} as soon as it is committed. An import stopped by an error returns an ABORTED summary;
+     * the chunks already committed stay imported.
+     */
+    StudentImportSummaryDto importRoster(UUID filiereId, StudentRosterCsvReader roster,
+                                         Consumer<List<StudentImportRowDto>> chunkSink);
+
     StudentResponseDto createStudent(StudentRequestDto requestDto);
 
     StudentResponseDto updateStudent(UUID id, StudentUpdateDto requestDto);
@@ -29,7 +47,7 @@ public interface StudentService {
 
     Page<StudentResponseDto> getAllStudents(Pageable pageable);
 
-    List<StudentSimpleResponseDto> getAllStudentsSimple();
+    void streamAllStudentsSimple(Consumer<StudentSimpleResponseDto> consumer);
 
     Page<StudentResponseDto> getStudentsByFiliere(UUID filiereId, Pageable pageable);
 
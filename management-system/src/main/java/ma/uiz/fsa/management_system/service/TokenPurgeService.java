@@ -0,0 +1,98 @@
+package ma.uiz.fsa.management_system.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import ma.uiz.fsa.management_system.repository.PasswordResetTokenRepository;
+import ma.uiz.fsa.management_system.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Periodic removal of refresh tokens that are expired or revoked and of password reset tokens that are expired
+ * or used. Rows are deleted in batches, each in its own transaction, so a large backlog never holds long locks.
+ */
+@Service
+@Slf4j
+public class TokenPurgeService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final Counter refreshTokensPurged;
+    private final Counter passwordResetTokensPurged;
+    private final Timer purgeTimer;
+
+    public TokenPurgeService(
+            RefreshTokenRepository refreshTokenRepository,
+            PasswordResetTokenRepository passwordResetTokenRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${token-purge.batch-size:1000}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("token-purge.batch-size must be at least 1, got " + batchSize);
+        }
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+
+        this.refreshTokensPurged = Counter.builder("auth.tokens.purged")
+                .tag("type", "refresh")
+                .description("Expired or revoked refresh tokens deleted")
+                .register(meterRegistry);
+        this.passwordResetTokensPurged = Counter.builder("auth.tokens.purged")
+                .tag("type", "password_reset")
+                .description("Expired or used password reset tokens deleted")
+                .register(meterRegistry);
+        this.purgeTimer = Timer.builder("auth.tokens.purge.duration")
+                .description("Time to purge stale authentication tokens")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Delete stale refresh and password reset tokens
+     */
+    @Scheduled(cron = "${token-purge.cron:0 15 * * * *}")
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now();
+        long startNanos = System.nanoTime();
+
+        int refreshTokens = purgeInBatches(() -> refreshTokenRepository.deleteExpiredOrRevokedBatch(now, batchSize));
+        refreshTokensPurged.increment(refreshTokens);
+
+        int passwordResetTokens = purgeInBatches(
+                () -> passwordResetTokenRepository.deleteExpiredOrUsedBatch(now, batchSize));
+        passwordResetTokensPurged.increment(passwordResetTokens);
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        purgeTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        double elapsedSeconds = elapsedNanos / 1_000_000_000.0;
+        double rowsPerSecond = elapsedSeconds > 0 ? (refreshTokens + passwordResetTokens) / elapsedSeconds : 0.0;
+
+        log.info("Token purge completed. Deleted {} refresh tokens and {} password reset tokens in {} s ({} rows/s)",
+                refreshTokens, passwordResetTokens,
+                String.format("%.3f", elapsedSeconds), String.format("%.0f", rowsPerSecond));
+    }
+
+    private int purgeInBatches(IntSupplier deleteBatch) {
+        int total = 0;
+        int deleted;
+        do {
+            Integer batch = transactionTemplate.execute(status -> deleteBatch.getAsInt());
+            deleted = batch != null ? batch : 0;
+            total += deleted;
+        } while (deleted == batchSize);
+        return total;
+    }
+}
@@ -6,21 +6,30 @@ import ma.uiz.fsa.management_system.dto.request.*;
 import ma.uiz.fsa.management_system.dto.response.AttendanceRecordResponseDto;
 import ma.uiz.fsa.management_system.dto.response.AttendanceRecordSimpleResponseDto;
 import ma.uiz.fsa.management_system.dto.response.AttendanceStatisticsDto;
+import ma.uiz.fsa.management_system.dto.response.BulkAttendanceResponseDto;
+import ma.uiz.fsa.management_system.dto.response.CursorPageResponse;
 import ma.uiz.fsa.management_system.dto.response.MessageResponse;
 import ma.uiz.fsa.management_system.exception.BadRequestException;
 import ma.uiz.fsa.management_system.exception.ResourceNotFoundException;
 import ma.uiz.fsa.management_system.mapper.AttendanceRecordMapper;
 import ma.uiz.fsa.management_system.model.entity.AttendanceRecord;
+import ma.uiz.fsa.management_system.model.entity.Group;
 import ma.uiz.fsa.management_system.model.entity.Module;
 import ma.uiz.fsa.management_system.model.entity.Session;
 import ma.uiz.fsa.management_system.model.entity.Student;
+import ma.uiz.fsa.management_system.model.enums.AttendanceCounterScope;
 import ma.uiz.fsa.management_system.model.enums.AttendanceMode;
 import ma.uiz.fsa.management_system.model.enums.AttendanceStatus;
 import ma.uiz.fsa.management_system.repository.AttendanceRecordRepository;
+import ma.uiz.fsa.management_system.repository.GroupRepository;
 import ma.uiz.fsa.management_system.repository.ModuleRepository;
 import ma.uiz.fsa.management_system.repository.SessionRepository;
 import ma.uiz.fsa.management_system.repository.StudentRepository;
+import ma.uiz.fsa.management_system.service.AttendanceCounterService;
+import ma.uiz.fsa.management_system.service.AttendanceIngestionQueue;
 import ma.uiz.fsa.management_system.service.AttendanceService;
+import ma.uiz.fsa.management_system.service.SessionEnrollmentCache;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -30,10 +39,18 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -45,6 +62,11 @@ public class AttendanceServiceImpl implements AttendanceService {
     private final SessionRepository sessionRepository;
     private final ModuleRepository moduleRepository;
     private final AttendanceRecordMapper attendanceRecordMapper;
+    private final SessionEnrollmentCache sessionEnrollmentCache;
+    private final AttendanceIngestionQueue attendanceIngestionQueue;
+    private final AuditorAware<String> auditorProvider;
+    private final AttendanceCounterService attendanceCounterService;
+    private final GroupRepository groupRepository;
 
     // Configuration: How long after session ends can attendance be taken (in minutes)
     private static final long ATTENDANCE_GRACE_PERIOD_MINUTES = 30;
@@ -58,12 +80,6 @@ public class AttendanceServiceImpl implements AttendanceService {
         log.debug("Recording attendance for student ID: {} and session ID: {}",
                 requestDto.getStudentId(), requestDto.getSessionId());
 
-        // Check if attendance already exists
-        if (attendanceRecordRepository.existsByStudentIdAndSessionId(
-                requestDto.getStudentId(), requestDto.getSessionId())) {
-            throw new BadRequestException("Attendance already recorded for this student and session");
-        }
-
         // Validate session exists and is not completed
         Session session = sessionRepository.findById(requestDto.getSessionId())
                 .orElseThrow(() -> new ResourceNotFoundException(
@@ -74,7 +90,8 @@ public class AttendanceServiceImpl implements AttendanceService {
         }
 
         AttendanceRecord attendance = attendanceRecordMapper.toEntity(requestDto);
-        AttendanceRecord savedAttendance = attendanceRecordRepository.save(attendance);
+        AttendanceRecord savedAttendance = insertAttendance(attendance,
+                "Attendance already recorded for this student and session. Status: ");
 
         log.info("Attendance recorded successfully with ID: {}", savedAttendance.getId());
         return attendanceRecordMapper.toResponseDto(savedAttendance);
@@ -104,21 +121,10 @@ public class AttendanceServiceImpl implements AttendanceService {
         // 5. Check if student is enrolled in session's groups
         validateStudentEnrollment(student, session);
 
-        // 6. Check for duplicate attendance
-        Optional<AttendanceRecord> existingRecord = attendanceRecordRepository
-                .findByStudentIdAndSessionId(student.getId(), session.getId());
-
-        if (existingRecord.isPresent()) {
-            throw new BadRequestException(
-                    "Attendance already recorded for this student in this session. Status: "
-                            + existingRecord.get().getStatus()
-            );
-        }
-
-        // 7. Determine attendance status based on timing
+        // 6. Determine attendance status based on timing
         AttendanceStatus status = determineAttendanceStatus(session, LocalDateTime.now());
 
-        // 8. Create attendance record
+        // 7. Create attendance record (duplicates are rejected by the insert itself)
         AttendanceRecord attendanceRecord = AttendanceRecord.builder()
                 .student(student)
                 .session(session)
@@ -131,7 +137,8 @@ public class AttendanceServiceImpl implements AttendanceService {
                 .markedBy("PROFESSOR")
                 .build();
 
-        AttendanceRecord savedRecord = attendanceRecordRepository.save(attendanceRecord);
+        AttendanceRecord savedRecord = insertAttendance(attendanceRecord,
+                "Attendance already recorded for this student in this session. Status: ");
 
         log.info("Attendance recorded for student {} in session {} with status: {}",
                 student.getCne(), session.getId(), status);
@@ -181,21 +188,10 @@ public class AttendanceServiceImpl implements AttendanceService {
         // 6. Check if student is enrolled in session's groups
         validateStudentEnrollment(student, session);
 
-        // 7. Check for duplicate attendance
-        Optional<AttendanceRecord> existingRecord = attendanceRecordRepository
-                .findByStudentIdAndSessionId(student.getId(), session.getId());
-
-        if (existingRecord.isPresent()) {
-            throw new BadRequestException(
-                    "Attendance already recorded for this student in this session. Status: "
-                            + existingRecord.get().getStatus()
-            );
-        }
-
-        // 8. Determine attendance status based on timing
+        // 7. Determine attendance status based on timing
         AttendanceStatus status = determineAttendanceStatus(session, LocalDateTime.now());
 
-        // 9. Create attendance record
+        // 8. Create attendance record (duplicates are rejected by the insert itself)
         AttendanceRecord attendanceRecord = AttendanceRecord.builder()
                 .student(student)
                 .session(session)
@@ -208,7 +204,8 @@ public class AttendanceServiceImpl implements AttendanceService {
                 .markedBy("PROFESSOR")
                 .build();
 
-        AttendanceRecord savedRecord = attendanceRecordRepository.save(attendanceRecord);
+        AttendanceRecord savedRecord = insertAttendance(attendanceRecord,
+                "Attendance already recorded for this student in this session. Status: ");
 
         log.info("Attendance recorded for student {} in session {} with status: {}",
                 student.getCne(), session.getId(), status);
@@ -282,8 +279,7 @@ public class AttendanceServiceImpl implements AttendanceService {
      * Validates that the student is enrolled in at least one of the session's groups
      */
     private void validateStudentEnrollment(Student student, Session session) {
-        boolean isEnrolled = session.getGroups().stream()
-                .anyMatch(group -> group.getStudents().contains(student));
+        boolean isEnrolled = sessionEnrollmentCache.isEnrolled(session, student.getId());
 
         if (!isEnrolled) {
             throw new BadRequestException(
@@ -306,9 +302,65 @@ public class AttendanceServiceImpl implements AttendanceService {
         }
     }
 
+    /**
+     * Stores a new attendance record in a single statement. When write-behind ingestion is enabled the record
+     * is queued instead; otherwise the unique (student, session) constraint does the duplicate check through
+     * INSERT ... ON CONFLICT DO NOTHING.
+     *
+     * @throws BadRequestException if the student already has attendance for the session
+     */
+    private AttendanceRecord insertAttendance(AttendanceRecord attendanceRecord, String alreadyRecordedMessage) {
+        UUID studentId = attendanceRecord.getStudent().getId();
+        UUID sessionId = attendanceRecord.getSession().getId();
+
+        AttendanceStatus pendingStatus = attendanceIngestionQueue.getPendingStatus(studentId, sessionId);
+        if (pendingStatus != null) {
+            throw new BadRequestException(alreadyRecordedMessage + pendingStatus);
+        }
+
+        stampNewRecord(attendanceRecord);
+
+        if (attendanceIngestionQueue.isAccepting()) {
+            // Queued scans are acknowledged before they are written, so an existing record must be ruled out now
+            Optional<AttendanceStatus> existingStatus = attendanceRecordRepository
+                    .findStatusByStudentIdAndSessionId(studentId, sessionId);
+            if (existingStatus.isPresent()) {
+                throw new BadRequestException(alreadyRecordedMessage + existingStatus.get());
+            }
+
+            if (attendanceIngestionQueue.submit(attendanceRecord)) {
+                return attendanceRecord;
+            }
+        }
+
+        if (!attendanceRecordRepository.insertIfAbsent(attendanceRecord)) {
+            String existingStatus = attendanceRecordRepository.findStatusByStudentIdAndSessionId(studentId, sessionId)
+                    .map(AttendanceStatus::name)
+                    .orElse("UNKNOWN");
+            throw new BadRequestException(alreadyRecordedMessage + existingStatus);
+        }
+        attendanceCounterService.recordsInserted(List.of(attendanceRecord.getId()));
+
+        return attendanceRecord;
+    }
+
+    /**
+     * Assigns the ID and audit fields JPA would otherwise set on save
+     */
+    private void stampNewRecord(AttendanceRecord attendanceRecord) {
+        LocalDateTime now = LocalDateTime.now();
+        String auditor = auditorProvider.getCurrentAuditor().orElse("system");
+
+        attendanceRecord.setId(UUID.randomUUID());
+        attendanceRecord.setCreatedAt(now);
+        attendanceRecord.setUpdatedAt(now);
+        attendanceRecord.setCreatedBy(auditor);
+        attendanceRecord.setLastModifiedBy(auditor);
+    }
+
     @Override
     @Transactional
-    public MessageResponse recordBulkAttendance(BulkAttendanceDto bulkDto) {
+    public BulkAttendanceResponseDto recordBulkAttendance(BulkAttendanceDto bulkDto) {
         log.debug("Recording bulk attendance for session ID: {}", bulkDto.getSessionId());
 
         Session session = sessionRepository.findById(bulkDto.getSessionId())
@@ -319,40 +371,80 @@ public class AttendanceServiceImpl implements AttendanceService {
             throw new BadRequestException("Cannot record attendance for a completed session");
         }
 
-        int recordedCount = 0;
-        int skippedCount = 0;
+        // 1. Resolve all students in one query
+        List<UUID> studentIds = distinct(bulkDto.getStudentIds());
+        Map<UUID, StudentRepository.StudentName> students = studentRepository.findNamesByIdIn(studentIds).stream()
+                .collect(Collectors.toMap(StudentRepository.StudentName::getId, Function.identity()));
 
-        for (UUID studentId : bulkDto.getStudentIds()) {
-            // Check if attendance already exists
-            if (attendanceRecordRepository.existsByStudentIdAndSessionId(studentId, bulkDto.getSessionId())) {
-                skippedCount++;
-                log.warn("Attendance already exists for student ID: {} and session ID: {}",
-                        studentId, bulkDto.getSessionId());
+        // 2. Build the records of the students found, skipping scans still waiting in the write-behind queue
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        List<AttendanceRecord> newRecords = new ArrayList<>();
+        for (UUID studentId : studentIds) {
+            if (!students.containsKey(studentId)
+                    || attendanceIngestionQueue.getPendingStatus(studentId, session.getId()) != null) {
                 continue;
             }
 
-            Student student = studentRepository.findById(studentId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Student not found with ID: " + studentId));
-
             AttendanceRecord attendance = AttendanceRecord.builder()
-                    .student(student)
+                    .student(studentRepository.getReferenceById(studentId))
                     .session(session)
-                    .date(LocalDate.now())
+                    .date(today)
                     .status(bulkDto.getStatus())
-                    .scannedAt(LocalDateTime.now())
+                    .scannedAt(now)
                     .isJustified(false)
                     .markedBy("PROFESSOR")
                     .build();
+            stampNewRecord(attendance);
+            newRecords.add(attendance);
+        }
+
+        // 3. Insert them in one statement; existing records are skipped by the unique constraint
+        Set<UUID> insertedIds = attendanceRecordRepository.insertAllIfAbsent(newRecords);
+        attendanceCounterService.recordsInserted(insertedIds);
 
-            attendanceRecordRepository.save(attendance);
-            recordedCount++;
+        Set<UUID> recordedStudentIds = newRecords.stream()
+                .filter(attendance -> insertedIds.contains(attendance.getId()))
+                .map(attendance -> attendance.getStudent().getId())
+                .collect(Collectors.toSet());
+
+        // 4. Per-student report
+        List<BulkAttendanceResponseDto.StudentResult> results = new ArrayList<>(studentIds.size());
+        int recordedCount = 0;
+        int skippedCount = 0;
+        int failureCount = 0;
+        for (UUID studentId : studentIds) {
+            StudentRepository.StudentName student = students.get(studentId);
+            BulkAttendanceResponseDto.Outcome outcome;
+            if (student == null) {
+                outcome = BulkAttendanceResponseDto.Outcome.STUDENT_NOT_FOUND;
+                failureCount++;
+            } else if (recordedStudentIds.contains(studentId)) {
+                outcome = BulkAttendanceResponseDto.Outcome.RECORDED;
+                recordedCount++;
+            } else {
+                outcome = BulkAttendanceResponseDto.Outcome.ALREADY_RECORDED;
+                skippedCount++;
+            }
+
+            results.add(BulkAttendanceResponseDto.StudentResult.builder()
+                    .studentId(studentId)
+                    .studentName(student != null ? student.getFirstName() + " " + student.getLastName() : null)
+                    .outcome(outcome)
+                    .build());
         }
 
-        String message = String.format("Bulk attendance recorded: %d successful, %d skipped",
-                recordedCount, skippedCount);
-        log.info(message);
+        log.info("Bulk attendance recorded for session {}: {} successful, {} skipped, {} not found",
+                session.getId(), recordedCount, skippedCount, failureCount);
 
-        return new MessageResponse(message, true);
+        return BulkAttendanceResponseDto.builder()
+                .sessionId(session.getId())
+                .totalRequested(studentIds.size())
+                .recordedCount(recordedCount)
+                .skippedCount(skippedCount)
+                .failureCount(failureCount)
+                .results(results)
+                .build();
     }
 
     @Override
@@ -363,9 +455,18 @@ public class AttendanceServiceImpl implements AttendanceService {
         AttendanceRecord attendance = attendanceRecordRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Attendance record not found with ID: " + id));
 
+        boolean statusChanged = requestDto.getStatus() != null && requestDto.getStatus() != attendance.getStatus();
+        if (statusChanged) {
+            attendanceCounterService.recordsRemoving(List.of(id));
+        }
+
         attendanceRecordMapper.updateEntityFromUpdateDto(requestDto, attendance);
         AttendanceRecord updatedAttendance = attendanceRecordRepository.save(attendance);
 
+        if (statusChanged) {
+            attendanceCounterService.recordsInserted(List.of(id));
+        }
+
         log.info("Attendance record updated successfully with ID: {}", updatedAttendance.getId());
         return attendanceRecordMapper.toResponseDto(updatedAttendance);
     }
@@ -382,12 +483,15 @@ public class AttendanceServiceImpl implements AttendanceService {
             throw new BadRequestException("Can only justify absences. Current status: " + attendance.getStatus());
         }
 
+        attendanceCounterService.recordsRemoving(List.of(id));
+
         attendance.setIsJustified(true);
         attendance.setJustificationNote(justifyDto.getJustificationNote());
         attendance.setJustificationDocumentUrl(justifyDto.getJustificationDocumentUrl());
         attendance.setStatus(AttendanceStatus.EXCUSED);
 
         AttendanceRecord updatedAttendance = attendanceRecordRepository.save(attendance);
+        attendanceCounterService.recordsInserted(List.of(id));
 
         log.info("Absence justified successfully for attendance record ID: {}", id);
         return attendanceRecordMapper.toResponseDto(updatedAttendance);
@@ -415,13 +519,24 @@ public class AttendanceServiceImpl implements AttendanceService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<AttendanceRecordSimpleResponseDto> getAllAttendanceRecordsSimple() {
-        log.debug("Fetching all attendance records (simple)");
+    public void streamAllAttendanceRecordsSimple(Consumer<AttendanceRecordSimpleResponseDto> consumer) {
+        log.debug("Streaming all attendance records (simple)");
 
-        List<AttendanceRecord> records = attendanceRecordRepository.findAll();
-        return records.stream()
-                .map(attendanceRecordMapper::toSimpleResponseDto)
-                .collect(Collectors.toList());
+        try (Stream<AttendanceRecordRepository.AttendanceSimpleListing> records = attendanceRecordRepository.streamAllSimpleListings()) {
+            records.map(attendanceRecordMapper::toSimpleResponseDto).forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AttendanceRecordResponseDto> scrollAttendanceRecords(String cursor, int size,
+                                                                                    boolean includeTotal) {
+        log.debug("Scrolling attendance records from cursor: {}", cursor);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<AttendanceRecordRepository.AttendanceListing> window = attendanceRecordRepository.findListingsBefore(
+                after.timestamp(), after.id(), KeysetCursor.window(size));
+        return toCursorPage(window, size, includeTotal ? attendanceRecordRepository.count() : null);
     }
 
     @Override
@@ -451,6 +566,19 @@ public class AttendanceServiceImpl implements AttendanceService {
         return records.map(attendanceRecordMapper::toResponseDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AttendanceRecordResponseDto> scrollAttendanceByModule(UUID moduleId, String cursor,
+                                                                                     int size, boolean includeTotal) {
+        log.debug("Scrolling attendance records for module ID: {} from cursor: {}", moduleId, cursor);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<AttendanceRecordRepository.AttendanceListing> window =
+                attendanceRecordRepository.findListingsByModuleIdBefore(
+                        moduleId, after.timestamp(), after.id(), KeysetCursor.window(size));
+        return toCursorPage(window, size, includeTotal ? attendanceRecordRepository.countByModuleId(moduleId) : null);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<AttendanceRecordResponseDto> getAttendanceByModuleAndStudent(UUID moduleId, UUID studentId) {
@@ -512,6 +640,19 @@ public class AttendanceServiceImpl implements AttendanceService {
         return records.map(attendanceRecordMapper::toResponseDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AttendanceRecordResponseDto> scrollUnjustifiedAbsences(String cursor, int size,
+                                                                                      boolean includeTotal) {
+        log.debug("Scrolling unjustified absences from cursor: {}", cursor);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<AttendanceRecordRepository.AttendanceListing> window =
+                attendanceRecordRepository.findUnjustifiedAbsenceListingsBefore(
+                        after.timestamp(), after.id(), KeysetCursor.window(size));
+        return toCursorPage(window, size, includeTotal ? attendanceRecordRepository.countUnjustifiedAbsences() : null);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<AttendanceRecordSimpleResponseDto> getUnjustifiedAbsencesByStudent(UUID studentId) {
@@ -537,33 +678,30 @@ public class AttendanceServiceImpl implements AttendanceService {
     public AttendanceStatisticsDto getStudentAttendanceStatistics(UUID studentId) {
         log.debug("Calculating attendance statistics for student ID: {}", studentId);
 
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Student not found with ID: " + studentId));
-
-        Long totalSessions = attendanceRecordRepository.countByStudentId(studentId);
-        Long presentCount = attendanceRecordRepository.countByStudentIdAndStatus(studentId, AttendanceStatus.PRESENT);
-        Long absentCount = attendanceRecordRepository.countByStudentIdAndStatus(studentId, AttendanceStatus.ABSENT);
-        Long lateCount = attendanceRecordRepository.countByStudentIdAndStatus(studentId, AttendanceStatus.LATE);
-        Long excusedCount = attendanceRecordRepository.countByStudentIdAndStatus(studentId, AttendanceStatus.EXCUSED);
-
-        Double attendanceRate = totalSessions > 0
-                ? ((presentCount + lateCount + excusedCount) * 100.0) / totalSessions
-                : 0.0;
-        Double absenteeismRate = totalSessions > 0
-                ? (absentCount * 100.0) / totalSessions
-                : 0.0;
+        return getStudentsAttendanceStatistics(List.of(studentId)).get(0);
+    }
 
-        return AttendanceStatisticsDto.builder()
-                .entityId(studentId)
-                .entityName(student.getFirstName() + " " + student.getLastName())
-                .totalSessions(totalSessions.intValue())
-                .presentCount(presentCount.intValue())
-                .absentCount(absentCount.intValue())
-                .lateCount(lateCount.intValue())
-                .excusedCount(excusedCount.intValue())
-                .attendanceRate(attendanceRate)
-                .absenteeismRate(absenteeismRate)
-                .build();
+    @Override
+    @Transactional(readOnly = true)
+    public List<AttendanceStatisticsDto> getStudentsAttendanceStatistics(Collection<UUID> studentIds) {
+        log.debug("Calculating attendance statistics for {} students", studentIds.size());
+
+        Map<UUID, StudentRepository.StudentName> students = studentRepository.findNamesByIdIn(studentIds).stream()
+                .collect(Collectors.toMap(StudentRepository.StudentName::getId, Function.identity()));
+        requireAllFound(studentIds, students.keySet(), "Student");
+
+        Map<UUID, Map<AttendanceStatus, Long>> counts =
+                attendanceCounterService.getCounts(AttendanceCounterScope.STUDENT, studentIds);
+
+        return distinct(studentIds).stream()
+                .map(studentId -> {
+                    StudentRepository.StudentName student = students.get(studentId);
+                    Map<AttendanceStatus, Long> statusCounts = counts.get(studentId);
+                    long totalRecords = sum(statusCounts.values());
+                    return toStatisticsDto(studentId, student.getFirstName() + " " + student.getLastName(),
+                            (int) totalRecords, totalRecords, statusCounts);
+                })
+                .toList();
     }
 
     @Override
@@ -571,58 +709,95 @@ public class AttendanceServiceImpl implements AttendanceService {
     public AttendanceStatisticsDto getModuleAttendanceStatistics(UUID moduleId) {
         log.debug("Calculating attendance statistics for module ID: {}", moduleId);
 
-        // Validate module exists
-        Module module = moduleRepository.findById(moduleId)
-                .orElseThrow(() -> new ResourceNotFoundException("Module not found with ID: " + moduleId));
-
-        // Count total attendance records for this module
-        Long totalRecords = attendanceRecordRepository.countByModuleId(moduleId);
+        return getModulesAttendanceStatistics(List.of(moduleId)).get(0);
+    }
 
-        // Count by status
-        Long presentCount = attendanceRecordRepository.countByModuleIdAndStatus(moduleId, AttendanceStatus.PRESENT);
-        Long absentCount = attendanceRecordRepository.countByModuleIdAndStatus(moduleId, AttendanceStatus.ABSENT);
-        Long lateCount = attendanceRecordRepository.countByModuleIdAndStatus(moduleId, AttendanceStatus.LATE);
-        Long excusedCount = attendanceRecordRepository.countByModuleIdAndStatus(moduleId, AttendanceStatus.EXCUSED);
+    @Override
+    @Transactional(readOnly = true)
+    public List<AttendanceStatisticsDto> getModulesAttendanceStatistics(Collection<UUID> moduleIds) {
+        log.debug("Calculating attendance statistics for {} modules", moduleIds.size());
+
+        // Validate modules exist
+        Map<UUID, Module> modules = moduleRepository.findAllById(moduleIds).stream()
+                .collect(Collectors.toMap(Module::getId, Function.identity()));
+        requireAllFound(moduleIds, modules.keySet(), "Module");
+
+        // Read status counters and count sessions per module, one query each
+        Map<UUID, Map<AttendanceStatus, Long>> counts =
+                attendanceCounterService.getCounts(AttendanceCounterScope.MODULE, moduleIds);
+        Map<UUID, Long> sessionCounts = sessionRepository.countByModuleIds(moduleIds).stream()
+                .collect(Collectors.toMap(SessionRepository.ModuleSessionCount::getModuleId,
+                        SessionRepository.ModuleSessionCount::getTotal));
+
+        return distinct(moduleIds).stream()
+                .map(moduleId -> {
+                    Map<AttendanceStatus, Long> statusCounts = counts.get(moduleId);
+                    int totalSessions = sessionCounts.getOrDefault(moduleId, 0L).intValue();
+                    return toStatisticsDto(moduleId, modules.get(moduleId).getTitle(),
+                            totalSessions, sum(statusCounts.values()), statusCounts);
+                })
+                .toList();
+    }
 
-        // Calculate rates
-        Double attendanceRate = totalRecords > 0
-                ? ((presentCount + lateCount + excusedCount) * 100.0) / totalRecords
-                : 0.0;
-        Double absenteeismRate = totalRecords > 0
-                ? (absentCount * 100.0) / totalRecords
-                : 0.0;
+    @Override
+    @Transactional(readOnly = true)
+    public AttendanceStatisticsDto getSessionAttendanceStatistics(UUID sessionId) {
+        log.debug("Calculating attendance statistics for session ID: {}", sessionId);
 
-        // Count total sessions for this module
-        int totalSessions = module.getSessions() != null ? module.getSessions().size() : 0;
+        return getSessionsAttendanceStatistics(List.of(sessionId)).get(0);
+    }
 
-        return AttendanceStatisticsDto.builder()
-                .entityId(moduleId)
-                .entityName(module.getTitle())
-                .totalSessions(totalSessions)
-                .presentCount(presentCount.intValue())
-                .absentCount(absentCount.intValue())
-                .lateCount(lateCount.intValue())
-                .excusedCount(excusedCount.intValue())
-                .attendanceRate(attendanceRate)
-                .absenteeismRate(absenteeismRate)
-                .build();
+    @Override
+    @Transactional(readOnly = true)
+    public List<AttendanceStatisticsDto> getSessionsAttendanceStatistics(Collection<UUID> sessionIds) {
+        log.debug("Calculating attendance statistics for {} sessions", sessionIds.size());
+
+        Map<UUID, Session> sessions = sessionRepository.findAllWithModuleByIdIn(sessionIds).stream()
+                .collect(Collectors.toMap(Session::getId, Function.identity()));
+        requireAllFound(sessionIds, sessions.keySet(), "Session");
+
+        Map<UUID, Map<AttendanceStatus, Long>> counts =
+                attendanceCounterService.getCounts(AttendanceCounterScope.SESSION, sessionIds);
+
+        return distinct(sessionIds).stream()
+                .map(sessionId -> {
+                    Session session = sessions.get(sessionId);
+                    Map<AttendanceStatus, Long> statusCounts = counts.get(sessionId);
+                    return toStatisticsDto(sessionId, session.getModule().getTitle() + " - " + session.getType(),
+                            1, sum(statusCounts.values()), statusCounts);
+                })
+                .toList();
     }
 
     @Override
     @Transactional(readOnly = true)
-    public AttendanceStatisticsDto getSessionAttendanceStatistics(UUID sessionId) {
-        log.debug("Calculating attendance statistics for session ID: {}", sessionId);
+    public AttendanceStatisticsDto getGroupAttendanceStatistics(UUID groupId) {
+        log.debug("Calculating attendance statistics for group ID: {}", groupId);
 
-        Session session = sessionRepository.findById(sessionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Session not found with ID: " + sessionId));
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Group not found with ID: " + groupId));
+
+        Map<AttendanceStatus, Long> statusCounts =
+                attendanceCounterService.getCounts(AttendanceCounterScope.GROUP, List.of(groupId)).get(groupId);
+        int totalSessions = sessionRepository.countByGroupId(groupId).intValue();
+
+        return toStatisticsDto(groupId, group.getName(), totalSessions, sum(statusCounts.values()), statusCounts);
+    }
 
-        Long presentCount = attendanceRecordRepository.countBySessionIdAndStatus(sessionId, AttendanceStatus.PRESENT);
-        Long absentCount = attendanceRecordRepository.countBySessionIdAndStatus(sessionId, AttendanceStatus.ABSENT);
-        Long lateCount = attendanceRecordRepository.countBySessionIdAndStatus(sessionId, AttendanceStatus.LATE);
-        Long excusedCount = attendanceRecordRepository.countBySessionIdAndStatus(sessionId, AttendanceStatus.EXCUSED);
+    @Override
+    public MessageResponse rebuildAttendanceCounters() {
+        attendanceCounterService.rebuild();
+        return new MessageResponse("Attendance counters rebuilt successfully", true);
+    }
 
-        Long totalRecords = presentCount + absentCount + lateCount + excusedCount;
+    private AttendanceStatisticsDto toStatisticsDto(UUID entityId, String entityName, int totalSessions,
+                                                    long totalRecords, Map<AttendanceStatus, Long> statusCounts) {
+        long presentCount = statusCounts.get(AttendanceStatus.PRESENT);
+        long absentCount = statusCounts.get(AttendanceStatus.ABSENT);
+        long lateCount = statusCounts.get(AttendanceStatus.LATE);
+        long excusedCount = statusCounts.get(AttendanceStatus.EXCUSED);
 
+        // Calculate rates
         Double attendanceRate = totalRecords > 0
                 ? ((presentCount + lateCount + excusedCount) * 100.0) / totalRecords
                 : 0.0;
@@ -631,18 +806,41 @@ public class AttendanceServiceImpl implements AttendanceService {
                 : 0.0;
 
         return AttendanceStatisticsDto.builder()
-                .entityId(sessionId)
-                .entityName(session.getModule().getTitle() + " - " + session.getType())
-                .totalSessions(1)
-                .presentCount(presentCount.intValue())
-                .absentCount(absentCount.intValue())
-                .lateCount(lateCount.intValue())
-                .excusedCount(excusedCount.intValue())
+                .entityId(entityId)
+                .entityName(entityName)
+                .totalSessions(totalSessions)
+                .presentCount((int) presentCount)
+                .absentCount((int) absentCount)
+                .lateCount((int) lateCount)
+                .excusedCount((int) excusedCount)
                 .attendanceRate(attendanceRate)
                 .absenteeismRate(absenteeismRate)
                 .build();
     }
 
+    private void requireAllFound(Collection<UUID> requestedIds, Set<UUID> foundIds, String entityName) {
+        for (UUID id : requestedIds) {
+            if (!foundIds.contains(id)) {
+                throw new ResourceNotFoundException(entityName + " not found with ID: " + id);
+            }
+        }
+    }
+
+    private List<UUID> distinct(Collection<UUID> ids) {
+        return List.copyOf(new LinkedHashSet<>(ids));
+    }
+
+    private long sum(Collection<Long> values) {
+        return values.stream().mapToLong(Long::longValue).sum();
+    }
+
+    private CursorPageResponse<AttendanceRecordResponseDto> toCursorPage(
+            List<AttendanceRecordRepository.AttendanceListing> window, int size, Long totalElements) {
+        return CursorPageResponse.of(window, size,
+                listing -> new KeysetCursor(listing.getScannedAt(), listing.getId()),
+                attendanceRecordMapper::toResponseDto, totalElements);
+    }
+
     @Override
     @Transactional
     public void deleteAttendanceRecord(UUID id) {
@@ -651,6 +849,7 @@ public class AttendanceServiceImpl implements AttendanceService {
         AttendanceRecord attendance = attendanceRecordRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Attendance record not found with ID: " + id));
 
+        attendanceCounterService.recordsRemoving(List.of(id));
         attendanceRecordRepository.delete(attendance);
         log.info("Attendance record deleted successfully with ID: {}", id);
     }
@@ -658,7 +857,8 @@ public class AttendanceServiceImpl implements AttendanceService {
     @Override
     @Transactional(readOnly = true)
     public boolean hasAttendanceForSession(UUID studentId, UUID sessionId) {
-        return attendanceRecordRepository.existsByStudentIdAndSessionId(studentId, sessionId);
+        return attendanceIngestionQueue.getPendingStatus(studentId, sessionId) != null
+                || attendanceRecordRepository.existsByStudentIdAndSessionId(studentId, sessionId);
     }
 
     @Override
@@ -717,26 +917,15 @@ public class AttendanceServiceImpl implements AttendanceService {
         // 9. Check if student is enrolled in session's groups
         validateStudentEnrollment(student, session);
 
-        // 10. Check for duplicate attendance
-        Optional<AttendanceRecord> existingRecord = attendanceRecordRepository
-                .findByStudentIdAndSessionId(student.getId(), session.getId());
-
-        if (existingRecord.isPresent()) {
-            throw new BadRequestException(
-                    "You have already scanned for this session. Status: " +
-                            existingRecord.get().getStatus()
-            );
-        }
-
-        // 11. Optional: Validate location if provided
+        // 10. Optional: Validate location if provided
         if (requestDto.getLatitude() != null && requestDto.getLongitude() != null) {
             validateStudentLocation(requestDto.getLatitude(), requestDto.getLongitude(), session);
         }
 
-        // 12. Determine attendance status based on timing
+        // 11. Determine attendance status based on timing
         AttendanceStatus status = determineAttendanceStatus(session, LocalDateTime.now());
 
-        // 13. Create attendance record
+        // 12. Create attendance record (duplicates are rejected by the insert itself)
         AttendanceRecord attendanceRecord = AttendanceRecord.builder()
                 .student(student)
                 .session(session)
@@ -749,7 +938,8 @@ public class AttendanceServiceImpl implements AttendanceService {
                 .markedBy("STUDENT")
                 .build();
 
-        AttendanceRecord savedRecord = attendanceRecordRepository.save(attendanceRecord);
+        AttendanceRecord savedRecord = insertAttendance(attendanceRecord,
+                "You have already scanned for this session. Status: ");
 
         log.info("Attendance recorded via session QR scan for student {} in session {} with status: {}",
                 student.getCne(), session.getId(), status);
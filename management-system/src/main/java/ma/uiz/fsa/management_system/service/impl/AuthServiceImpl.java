@@ -12,6 +12,9 @@ import ma.uiz.fsa.management_system.exception.ResourceNotFoundException;
 import ma.uiz.fsa.management_system.model.entity.*;
 import ma.uiz.fsa.management_system.model.enums.RoleType;
 import ma.uiz.fsa.management_system.repository.*;
+import ma.uiz.fsa.management_system.security.AuthenticatedUser;
+import ma.uiz.fsa.management_system.security.UserDetailsCache;
+import ma.uiz.fsa.management_system.security.jwt.JwtRevocationList;
 import ma.uiz.fsa.management_system.security.jwt.JwtTokenProvider;
 import ma.uiz.fsa.management_system.service.AuthService;
 import ma.uiz.fsa.management_system.service.PasswordResetService;
@@ -19,7 +22,7 @@ import ma.uiz.fsa.management_system.service.RefreshTokenService;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -45,6 +48,8 @@ public class AuthServiceImpl implements AuthService {
     private final JwtTokenProvider jwtTokenProvider;
     private final RefreshTokenService refreshTokenService;
     private final PasswordResetService passwordResetService;
+    private final JwtRevocationList jwtRevocationList;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
     @Transactional
@@ -57,28 +62,24 @@ public class AuthServiceImpl implements AuthService {
                 )
         );
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-        // Get user details
-        User user = userRepository.findByEmail(loginRequest.getEmail())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        // The authenticated principal already carries the user ID and username: no second user lookup
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
 
         // Generate tokens
         String accessToken = jwtTokenProvider.generateAccessToken(authentication);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+        RefreshToken refreshToken = refreshTokenService.createRefreshToken(
+                userRepository.getReferenceById(principal.getId()));
 
         // Build response
-        Set<String> roles = user.getRoles().stream()
-                .map(role -> role.getName().name())
-                .collect(Collectors.toSet());
+        Set<String> roles = AuthorityUtils.authorityListToSet(principal.getAuthorities());
 
         return JwtResponse.builder()
                 .accessToken(accessToken)
                 .refreshToken(refreshToken.getToken())
                 .tokenType("Bearer")
-                .userId(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
+                .userId(principal.getId())
+                .username(principal.getAccountUsername())
+                .email(principal.getUsername())
                 .roles(roles)
                 .expiresIn(jwtTokenProvider.getExpirationDateFromToken(accessToken).getTime())
                 .build();
@@ -286,7 +287,7 @@ public class AuthServiceImpl implements AuthService {
                 .map(refreshTokenService::verifyExpiration)
                 .map(RefreshToken::getUser)
                 .map(user -> {
-                    String newAccessToken = jwtTokenProvider.generateAccessTokenFromUsername(user.getUsername());
+                    String newAccessToken = jwtTokenProvider.generateAccessToken(user);
 
                     return RefreshTokenResponse.builder()
                             .accessToken(newAccessToken)
@@ -305,6 +306,8 @@ public class AuthServiceImpl implements AuthService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         refreshTokenService.revokeAllUserTokens(user);
+        jwtRevocationList.revokeAll(user.getEmail());
+        userDetailsCache.evict(user.getEmail());
 
         return new MessageResponse("Logged out successfully", true);
     }
@@ -341,6 +344,8 @@ public class AuthServiceImpl implements AuthService {
 
         // Revoke all refresh tokens for security
         refreshTokenService.revokeAllUserTokens(user);
+        jwtRevocationList.revokeAll(user.getEmail());
+        userDetailsCache.evict(user.getEmail());
 
         return new MessageResponse("Password has been reset successfully", true);
     }
@@ -367,6 +372,8 @@ public class AuthServiceImpl implements AuthService {
 
         // Revoke all refresh tokens for security
         refreshTokenService.revokeAllUserTokens(user);
+        jwtRevocationList.revokeAll(user.getEmail());
+        userDetailsCache.evict(user.getEmail());
 
         return new MessageResponse("Password changed successfully", true);
     }
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import ma.uiz.fsa.management_system.dto.request.BulkEvaluationDto;
 import ma.uiz.fsa.management_system.dto.request.EvaluationRequestDto;
 import ma.uiz.fsa.management_system.dto.request.EvaluationUpdateDto;
+import ma.uiz.fsa.management_system.dto.request.KeysetCursor;
 import ma.uiz.fsa.management_system.dto.request.StudentGradeDto;
 import ma.uiz.fsa.management_system.dto.response.*;
 import ma.uiz.fsa.management_system.exception.BadRequestException;
@@ -15,27 +16,36 @@ import ma.uiz.fsa.management_system.model.entity.Module;
 import ma.uiz.fsa.management_system.model.entity.Student;
 import ma.uiz.fsa.management_system.model.enums.EvaluationType;
 import ma.uiz.fsa.management_system.repository.EvaluationRepository;
+import ma.uiz.fsa.management_system.repository.EvaluationRepositoryCustom;
 import ma.uiz.fsa.management_system.repository.ModuleRepository;
 import ma.uiz.fsa.management_system.repository.StudentRepository;
 import ma.uiz.fsa.management_system.service.EvaluationService;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EvaluationServiceImpl implements EvaluationService {
 
+    // Keeps IN lists well below the PostgreSQL bind parameter limit
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
     private final EvaluationRepository evaluationRepository;
     private final StudentRepository studentRepository;
     private final ModuleRepository moduleRepository;
     private final EvaluationMapper evaluationMapper;
+    private final AuditorAware<String> auditorProvider;
 
     @Override
     @Transactional
@@ -50,6 +60,13 @@ public class EvaluationServiceImpl implements EvaluationService {
             );
         }
 
+        // The unique key on (student, module, type, date) would otherwise only fail at commit
+        if (evaluationRepository.existsByStudentIdAndModuleIdAndTypeAndDate(requestDto.getStudentId(),
+                requestDto.getModuleId(), requestDto.getType(), requestDto.getDate())) {
+            throw new BadRequestException("An evaluation of type " + requestDto.getType()
+                    + " already exists for this student and module on " + requestDto.getDate());
+        }
+
         Evaluation evaluation = evaluationMapper.toEntity(requestDto);
         Evaluation savedEvaluation = evaluationRepository.save(evaluation);
 
@@ -59,61 +76,135 @@ public class EvaluationServiceImpl implements EvaluationService {
 
     @Override
     @Transactional
-    public MessageResponse createBulkEvaluations(BulkEvaluationDto bulkDto) {
+    public BulkEvaluationResponseDto createBulkEvaluations(BulkEvaluationDto bulkDto) {
         log.debug("Creating bulk evaluations for module ID: {}", bulkDto.getModuleId());
 
-        Module module = moduleRepository.findById(bulkDto.getModuleId())
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Module not found with ID: " + bulkDto.getModuleId()));
-
-        int successCount = 0;
-        int failureCount = 0;
-        List<String> errors = new ArrayList<>();
-
-        for (StudentGradeDto studentGrade : bulkDto.getStudentGrades()) {
-            try {
-                // Validate grade
-                if (studentGrade.getGrade() > bulkDto.getMaxGrade()) {
-                    errors.add("Student " + studentGrade.getStudentId() + ": Grade exceeds max grade");
-                    failureCount++;
-                    continue;
-                }
-
-                Student student = studentRepository.findById(studentGrade.getStudentId())
-                        .orElseThrow(() -> new ResourceNotFoundException(
-                                "Student not found with ID: " + studentGrade.getStudentId()));
-
-                Evaluation evaluation = Evaluation.builder()
-                        .type(bulkDto.getType())
-                        .student(student)
-                        .module(module)
-                        .date(bulkDto.getDate())
-                        .grade(studentGrade.getGrade())
-                        .coefficient(bulkDto.getCoefficient())
-                        .maxGrade(bulkDto.getMaxGrade())
-                        .comments(studentGrade.getComments())
-                        .isValidated(false)
-                        .build();
-
-                evaluationRepository.save(evaluation);
-                successCount++;
-
-            } catch (Exception e) {
-                errors.add("Student " + studentGrade.getStudentId() + ": " + e.getMessage());
-                failureCount++;
-                log.error("Error creating evaluation for student {}: {}",
-                        studentGrade.getStudentId(), e.getMessage());
+        long startNanos = System.nanoTime();
+        UUID moduleId = bulkDto.getModuleId();
+        if (!moduleRepository.existsById(moduleId)) {
+            throw new ResourceNotFoundException("Module not found with ID: " + moduleId);
+        }
+
+        List<StudentGradeDto> grades = bulkDto.getStudentGrades();
+        BulkEvaluationResponseDto.BulkEvaluationResult[] results =
+                new BulkEvaluationResponseDto.BulkEvaluationResult[grades.size()];
+
+        // 1. Every student of the submission resolved at once, with their enrollment in the module
+        Map<UUID, Long> moduleGroupCounts = findModuleGroupCounts(moduleId, grades);
+
+        // 2. Validate each grade against the max grade, the students found and the rows before it
+        Module module = moduleRepository.getReferenceById(moduleId);
+        LocalDateTime now = LocalDateTime.now();
+        String auditor = auditorProvider.getCurrentAuditor().orElse("system");
+        Set<UUID> submittedStudentIds = new HashSet<>();
+        Map<UUID, Integer> indexByStudentId = new HashMap<>();
+        List<Evaluation> evaluations = new ArrayList<>(grades.size());
+
+        for (int i = 0; i < grades.size(); i++) {
+            StudentGradeDto studentGrade = grades.get(i);
+            UUID studentId = studentGrade.getStudentId();
+
+            String error = null;
+            if (studentGrade.getGrade() > bulkDto.getMaxGrade()) {
+                error = "Grade (" + studentGrade.getGrade() + ") cannot exceed max grade ("
+                        + bulkDto.getMaxGrade() + ")";
+            } else if (!moduleGroupCounts.containsKey(studentId)) {
+                error = "Student not found with ID: " + studentId;
+            } else if (moduleGroupCounts.get(studentId) == 0) {
+                error = "Student is not enrolled in any group of this module";
+            } else if (!submittedStudentIds.add(studentId)) {
+                error = "Duplicate student in this submission";
+            }
+
+            if (error != null) {
+                results[i] = failedResult(i, studentId, error);
+                continue;
             }
+
+            Evaluation evaluation = Evaluation.builder()
+                    .type(bulkDto.getType())
+                    .student(studentRepository.getReferenceById(studentId))
+                    .module(module)
+                    .date(bulkDto.getDate())
+                    .grade(studentGrade.getGrade())
+                    .coefficient(bulkDto.getCoefficient())
+                    .maxGrade(bulkDto.getMaxGrade())
+                    .comments(studentGrade.getComments())
+                    .isValidated(false)
+                    .build();
+            // Written with JDBC, so the ID and audit fields are set here rather than by Hibernate
+            evaluation.setId(UUID.randomUUID());
+            evaluation.setCreatedAt(now);
+            evaluation.setUpdatedAt(now);
+            evaluation.setCreatedBy(auditor);
+            evaluation.setLastModifiedBy(auditor);
+
+            evaluations.add(evaluation);
+            indexByStudentId.put(studentId, i);
         }
 
-        String message = String.format(
-                "Bulk evaluations created: %d successful, %d failed. %s",
-                successCount, failureCount,
-                errors.isEmpty() ? "" : "Errors: " + String.join("; ", errors)
-        );
+        // 3. One upsert statement for the whole submission; re-submitting the same grades is idempotent
+        int createdCount = 0;
+        int updatedCount = 0;
+        for (EvaluationRepositoryCustom.UpsertedEvaluation upserted : evaluationRepository.upsertAll(evaluations)) {
+            int index = indexByStudentId.remove(upserted.studentId());
+            results[index] = BulkEvaluationResponseDto.BulkEvaluationResult.builder()
+                    .index(index)
+                    .studentId(upserted.studentId())
+                    .status(upserted.inserted() ? "CREATED" : "UPDATED")
+                    .evaluationId(upserted.id())
+                    .build();
+            if (upserted.inserted()) {
+                createdCount++;
+            } else {
+                updatedCount++;
+            }
+        }
 
-        log.info(message);
-        return new MessageResponse(message, failureCount == 0);
+        // Rows the upsert skipped conflict with a validated evaluation
+        indexByStudentId.forEach((studentId, index) -> results[index] = failedResult(index, studentId,
+                "A validated " + bulkDto.getType() + " evaluation already exists for this date"));
+
+        int failureCount = grades.size() - createdCount - updatedCount;
+        double elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000.0;
+        log.info("Bulk evaluations for module {}: {} created, {} updated, {} failed in {} ms",
+                moduleId, createdCount, updatedCount, failureCount, String.format("%.1f", elapsedMillis));
+
+        return BulkEvaluationResponseDto.builder()
+                .moduleId(moduleId)
+                .totalRequested(grades.size())
+                .createdCount(createdCount)
+                .updatedCount(updatedCount)
+                .failureCount(failureCount)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private Map<UUID, Long> findModuleGroupCounts(UUID moduleId, List<StudentGradeDto> grades) {
+        List<UUID> studentIds = grades.stream()
+                .map(StudentGradeDto::getStudentId)
+                .distinct()
+                .toList();
+
+        Map<UUID, Long> moduleGroupCounts = new HashMap<>();
+        for (int from = 0; from < studentIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<UUID> chunk = studentIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, studentIds.size()));
+            for (StudentRepository.StudentModuleEnrollment enrollment :
+                    studentRepository.findModuleEnrollmentsByIdIn(moduleId, chunk)) {
+                moduleGroupCounts.put(enrollment.getId(), enrollment.getModuleGroupCount());
+            }
+        }
+        return moduleGroupCounts;
+    }
+
+    private static BulkEvaluationResponseDto.BulkEvaluationResult failedResult(int index, UUID studentId,
+                                                                               String errorMessage) {
+        return BulkEvaluationResponseDto.BulkEvaluationResult.builder()
+                .index(index)
+                .studentId(studentId)
+                .status("FAILED")
+                .errorMessage(errorMessage)
+                .build();
     }
 
     @Override
@@ -137,6 +228,15 @@ public class EvaluationServiceImpl implements EvaluationService {
             }
         }
 
+        EvaluationType type = requestDto.getType() != null ? requestDto.getType() : evaluation.getType();
+        LocalDate date = requestDto.getDate() != null ? requestDto.getDate() : evaluation.getDate();
+        if ((type != evaluation.getType() || !date.equals(evaluation.getDate()))
+                && evaluationRepository.existsByStudentIdAndModuleIdAndTypeAndDateAndIdNot(
+                        evaluation.getStudent().getId(), evaluation.getModule().getId(), type, date, id)) {
+            throw new BadRequestException("An evaluation of type " + type
+                    + " already exists for this student and module on " + date);
+        }
+
         evaluationMapper.updateEntityFromUpdateDto(requestDto, evaluation);
         Evaluation updatedEvaluation = evaluationRepository.save(evaluation);
 
@@ -185,13 +285,25 @@ public class EvaluationServiceImpl implements EvaluationService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<EvaluationSimpleResponseDto> getAllEvaluationsSimple() {
-        log.debug("Fetching all evaluations (simple)");
+    public CursorPageResponse<EvaluationResponseDto> scrollEvaluations(String cursor, int size, boolean includeTotal) {
+        log.debug("Scrolling evaluations from cursor: {}", cursor);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<EvaluationRepository.EvaluationListing> window = evaluationRepository.findListingsBefore(
+                after.timestamp(), after.id(), KeysetCursor.window(size));
+        return CursorPageResponse.of(window, size,
+                listing -> new KeysetCursor(listing.getCreatedAt(), listing.getId()),
+                evaluationMapper::toResponseDto, includeTotal ? evaluationRepository.count() : null);
+    }
 
-        List<Evaluation> evaluations = evaluationRepository.findAll();
-        return evaluations.stream()
-                .map(evaluationMapper::toSimpleResponseDto)
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllEvaluationsSimple(Consumer<EvaluationSimpleResponseDto> consumer) {
+        log.debug("Streaming all evaluations (simple)");
+
+        try (Stream<EvaluationRepository.EvaluationSimpleListing> evaluations = evaluationRepository.streamAllSimpleListings()) {
+            evaluations.map(evaluationMapper::toSimpleResponseDto).forEach(consumer);
+        }
     }
 
     @Override
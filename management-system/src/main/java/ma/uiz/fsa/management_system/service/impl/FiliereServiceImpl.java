@@ -17,9 +17,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -113,13 +113,12 @@ public class FiliereServiceImpl implements FiliereService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<FiliereSimpleResponseDto> getAllFilieresSimple() {
-        log.debug("Fetching all filieres (simple)");
+    public void streamAllFilieresSimple(Consumer<FiliereSimpleResponseDto> consumer) {
+        log.debug("Streaming all filieres (simple)");
 
-        List<Filiere> filieres = filiereRepository.findAll();
-        return filieres.stream()
-                .map(filiereMapper::toSimpleResponseDto)
-                .collect(Collectors.toList());
+        try (Stream<FiliereRepository.FiliereSimpleListing> filieres = filiereRepository.streamAllSimpleListings()) {
+            filieres.map(filiereMapper::toSimpleResponseDto).forEach(consumer);
+        }
     }
 
     @Override
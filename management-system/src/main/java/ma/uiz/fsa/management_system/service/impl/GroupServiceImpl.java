@@ -15,7 +15,9 @@ import ma.uiz.fsa.management_system.model.entity.Group;
 import ma.uiz.fsa.management_system.model.entity.Student;
 import ma.uiz.fsa.management_system.repository.GroupRepository;
 import ma.uiz.fsa.management_system.repository.StudentRepository;
+import ma.uiz.fsa.management_system.service.AttendanceCounterService;
 import ma.uiz.fsa.management_system.service.GroupService;
+import ma.uiz.fsa.management_system.service.SessionEnrollmentCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -25,7 +27,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -35,6 +39,8 @@ public class GroupServiceImpl implements GroupService {
     private final GroupRepository groupRepository;
     private final StudentRepository studentRepository;
     private final GroupMapper groupMapper;
+    private final SessionEnrollmentCache sessionEnrollmentCache;
+    private final AttendanceCounterService attendanceCounterService;
 
     @Override
     @Transactional
@@ -90,6 +96,11 @@ public class GroupServiceImpl implements GroupService {
 
         groupMapper.updateEntityFromUpdateDto(requestDto, group);
         Group updatedGroup = groupRepository.save(group);
+        if (requestDto.getStudentIds() != null) {
+            // The roster was replaced
+            sessionEnrollmentCache.evictGroup(id);
+            attendanceCounterService.groupsChanged(List.of(id));
+        }
 
         log.info("Group updated successfully with ID: {}", updatedGroup.getId());
         return groupMapper.toResponseDto(updatedGroup);
@@ -128,13 +139,12 @@ public class GroupServiceImpl implements GroupService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<GroupSimpleResponseDto> getAllGroupsSimple() {
-        log.debug("Fetching all groups (simple)");
+    public void streamAllGroupsSimple(Consumer<GroupSimpleResponseDto> consumer) {
+        log.debug("Streaming all groups (simple)");
 
-        List<Group> groups = groupRepository.findAll();
-        return groups.stream()
-                .map(groupMapper::toSimpleResponseDto)
-                .collect(Collectors.toList());
+        try (Stream<GroupRepository.GroupSimpleListing> groups = groupRepository.streamAllSimpleListings()) {
+            groups.map(groupMapper::toSimpleResponseDto).forEach(consumer);
+        }
     }
 
     @Override
@@ -264,6 +274,8 @@ public class GroupServiceImpl implements GroupService {
 
         group.setStudents(currentStudents);
         Group updatedGroup = groupRepository.save(group);
+        sessionEnrollmentCache.evictGroup(groupId);
+        attendanceCounterService.groupsChanged(List.of(groupId));
 
         log.info("Students enrolled successfully to group ID: {}", groupId);
         return groupMapper.toResponseDto(updatedGroup);
@@ -286,6 +298,8 @@ public class GroupServiceImpl implements GroupService {
 
         group.getStudents().remove(student);
         groupRepository.save(group);
+        sessionEnrollmentCache.evictGroup(groupId);
+        attendanceCounterService.groupsChanged(List.of(groupId));
 
         log.info("Student removed successfully from group ID: {}", groupId);
         return new MessageResponse("Student removed from group successfully", true);
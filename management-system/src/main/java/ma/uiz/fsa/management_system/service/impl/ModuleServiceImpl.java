@@ -24,7 +24,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -107,13 +109,12 @@ public class ModuleServiceImpl implements ModuleService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<ModuleSimpleResponseDto> getAllModulesSimple() {
-        log.debug("Fetching all modules (simple)");
+    public void streamAllModulesSimple(Consumer<ModuleSimpleResponseDto> consumer) {
+        log.debug("Streaming all modules (simple)");
 
-        List<Module> modules = moduleRepository.findAll();
-        return modules.stream()
-                .map(moduleMapper::toSimpleResponseDto)
-                .collect(Collectors.toList());
+        try (Stream<ModuleRepository.ModuleSimpleListing> modules = moduleRepository.streamAllSimpleListings()) {
+            modules.map(moduleMapper::toSimpleResponseDto).forEach(consumer);
+        }
     }
 
     @Override
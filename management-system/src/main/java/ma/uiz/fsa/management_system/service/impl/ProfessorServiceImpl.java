@@ -14,6 +14,8 @@ import ma.uiz.fsa.management_system.mapper.ProfessorMapper;
 import ma.uiz.fsa.management_system.model.entity.Professor;
 import ma.uiz.fsa.management_system.repository.ProfessorRepository;
 import ma.uiz.fsa.management_system.repository.RefreshTokenRepository;
+import ma.uiz.fsa.management_system.security.UserDetailsCache;
+import ma.uiz.fsa.management_system.security.jwt.JwtRevocationList;
 import ma.uiz.fsa.management_system.service.ProfessorService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -34,6 +36,8 @@ public class ProfessorServiceImpl implements ProfessorService {
     private final ProfessorMapper professorMapper;
     private final PasswordEncoder passwordEncoder;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtRevocationList jwtRevocationList;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
     @Transactional
@@ -167,6 +171,10 @@ public class ProfessorServiceImpl implements ProfessorService {
 
         professor.setEnabled(!professor.getEnabled());
         professorRepository.save(professor);
+        userDetailsCache.evict(professor.getEmail());
+        if (!professor.getEnabled()) {
+            jwtRevocationList.revokeAll(professor.getEmail());
+        }
 
         String status = professor.getEnabled() ? "enabled" : "disabled";
         log.info("Professor status toggled to {} for ID: {}", status, id);
@@ -197,6 +205,8 @@ public class ProfessorServiceImpl implements ProfessorService {
         }
 
         refreshTokenRepository.deleteByUser(professor);
+        jwtRevocationList.revokeAll(professor.getEmail());
+        userDetailsCache.evict(professor.getEmail());
 
         professorRepository.delete(professor);
         log.info("Professor deleted successfully with ID: {}", id);
@@ -223,6 +233,9 @@ public class ProfessorServiceImpl implements ProfessorService {
         // Update password
         professor.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
         professorRepository.save(professor);
+        refreshTokenRepository.revokeAllUserTokens(professor);
+        jwtRevocationList.revokeAll(professor.getEmail());
+        userDetailsCache.evict(professor.getEmail());
 
         log.info("Password changed successfully for professor ID: {}", id);
         return new MessageResponse("Password changed successfully", true);
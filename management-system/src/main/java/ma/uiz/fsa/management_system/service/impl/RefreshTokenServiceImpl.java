@@ -11,7 +11,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,18 +29,34 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
 
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
     @Value("${jwt.refresh-expiration}")
     private Long refreshTokenDurationMs;
 
+    @Value("${jwt.refresh-max-per-user:5}")
+    private Integer maxTokensPerUser;
+
+    /**
+     * Create a refresh token for the user. Only its hash is stored; the raw token is set on the returned
+     * entity for the response. When the user already holds the maximum number of active tokens,
+     * the oldest ones are deleted.
+     */
     @Override
     @Transactional
     public RefreshToken createRefreshToken(User user) {
-        // Revoke existing tokens for this user
-        revokeAllUserTokens(user);
+        List<UUID> activeTokenIds = refreshTokenRepository.findActiveTokenIdsByUser(user, LocalDateTime.now());
+        if (activeTokenIds.size() >= maxTokensPerUser) {
+            refreshTokenRepository.deleteAllByIdInBatch(
+                    activeTokenIds.subList(Math.max(maxTokensPerUser - 1, 0), activeTokenIds.size()));
+        }
+
+        String token = generateToken();
 
         RefreshToken refreshToken = RefreshToken.builder()
                 .user(user)
-                .token(UUID.randomUUID().toString())
+                .token(token)
+                .tokenHash(hash(token))
                 .expiryDate(LocalDateTime.now().plusSeconds(refreshTokenDurationMs / 1000))
                 .revoked(false)
                 .createdAt(LocalDateTime.now())
@@ -45,7 +68,7 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     @Override
     @Transactional(readOnly = true)
     public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        return refreshTokenRepository.findByTokenHash(hash(token));
     }
 
     @Override
@@ -77,4 +100,22 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     public void revokeAllUserTokens(User user) {
         refreshTokenRepository.revokeAllUserTokens(user);
     }
+
+    private static String generateToken() {
+        byte[] bytes = new byte[32];
+        SECURE_RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Hex-encoded SHA-256 of a refresh token, as stored in {@code refresh_tokens.token_hash}
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
\ No newline at end of file
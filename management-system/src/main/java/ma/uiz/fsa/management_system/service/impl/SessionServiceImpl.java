@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ma.uiz.fsa.management_system.dto.request.SessionRequestDto;
 import ma.uiz.fsa.management_system.dto.request.SessionUpdateDto;
+import ma.uiz.fsa.management_system.dto.response.GroupSimpleResponseDto;
 import ma.uiz.fsa.management_system.dto.response.MessageResponse;
 import ma.uiz.fsa.management_system.dto.response.SessionResponseDto;
 import ma.uiz.fsa.management_system.dto.response.SessionSimpleResponseDto;
@@ -13,9 +14,14 @@ import ma.uiz.fsa.management_system.mapper.SessionMapper;
 import ma.uiz.fsa.management_system.model.entity.*;
 import ma.uiz.fsa.management_system.model.entity.Module;
 import ma.uiz.fsa.management_system.model.enums.AttendanceMode;
+import ma.uiz.fsa.management_system.model.enums.QrCodeOwnerType;
 import ma.uiz.fsa.management_system.model.enums.SessionType;
 import ma.uiz.fsa.management_system.repository.*;
+import ma.uiz.fsa.management_system.service.AttendanceCounterService;
+import ma.uiz.fsa.management_system.service.QrArtifactCache;
 import ma.uiz.fsa.management_system.service.QrCodeService;
+import ma.uiz.fsa.management_system.service.SessionCloseScheduler;
+import ma.uiz.fsa.management_system.service.SessionEnrollmentCache;
 import ma.uiz.fsa.management_system.service.SessionService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
@@ -27,11 +33,16 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -45,6 +56,11 @@ public class SessionServiceImpl implements SessionService {
     private final LocationRepository locationRepository;
     private final SessionMapper sessionMapper;
     private final QrCodeService qrCodeService;
+    private final QrArtifactCache qrArtifactCache;
+    private final QrCodeImageRepository qrCodeImageRepository;
+    private final SessionCloseScheduler sessionCloseScheduler;
+    private final SessionEnrollmentCache sessionEnrollmentCache;
+    private final AttendanceCounterService attendanceCounterService;
 
     @Value("${attendance.grace-period-minutes:30}")
     private long gracePeriodMinutes;
@@ -134,12 +150,32 @@ public class SessionServiceImpl implements SessionService {
         log.debug("Generating QR code for newly created session {}", savedSession.getId());
         generateSessionQrCodeForNewSession(savedSession);
 
+        // Close attendance automatically once the grace period ends
+        sessionCloseScheduler.register(savedSession);
+
         log.info("Session created successfully with ID: {} and attendance mode: {}",
                 savedSession.getId(), savedSession.getAttendanceMode());
 
         return sessionMapper.toResponseDto(savedSession);
     }
 
+    /**
+     * Map a page of listing rows, loading the groups of all its sessions in one query
+     */
+    private Page<SessionResponseDto> toListingPage(Page<SessionRepository.SessionListing> listings) {
+        Map<UUID, List<GroupSimpleResponseDto>> groupsBySessionId = new HashMap<>();
+        if (listings.hasContent()) {
+            List<UUID> sessionIds = listings.map(SessionRepository.SessionListing::getId).getContent();
+            for (SessionRepository.SessionGroupSummary group :
+                    sessionRepository.findGroupSummariesBySessionIdIn(sessionIds)) {
+                groupsBySessionId.computeIfAbsent(group.getSessionId(), id -> new ArrayList<>())
+                        .add(sessionMapper.toGroupSimpleDto(group));
+            }
+        }
+        return listings.map(listing -> sessionMapper.toResponseDto(
+                listing, groupsBySessionId.getOrDefault(listing.getId(), new ArrayList<>())));
+    }
+
     /**
      * Generate QR code for a newly created session
      */
@@ -150,8 +186,8 @@ public class SessionServiceImpl implements SessionService {
                 LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
         );
 
-        // Generate QR code image as Base64
-        String qrCodeImageBase64 = qrCodeService.generateQrCodeBase64(qrCodeContent);
+        // Generate and store QR code image
+        saveQrCodeImage(session, qrCodeContent);
 
         // Set expiry time (session end + grace period)
         LocalDateTime expiryTime = session.getSchedule()
@@ -160,7 +196,6 @@ public class SessionServiceImpl implements SessionService {
 
         // Update session with QR code data
         session.setQrCode(qrCodeContent);
-        session.setQrCodeImage(qrCodeImageBase64);
         session.setQrCodeExpiry(expiryTime);
 
         // No need to save again, as this is called within the same transaction
@@ -189,9 +224,28 @@ public class SessionServiceImpl implements SessionService {
             throw new BadRequestException("Cannot reschedule past sessions");
         }
 
+        // Attendance of a session moving to another module is counted for the new module
+        boolean moduleChanged = requestDto.getModuleId() != null &&
+                (session.getModule() == null || !session.getModule().getId().equals(requestDto.getModuleId()));
+        if (moduleChanged) {
+            attendanceCounterService.sessionRecordsRemoving(id);
+        }
+
         sessionMapper.updateEntityFromUpdateDto(requestDto, session);
         Session updatedSession = sessionRepository.save(session);
 
+        if (moduleChanged) {
+            attendanceCounterService.sessionRecordsInserted(id);
+        }
+
+        // Schedule or duration may have changed
+        if (updatedSession.getIsCompleted()) {
+            sessionCloseScheduler.cancel(updatedSession.getId());
+        } else {
+            sessionCloseScheduler.register(updatedSession);
+        }
+        sessionEnrollmentCache.evictSession(updatedSession.getId());
+
         log.info("Session updated successfully with ID: {}", updatedSession.getId());
         return sessionMapper.toResponseDto(updatedSession);
     }
@@ -212,19 +266,17 @@ public class SessionServiceImpl implements SessionService {
     public Page<SessionResponseDto> getAllSessions(Pageable pageable) {
         log.debug("Fetching all sessions with pagination");
 
-        Page<Session> sessions = sessionRepository.findAll(pageable);
-        return sessions.map(sessionMapper::toResponseDto);
+        return toListingPage(sessionRepository.findAllListings(pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<SessionSimpleResponseDto> getAllSessionsSimple() {
-        log.debug("Fetching all sessions (simple)");
+    public void streamAllSessionsSimple(Consumer<SessionSimpleResponseDto> consumer) {
+        log.debug("Streaming all sessions (simple)");
 
-        List<Session> sessions = sessionRepository.findAll();
-        return sessions.stream()
-                .map(sessionMapper::toSimpleResponseDto)
-                .collect(Collectors.toList());
+        try (Stream<SessionRepository.SessionSimpleListing> sessions = sessionRepository.streamAllSimpleListings()) {
+            sessions.map(sessionMapper::toSimpleResponseDto).forEach(consumer);
+        }
     }
 
     @Override
@@ -232,8 +284,7 @@ public class SessionServiceImpl implements SessionService {
     public Page<SessionResponseDto> getSessionsByModule(UUID moduleId, Pageable pageable) {
         log.debug("Fetching sessions for module ID: {}", moduleId);
 
-        Page<Session> sessions = sessionRepository.findByModuleId(moduleId, pageable);
-        return sessions.map(sessionMapper::toResponseDto);
+        return toListingPage(sessionRepository.findListingsByModuleId(moduleId, pageable));
     }
 
     @Override
@@ -241,8 +292,7 @@ public class SessionServiceImpl implements SessionService {
     public Page<SessionResponseDto> getSessionsByProfessor(UUID professorId, Pageable pageable) {
         log.debug("Fetching sessions for professor ID: {}", professorId);
 
-        Page<Session> sessions = sessionRepository.findByProfessorId(professorId, pageable);
-        return sessions.map(sessionMapper::toResponseDto);
+        return toListingPage(sessionRepository.findListingsByProfessorId(professorId, pageable));
     }
 
     @Override
@@ -263,8 +313,7 @@ public class SessionServiceImpl implements SessionService {
     public Page<SessionResponseDto> getSessionsByGroup(UUID groupId, Pageable pageable) {
         log.debug("Fetching sessions for group ID: {}", groupId);
 
-        Page<Session> sessions = sessionRepository.findByGroupId(groupId, pageable);
-        return sessions.map(sessionMapper::toResponseDto);
+        return toListingPage(sessionRepository.findListingsByGroupId(groupId, pageable));
     }
 
     @Override
@@ -272,8 +321,7 @@ public class SessionServiceImpl implements SessionService {
     public Page<SessionResponseDto> getSessionsByType(SessionType type, Pageable pageable) {
         log.debug("Fetching sessions of type: {}", type);
 
-        Page<Session> sessions = sessionRepository.findByType(type, pageable);
-        return sessions.map(sessionMapper::toResponseDto);
+        return toListingPage(sessionRepository.findListingsByType(type, pageable));
     }
 
     @Override
@@ -286,8 +334,7 @@ public class SessionServiceImpl implements SessionService {
             throw new BadRequestException("Start date must be before end date");
         }
 
-        Page<Session> sessions = sessionRepository.findByScheduleBetween(startDate, endDate, pageable);
-        return sessions.map(sessionMapper::toResponseDto);
+        return toListingPage(sessionRepository.findListingsByScheduleBetween(startDate, endDate, pageable));
     }
 
     @Override
@@ -295,8 +342,7 @@ public class SessionServiceImpl implements SessionService {
     public Page<SessionResponseDto> getCompletedSessions(Pageable pageable) {
         log.debug("Fetching completed sessions");
 
-        Page<Session> sessions = sessionRepository.findByIsCompleted(true, pageable);
-        return sessions.map(sessionMapper::toResponseDto);
+        return toListingPage(sessionRepository.findListingsByIsCompleted(true, pageable));
     }
 
     @Override
@@ -304,8 +350,7 @@ public class SessionServiceImpl implements SessionService {
     public Page<SessionResponseDto> getIncompleteSessions(Pageable pageable) {
         log.debug("Fetching incomplete sessions");
 
-        Page<Session> sessions = sessionRepository.findByIsCompleted(false, pageable);
-        return sessions.map(sessionMapper::toResponseDto);
+        return toListingPage(sessionRepository.findListingsByIsCompleted(false, pageable));
     }
 
     @Override
@@ -313,8 +358,7 @@ public class SessionServiceImpl implements SessionService {
     public Page<SessionResponseDto> getUpcomingSessions(Pageable pageable) {
         log.debug("Fetching upcoming sessions");
 
-        Page<Session> sessions = sessionRepository.findUpcomingSessions(LocalDateTime.now(), pageable);
-        return sessions.map(sessionMapper::toResponseDto);
+        return toListingPage(sessionRepository.findUpcomingListings(LocalDateTime.now(), pageable));
     }
 
     @Override
@@ -322,8 +366,7 @@ public class SessionServiceImpl implements SessionService {
     public Page<SessionResponseDto> searchSessions(String searchTerm, Pageable pageable) {
         log.debug("Searching sessions with term: {}", searchTerm);
 
-        Page<Session> sessions = sessionRepository.searchSessions(searchTerm, pageable);
-        return sessions.map(sessionMapper::toResponseDto);
+        return toListingPage(sessionRepository.searchListings(searchTerm, pageable));
     }
 
     @Override
@@ -345,6 +388,7 @@ public class SessionServiceImpl implements SessionService {
 
         session.setIsCompleted(true);
         Session updatedSession = sessionRepository.save(session);
+        sessionCloseScheduler.cancel(id);
 
         log.info("Session marked as completed: {}", id);
         return sessionMapper.toResponseDto(updatedSession);
@@ -394,6 +438,8 @@ public class SessionServiceImpl implements SessionService {
 
         session.setGroups(currentGroups);
         sessionRepository.save(session);
+        sessionEnrollmentCache.evictSession(sessionId);
+        attendanceCounterService.groupsChanged(groupIds);
 
         log.info("Groups added successfully to session ID: {}", sessionId);
         return new MessageResponse("Groups added to session successfully", true);
@@ -420,6 +466,8 @@ public class SessionServiceImpl implements SessionService {
 
         session.getGroups().remove(group);
         sessionRepository.save(session);
+        sessionEnrollmentCache.evictSession(sessionId);
+        attendanceCounterService.groupsChanged(List.of(groupId));
 
         log.info("Group removed successfully from session ID: {}", sessionId);
         return new MessageResponse("Group removed from session successfully", true);
@@ -447,6 +495,9 @@ public class SessionServiceImpl implements SessionService {
         }
 
         sessionRepository.delete(session);
+        qrCodeImageRepository.deleteByOwnerId(id);
+        sessionCloseScheduler.cancel(id);
+        sessionEnrollmentCache.evictSession(id);
         log.info("Session deleted successfully with ID: {}", id);
     }
 
@@ -518,6 +569,18 @@ public class SessionServiceImpl implements SessionService {
         return generateSessionQrCodeInternal(session);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public QrArtifactCache.QrArtifact getSessionQrArtifact(UUID sessionId) {
+        // Only the QR content (its version) is read on a cache hit; the image column on a miss
+        String qrCode = sessionRepository.findQrCodeById(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("QR code not generated for this session"));
+
+        return qrArtifactCache.get(sessionId, qrCode, () ->
+                qrCodeImageRepository.findImageByOwnerIdAndQrCode(sessionId, qrCode)
+                        .orElseThrow(() -> new ResourceNotFoundException("QR code not generated for this session")));
+    }
+
     @Override
     @Transactional
     public String regenerateSessionQrCode(UUID sessionId) {
@@ -532,10 +595,9 @@ public class SessionServiceImpl implements SessionService {
                 LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
         );
 
-        String qrCodeImageBase64 = qrCodeService.generateQrCodeBase64(qrCodeContent);
+        saveQrCodeImage(session, qrCodeContent);
 
         session.setQrCode(qrCodeContent);
-        session.setQrCodeImage(qrCodeImageBase64);
 
         sessionRepository.save(session);
 
@@ -596,8 +658,8 @@ public class SessionServiceImpl implements SessionService {
                 LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
         );
 
-        // Generate QR code image as Base64
-        String qrCodeImageBase64 = qrCodeService.generateQrCodeBase64(qrCodeContent);
+        // Generate and store QR code image
+        saveQrCodeImage(session, qrCodeContent);
 
         // Set expiry time (session end + grace period)
         LocalDateTime expiryTime = session.getSchedule()
@@ -606,7 +668,6 @@ public class SessionServiceImpl implements SessionService {
 
         // Save to session
         session.setQrCode(qrCodeContent);
-        session.setQrCodeImage(qrCodeImageBase64);
         session.setQrCodeExpiry(expiryTime);
 
         sessionRepository.save(session);
@@ -614,4 +675,14 @@ public class SessionServiceImpl implements SessionService {
         log.info("QR code generated for session {}. Expires at: {}", session.getId(), expiryTime);
         return qrCodeContent;
     }
-}
\ No newline at end of file
+
+    private void saveQrCodeImage(Session session, String qrCodeContent) {
+        qrCodeImageRepository.save(QrCodeImage.builder()
+                .ownerId(session.getId())
+                .ownerType(QrCodeOwnerType.SESSION)
+                .qrCode(qrCodeContent)
+                .image(qrCodeService.generateQrCodeBytes(qrCodeContent))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
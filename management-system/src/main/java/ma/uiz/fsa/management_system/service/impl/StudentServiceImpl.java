@@ -1,9 +1,11 @@
 package ma.uiz.fsa.management_system.service.impl;
 
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ma.uiz.fsa.management_system.dto.request.BulkStudentRequestDto;
 import ma.uiz.fsa.management_system.dto.request.ChangePasswordRequest;
+import ma.uiz.fsa.management_system.dto.request.StudentBulkItemDto;
 import ma.uiz.fsa.management_system.dto.request.StudentRequestDto;
 import ma.uiz.fsa.management_system.dto.request.StudentUpdateDto;
 import ma.uiz.fsa.management_system.dto.response.*;
@@ -11,20 +13,38 @@ import ma.uiz.fsa.management_system.exception.BadRequestException;
 import ma.uiz.fsa.management_system.exception.ResourceNotFoundException;
 import ma.uiz.fsa.management_system.mapper.StudentMapper;
 import ma.uiz.fsa.management_system.model.entity.Group;
+import ma.uiz.fsa.management_system.model.entity.QrCodeImage;
 import ma.uiz.fsa.management_system.model.entity.Student;
+import ma.uiz.fsa.management_system.model.enums.QrCodeOwnerType;
+import ma.uiz.fsa.management_system.repository.FiliereRepository;
+import ma.uiz.fsa.management_system.repository.QrCodeImageRepository;
 import ma.uiz.fsa.management_system.repository.RefreshTokenRepository;
 import ma.uiz.fsa.management_system.repository.StudentRepository;
+import ma.uiz.fsa.management_system.repository.UserRepository;
+import ma.uiz.fsa.management_system.security.UserDetailsCache;
+import ma.uiz.fsa.management_system.security.jwt.JwtRevocationList;
+import ma.uiz.fsa.management_system.service.QrCodeBackfillService;
 import ma.uiz.fsa.management_system.service.QrCodeService;
+import ma.uiz.fsa.management_system.service.StudentBulkImporter;
+import ma.uiz.fsa.management_system.service.StudentRosterCsvReader;
 import ma.uiz.fsa.management_system.service.StudentService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -35,7 +55,19 @@ public class StudentServiceImpl implements StudentService {
     private final StudentMapper studentMapper;
     private final PasswordEncoder passwordEncoder;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtRevocationList jwtRevocationList;
+    private final UserDetailsCache userDetailsCache;
     private final QrCodeService qrCodeService;
+    private final QrCodeImageRepository qrCodeImageRepository;
+    private final QrCodeBackfillService qrCodeBackfillService;
+    private final StudentBulkImporter studentBulkImporter;
+    private final FiliereRepository filiereRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+
+    @Value("${student.bulk-import.chunk-size:500}")
+    private Integer importChunkSize;
 
     @Override
     @Transactional
@@ -43,71 +75,32 @@ public class StudentServiceImpl implements StudentService {
         log.info("Starting bulk student creation for {} students in filiere: {}",
                 requestDto.getStudents().size(), requestDto.getFiliereId());
 
+        long startNanos = System.nanoTime();
         List<StudentResponseDto> createdStudents = new ArrayList<>();
+        List<UUID> createdStudentIds = new ArrayList<>();
         List<BulkStudentResponseDto.BulkOperationError> errors = new ArrayList<>();
 
-        for (int i = 0; i < requestDto.getStudents().size(); i++) {
-            var studentItem = requestDto.getStudents().get(i);
-            try {
-                // Validate unique email
-                if (studentRepository.existsByEmail(studentItem.getEmail())) {
-                    throw new BadRequestException("Student with email '" + studentItem.getEmail() + "' already exists");
-                }
-
-                // Validate unique username
-                if (studentRepository.existsByUsername(studentItem.getUsername())) {
-                    throw new BadRequestException("Username '" + studentItem.getUsername() + "' is already taken");
-                }
-
-                // Validate unique CNE
-                if (studentRepository.existsByCne(studentItem.getCne().toUpperCase())) {
-                    throw new BadRequestException("Student with CNE '" + studentItem.getCne() + "' already exists");
-                }
+        // Whole batch validated and inserted at once; rejected rows are reported without aborting the others
+        for (StudentBulkImporter.RowOutcome outcome :
+                studentBulkImporter.importStudents(requestDto.getFiliereId(), requestDto.getStudents(), 0)) {
+            if (outcome.isSuccess()) {
+                Student savedStudent = outcome.student();
 
-                // Validate unique CIN
-                if (studentRepository.existsByCin(studentItem.getCin().toUpperCase())) {
-                    throw new BadRequestException("Student with CIN '" + studentItem.getCin() + "' already exists");
-                }
+                // QR content now; the image is rendered in the background once the import commits
+                savedStudent.setQrCode(qrCodeContentOf(savedStudent));
 
-                // Create StudentRequestDto with filiere from bulk request
-                StudentRequestDto studentRequest = StudentRequestDto.builder()
-                        .email(studentItem.getEmail())
-                        .password(studentItem.getPassword())
-                        .username(studentItem.getUsername())
-                        .cne(studentItem.getCne())
-                        .cin(studentItem.getCin())
-                        .firstName(studentItem.getFirstName())
-                        .lastName(studentItem.getLastName())
-                        .dateOfBirth(studentItem.getDateOfBirth())
-                        .filiereId(requestDto.getFiliereId())
-                        .phoneNumber(studentItem.getPhoneNumber())
-                        .address(studentItem.getAddress())
-                        .photoUrl(studentItem.getPhotoUrl())
-                        .build();
-
-                // Create student
-                Student student = studentMapper.toEntity(studentRequest);
-                Student savedStudent = studentRepository.save(student);
-
-                // Generate QR code
-                generateAndSaveQrCode(savedStudent);
-
-                // Add to successful list
                 createdStudents.add(studentMapper.toResponseDto(savedStudent));
-                log.debug("Successfully created student at index {} with CNE: {}", i, studentItem.getCne());
-
-            } catch (Exception e) {
-                // Log error and add to error list
-                log.error("Failed to create student at index {} with CNE: {}. Error: {}",
-                        i, studentItem.getCne(), e.getMessage());
-
-                BulkStudentResponseDto.BulkOperationError error = BulkStudentResponseDto.BulkOperationError.builder()
-                        .index(i)
-                        .email(studentItem.getEmail())
-                        .cne(studentItem.getCne())
-                        .errorMessage(e.getMessage())
-                        .build();
-                errors.add(error);
+                createdStudentIds.add(savedStudent.getId());
+            } else {
+                log.debug("Rejected student at index {} with CNE: {}. Error: {}",
+                        outcome.index(), outcome.item().getCne(), outcome.errorMessage());
+
+                errors.add(BulkStudentResponseDto.BulkOperationError.builder()
+                        .index(outcome.index())
+                        .email(outcome.item().getEmail())
+                        .cne(outcome.item().getCne())
+                        .errorMessage(outcome.errorMessage())
+                        .build());
             }
         }
 
@@ -115,10 +108,19 @@ public class StudentServiceImpl implements StudentService {
         int successCount = createdStudents.size();
         int failureCount = errors.size();
 
-        log.info("Bulk student creation completed. Total: {}, Success: {}, Failures: {}",
-                totalRequested, successCount, failureCount);
+        UUID importId = null;
+        if (!createdStudentIds.isEmpty()) {
+            importId = UUID.randomUUID();
+            qrCodeBackfillService.enqueueStudents(importId, createdStudentIds);
+        }
+
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        log.info("Bulk student creation completed. Total: {}, Success: {}, Failures: {} in {} s ({} rows/s)",
+                totalRequested, successCount, failureCount, String.format("%.3f", elapsedSeconds),
+                String.format("%.0f", elapsedSeconds > 0 ? successCount / elapsedSeconds : 0.0));
 
         return BulkStudentResponseDto.builder()
+                .importId(importId)
                 .totalRequested(totalRequested)
                 .successCount(successCount)
                 .failureCount(failureCount)
@@ -127,6 +129,160 @@ public class StudentServiceImpl implements StudentService {
                 .build();
     }
 
+    @Override
+    public StudentRosterCsvReader openRosterImport(UUID filiereId, InputStream csv) throws IOException {
+        if (!filiereRepository.existsById(filiereId)) {
+            throw new ResourceNotFoundException("Filiere not found with ID: " + filiereId);
+        }
+        return new StudentRosterCsvReader(csv);
+    }
+
+    @Override
+    public StudentImportSummaryDto importRoster(UUID filiereId, StudentRosterCsvReader roster,
+                                                Consumer<List<StudentImportRowDto>> chunkSink) {
+        log.info("Starting streamed roster import into filiere: {}", filiereId);
+
+        long startNanos = System.nanoTime();
+        UUID importId = UUID.randomUUID();
+        int totalRows = 0;
+        int successCount = 0;
+        List<StudentRosterCsvReader.Row> chunk = new ArrayList<>(importChunkSize);
+
+        // Only one chunk of rows is held at a time; each chunk is committed before the next one is read
+        try {
+            StudentRosterCsvReader.Row row;
+            while ((row = roster.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == importChunkSize) {
+                    successCount += importRosterChunk(filiereId, importId, chunk, chunkSink);
+                    totalRows += chunk.size();
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                successCount += importRosterChunk(filiereId, importId, chunk, chunkSink);
+                totalRows += chunk.size();
+            }
+        } catch (UncheckedIOException e) {
+            // The client went away; chunks already committed stay imported
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            log.error("Roster import {} aborted after {} rows: {}", importId, totalRows, e.getMessage());
+            return importSummary("ABORTED", importId, totalRows, successCount, e.getMessage());
+        }
+
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        log.info("Roster import {} completed. Total: {}, Success: {}, Failures: {} in {} s ({} rows/s)",
+                importId, totalRows, successCount, totalRows - successCount, String.format("%.3f", elapsedSeconds),
+                String.format("%.0f", elapsedSeconds > 0 ? successCount / elapsedSeconds : 0.0));
+
+        return importSummary("COMPLETED", importId, totalRows, successCount, null);
+    }
+
+    private static StudentImportSummaryDto importSummary(String status, UUID importId, int totalRows,
+                                                         int successCount, String errorMessage) {
+        return StudentImportSummaryDto.builder()
+                .status(status)
+                .importId(successCount > 0 ? importId : null)
+                .totalRows(totalRows)
+                .successCount(successCount)
+                .failureCount(totalRows - successCount)
+                .errorMessage(errorMessage)
+                .build();
+    }
+
+    /**
+     * Validate and import one chunk of roster rows in its own transaction, then report every row in file order.
+     * A chunk rejected by the database is reported as failed without affecting the chunks already committed.
+     *
+     * @return number of students created
+     */
+    private int importRosterChunk(UUID filiereId, UUID importId, List<StudentRosterCsvReader.Row> chunk,
+                                  Consumer<List<StudentImportRowDto>> chunkSink) {
+        StudentImportRowDto[] results = new StudentImportRowDto[chunk.size()];
+        List<Integer> validRows = new ArrayList<>(chunk.size());
+        List<StudentBulkItemDto> items = new ArrayList<>(chunk.size());
+
+        // 1. Rows that could not be parsed or break the DTO constraints never reach the database
+        for (int i = 0; i < chunk.size(); i++) {
+            StudentRosterCsvReader.Row row = chunk.get(i);
+            String error = row.error();
+            if (error == null) {
+                error = validator.validate(row.item()).stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+            }
+            if (error.isEmpty()) {
+                validRows.add(i);
+                items.add(row.item());
+            } else {
+                results[i] = failedRow(row, error);
+            }
+        }
+
+        // 2. The remaining rows go through the set-based bulk importer, committed as one unit
+        int created = 0;
+        if (!items.isEmpty()) {
+            try {
+                List<StudentImportRowDto> imported = transactionTemplate.execute(status -> {
+                    List<StudentImportRowDto> rows = new ArrayList<>(items.size());
+                    List<UUID> createdStudentIds = new ArrayList<>();
+
+                    List<StudentBulkImporter.RowOutcome> outcomes = studentBulkImporter.importStudents(filiereId, items, 0);
+                    for (StudentBulkImporter.RowOutcome outcome : outcomes) {
+                        StudentRosterCsvReader.Row row = chunk.get(validRows.get(outcome.index()));
+                        if (outcome.isSuccess()) {
+                            Student savedStudent = outcome.student();
+                            savedStudent.setQrCode(qrCodeContentOf(savedStudent));
+                            createdStudentIds.add(savedStudent.getId());
+                            rows.add(StudentImportRowDto.builder()
+                                    .status("CREATED")
+                                    .line(row.line())
+                                    .studentId(savedStudent.getId())
+                                    .email(savedStudent.getEmail())
+                                    .cne(savedStudent.getCne())
+                                    .build());
+                        } else {
+                            rows.add(failedRow(row, outcome.errorMessage()));
+                        }
+                    }
+
+                    if (!createdStudentIds.isEmpty()) {
+                        qrCodeBackfillService.enqueueStudents(importId, createdStudentIds);
+                    }
+                    return rows;
+                });
+
+                for (int n = 0; n < imported.size(); n++) {
+                    results[validRows.get(n)] = imported.get(n);
+                    if ("CREATED".equals(imported.get(n).getStatus())) {
+                        created++;
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Roster import {}: chunk starting at line {} failed: {}",
+                        importId, chunk.get(0).line(), e.getMessage());
+                for (int i : validRows) {
+                    results[i] = failedRow(chunk.get(i), "Chunk rejected by the database, row not imported");
+                }
+            }
+        }
+
+        chunkSink.accept(Arrays.asList(results));
+        return created;
+    }
+
+    private static StudentImportRowDto failedRow(StudentRosterCsvReader.Row row, String errorMessage) {
+        return StudentImportRowDto.builder()
+                .status("FAILED")
+                .line(row.line())
+                .email(row.item() != null ? row.item().getEmail() : null)
+                .cne(row.item() != null ? row.item().getCne() : null)
+                .errorMessage(errorMessage)
+                .build();
+    }
+
     @Override
     @Transactional
     public StudentResponseDto createStudent(StudentRequestDto requestDto) {
@@ -233,19 +389,17 @@ public class StudentServiceImpl implements StudentService {
     public Page<StudentResponseDto> getAllStudents(Pageable pageable) {
         log.debug("Fetching all students with pagination");
 
-        Page<Student> students = studentRepository.findAll(pageable);
-        return students.map(studentMapper::toResponseDto);
+        return toListingPage(studentRepository.findAllListings(pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<StudentSimpleResponseDto> getAllStudentsSimple() {
-        log.debug("Fetching all students (simple)");
+    public void streamAllStudentsSimple(Consumer<StudentSimpleResponseDto> consumer) {
+        log.debug("Streaming all students (simple)");
 
-        List<Student> students = studentRepository.findAll();
-        return students.stream()
-                .map(studentMapper::toSimpleResponseDto)
-                .collect(Collectors.toList());
+        try (Stream<StudentRepository.StudentSimpleListing> students = studentRepository.streamAllSimpleListings()) {
+            students.map(studentMapper::toSimpleResponseDto).forEach(consumer);
+        }
     }
 
     @Override
@@ -253,8 +407,7 @@ public class StudentServiceImpl implements StudentService {
     public Page<StudentResponseDto> getStudentsByFiliere(UUID filiereId, Pageable pageable) {
         log.debug("Fetching students for filiere ID: {}", filiereId);
 
-        Page<Student> students = studentRepository.findByFiliereId(filiereId, pageable);
-        return students.map(studentMapper::toResponseDto);
+        return toListingPage(studentRepository.findListingsByFiliereId(filiereId, pageable));
     }
 
     @Override
@@ -262,8 +415,7 @@ public class StudentServiceImpl implements StudentService {
     public Page<StudentResponseDto> getStudentsByGroup(UUID groupId, Pageable pageable) {
         log.debug("Fetching students for group ID: {}", groupId);
 
-        Page<Student> students = studentRepository.findByGroupId(groupId, pageable);
-        return students.map(studentMapper::toResponseDto);
+        return toListingPage(studentRepository.findListingsByGroupId(groupId, pageable));
     }
 
     @Override
@@ -271,8 +423,7 @@ public class StudentServiceImpl implements StudentService {
     public Page<StudentResponseDto> searchStudents(String searchTerm, Pageable pageable) {
         log.debug("Searching students with term: {}", searchTerm);
 
-        Page<Student> students = studentRepository.searchStudents(searchTerm, pageable);
-        return students.map(studentMapper::toResponseDto);
+        return toListingPage(studentRepository.searchListings(searchTerm, pageable));
     }
 
     @Override
@@ -280,8 +431,7 @@ public class StudentServiceImpl implements StudentService {
     public Page<StudentResponseDto> getActiveStudents(Pageable pageable) {
         log.debug("Fetching active students");
 
-        Page<Student> students = studentRepository.findByEnabled(true, pageable);
-        return students.map(studentMapper::toResponseDto);
+        return toListingPage(studentRepository.findListingsByEnabled(true, pageable));
     }
 
     @Override
@@ -294,6 +444,10 @@ public class StudentServiceImpl implements StudentService {
 
         student.setEnabled(!student.getEnabled());
         studentRepository.save(student);
+        userDetailsCache.evict(student.getEmail());
+        if (!student.getEnabled()) {
+            jwtRevocationList.revokeAll(student.getEmail());
+        }
 
         String status = student.getEnabled() ? "enabled" : "disabled";
         log.info("Student status toggled to {} for ID: {}", status, id);
@@ -317,8 +471,11 @@ public class StudentServiceImpl implements StudentService {
 
         // Delete refresh tokens
         refreshTokenRepository.deleteByUser(student);
+        jwtRevocationList.revokeAll(student.getEmail());
+        userDetailsCache.evict(student.getEmail());
 
         studentRepository.delete(student);
+        qrCodeImageRepository.deleteByOwnerId(id);
         log.info("Student deleted successfully with ID: {}", id);
     }
 
@@ -372,6 +529,9 @@ public class StudentServiceImpl implements StudentService {
         // Update password
         student.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
         studentRepository.save(student);
+        refreshTokenRepository.revokeAllUserTokens(student);
+        jwtRevocationList.revokeAll(student.getEmail());
+        userDetailsCache.evict(student.getEmail());
 
         log.info("Password changed successfully for student ID: {}", id);
         return new MessageResponse("Password changed successfully", true);
@@ -391,16 +551,47 @@ public class StudentServiceImpl implements StudentService {
         return student.getQrCode();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public QrCodeBackfillStatusDto getBulkQrCodeStatus(UUID importId) {
+        return qrCodeBackfillService.getStatus(importId);
+    }
+
+    /**
+     * Map a page of listing rows, loading the roles of all its students in one query
+     */
+    private Page<StudentResponseDto> toListingPage(Page<StudentRepository.StudentListing> listings) {
+        Map<UUID, Set<String>> rolesByStudentId = new HashMap<>();
+        if (listings.hasContent()) {
+            List<UUID> studentIds = listings.map(StudentRepository.StudentListing::getId).getContent();
+            for (UserRepository.UserRoleName role : userRepository.findRoleNamesByUserIdIn(studentIds)) {
+                rolesByStudentId.computeIfAbsent(role.getUserId(), id -> new HashSet<>()).add(role.getRoleName().name());
+            }
+        }
+        return listings.map(listing -> studentMapper.toResponseDto(
+                listing, rolesByStudentId.getOrDefault(listing.getId(), Set.of())));
+    }
+
+    private String qrCodeContentOf(Student student) {
+        return "STUDENT:" + student.getId() + ":" + student.getCne();
+    }
+
     private void generateAndSaveQrCode(Student student) {
         // Generate QR code content
-        String qrCodeContent = "STUDENT:" + student.getId() + ":" + student.getCne();
-
-        // Generate QR code image as Base64
-        String qrCodeImageBase64 = qrCodeService.generateQrCodeBase64(qrCodeContent);
+        String qrCodeContent = qrCodeContentOf(student);
+
+        // Generate QR code image, stored apart from the student row
+        byte[] qrCodeImage = qrCodeService.generateQrCodeBytes(qrCodeContent);
+        qrCodeImageRepository.save(QrCodeImage.builder()
+                .ownerId(student.getId())
+                .ownerType(QrCodeOwnerType.STUDENT)
+                .qrCode(qrCodeContent)
+                .image(qrCodeImage)
+                .createdAt(LocalDateTime.now())
+                .build());
 
         // Save to student
         student.setQrCode(qrCodeContent);
-        student.setQrCodeImage(qrCodeImageBase64);
 
         studentRepository.save(student);
     }
@@ -424,12 +615,13 @@ public class StudentServiceImpl implements StudentService {
         }
 
         // Validate QR code exists
-        if (student.getQrCodeImage() == null || student.getQrCodeImage().isEmpty()) {
+        if (student.getQrCode() == null) {
             throw new ResourceNotFoundException("QR code not found for student: " + student.getCne());
         }
 
-        // Decode Base64 to bytes
-        byte[] imageBytes = Base64.getDecoder().decode(student.getQrCodeImage());
+        // Render on the fly while a bulk import's image is still queued
+        byte[] imageBytes = qrCodeImageRepository.findImageByOwnerId(studentId)
+                .orElseGet(() -> qrCodeService.generateQrCodeBytes(student.getQrCode()));
 
         return QrCodeResponseDto.builder()
                 .imageBytes(imageBytes)
@@ -0,0 +1,71 @@
+package ma.uiz.fsa.management_system.dto.request;
+
+import ma.uiz.fsa.management_system.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_793_000),
+                UUID.fromString("0f8b1a52-8c1e-4d5e-9d7a-3b2c1a0f9e8d"));
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+        assertThat(KeysetCursor.decode(encoded)).isEqualTo(cursor);
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {"  "})
+    void startsAtTheFirstRowWithoutCursor(String cursor) {
+        assertThat(KeysetCursor.decode(cursor)).isSameAs(KeysetCursor.FIRST);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "not a cursor!",
+            "2025-03-14T09:26:53",
+            "2025-03-14T09:26:53|",
+            "yesterday|0f8b1a52-8c1e-4d5e-9d7a-3b2c1a0f9e8d",
+            "2025-03-14T09:26:53|not-a-uuid"
+    })
+    void rejectsCursorsItDidNotProduce(String position) {
+        String cursor = position.equals("not a cursor!")
+                ? position
+                : Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor: " + cursor);
+    }
+
+    @Test
+    void readsOneRowMoreThanThePageSize() {
+        Pageable window = KeysetCursor.window(50);
+
+        assertThat(window.getPageNumber()).isZero();
+        assertThat(window.getPageSize()).isEqualTo(51);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, KeysetCursor.MAX_PAGE_SIZE + 1})
+    void rejectsPageSizesOutOfBounds(int size) {
+        assertThatThrownBy(() -> KeysetCursor.window(size))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Page size must be between 1 and " + KeysetCursor.MAX_PAGE_SIZE);
+    }
+}
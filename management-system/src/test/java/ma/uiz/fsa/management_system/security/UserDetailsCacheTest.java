@@ -0,0 +1,114 @@
+package ma.uiz.fsa.management_system.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserDetailsCacheTest {
+
+    private static final String EMAIL = "alice@uiz.ma";
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, UserDetails> loader = email -> {
+        loads.incrementAndGet();
+        return new AuthenticatedUser(UUID.randomUUID(), "alice", email, "{bcrypt}hash", true, true, true, true,
+                AuthorityUtils.createAuthorityList("ROLE_STUDENT"));
+    };
+
+    @Test
+    void servesRepeatedLookupsFromTheCache() {
+        UserDetailsCache cache = cache(10, Duration.ofMinutes(5));
+
+        cache.get(EMAIL, loader);
+        UserDetails cached = cache.get(EMAIL, loader);
+
+        assertThat(loads).hasValue(1);
+        assertThat(cached.getUsername()).isEqualTo(EMAIL);
+        assertThat(cached.getAuthorities()).extracting("authority").containsExactly("ROLE_STUDENT");
+    }
+
+    @Test
+    void returnsCopiesSoErasedCredentialsDoNotLeakIntoTheCache() {
+        UserDetailsCache cache = cache(10, Duration.ofMinutes(5));
+
+        ((AuthenticatedUser) cache.get(EMAIL, loader)).eraseCredentials();
+        ((AuthenticatedUser) cache.get(EMAIL, loader)).eraseCredentials();
+
+        assertThat(cache.get(EMAIL, loader).getPassword()).isEqualTo("{bcrypt}hash");
+        assertThat(cache.get(EMAIL, loader)).isInstanceOf(AuthenticatedUser.class);
+    }
+
+    @Test
+    void reloadsAfterEviction() {
+        UserDetailsCache cache = cache(10, Duration.ofMinutes(5));
+
+        cache.get(EMAIL, loader);
+        cache.evict(EMAIL);
+        cache.get(EMAIL, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void doesNotCacheALoadThatRacedWithAnEviction() {
+        UserDetailsCache cache = cache(10, Duration.ofMinutes(5));
+
+        // The eviction lands while the first load is reading the old state
+        cache.get(EMAIL, email -> {
+            cache.evict(email);
+            return loader.apply(email);
+        });
+        cache.get(EMAIL, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void reloadsExpiredEntries() {
+        UserDetailsCache cache = cache(10, Duration.ZERO);
+
+        cache.get(EMAIL, loader);
+        cache.get(EMAIL, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void dropsTheLeastRecentlyUsedEntryBeyondMaxSize() {
+        UserDetailsCache cache = cache(2, Duration.ofMinutes(5));
+
+        cache.get("a@uiz.ma", loader);
+        cache.get("b@uiz.ma", loader);
+        cache.get("a@uiz.ma", loader);
+        cache.get("c@uiz.ma", loader);
+        assertThat(loads).hasValue(3);
+
+        cache.get("a@uiz.ma", loader);
+        assertThat(loads).hasValue(3);
+        cache.get("b@uiz.ma", loader);
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void alwaysLoadsWhenDisabled() {
+        UserDetailsCache cache = new UserDetailsCache(new SimpleMeterRegistry(), false, 10, Duration.ofMinutes(5));
+
+        cache.get(EMAIL, loader);
+        cache.get(EMAIL, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private static UserDetailsCache cache(int maxSize, Duration ttl) {
+        return new UserDetailsCache(new SimpleMeterRegistry(), true, maxSize, ttl);
+    }
+}
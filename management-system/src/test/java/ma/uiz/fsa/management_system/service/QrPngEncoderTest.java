@@ -0,0 +1,84 @@
+package ma.uiz.fsa.management_system.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QrPngEncoderTest {
+
+    private static final int BLACK = 0xFF000000;
+    private static final int WHITE = 0xFFFFFFFF;
+
+    private final QrPngEncoder encoder = new QrPngEncoder();
+
+    @Test
+    void writesAPngWithTheMatrixPixels() throws Exception {
+        BitMatrix matrix = qrCode("STUDENT:CNE123456", 300);
+
+        byte[] png = encoder.encode(matrix);
+
+        assertThat(png).startsWith(0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n');
+        assertPixels(matrix, decode(png));
+    }
+
+    @Test
+    void handlesWidthsThatAreNotAMultipleOfEight() throws Exception {
+        BitMatrix matrix = qrCode("SESSION:42", 101);
+
+        assertPixels(matrix, decode(encoder.encode(matrix)));
+    }
+
+    @Test
+    void reusesItsBuffersAcrossImagesOfDifferentSizes() throws Exception {
+        BitMatrix large = qrCode("STUDENT:" + "X".repeat(200), 600);
+        BitMatrix small = qrCode("S", 50);
+
+        encoder.encode(large);
+        byte[] smallPng = encoder.encode(small);
+        byte[] largePng = encoder.encode(large);
+
+        assertPixels(small, decode(smallPng));
+        assertPixels(large, decode(largePng));
+    }
+
+    @Test
+    void releasesItsDeflaterWhenClosed() throws Exception {
+        QrPngEncoder closed = new QrPngEncoder();
+        closed.close();
+
+        assertThatThrownBy(() -> closed.encode(qrCode("S", 50)))
+                .hasMessageContaining("closed");
+    }
+
+    private static BitMatrix qrCode(String content, int size) throws WriterException {
+        return new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, size, size);
+    }
+
+    private static BufferedImage decode(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertThat(image).isNotNull();
+        return image;
+    }
+
+    private static void assertPixels(BitMatrix matrix, BufferedImage image) {
+        assertThat(image.getWidth()).isEqualTo(matrix.getWidth());
+        assertThat(image.getHeight()).isEqualTo(matrix.getHeight());
+        for (int y = 0; y < matrix.getHeight(); y++) {
+            for (int x = 0; x < matrix.getWidth(); x++) {
+                assertThat(image.getRGB(x, y))
+                        .as("pixel (%d, %d)", x, y)
+                        .isEqualTo(matrix.get(x, y) ? BLACK : WHITE);
+            }
+        }
+    }
+}
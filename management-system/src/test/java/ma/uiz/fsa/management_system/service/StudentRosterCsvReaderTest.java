@@ -0,0 +1,160 @@
+package ma.uiz.fsa.management_system.service;
+
+import ma.uiz.fsa.management_system.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StudentRosterCsvReaderTest {
+
+    private static final String HEADER = "email,password,username,cne,cin,firstName,lastName,dateOfBirth,address";
+
+    @Test
+    void readsRowsWithTheirLineNumbers() throws IOException {
+        List<StudentRosterCsvReader.Row> rows = readAll(HEADER + "\n"
+                + "a@uiz.ma,secret123,alice,C1,K1,Alice,Amrani,2001-02-03,Agadir\n"
+                + "\n"
+                + "b@uiz.ma,secret123,bob,C2,K2,Bob,Bennani,2002-04-05,\n");
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).line()).isEqualTo(2);
+        assertThat(rows.get(0).error()).isNull();
+        assertThat(rows.get(0).item().getEmail()).isEqualTo("a@uiz.ma");
+        assertThat(rows.get(0).item().getDateOfBirth()).isEqualTo(LocalDate.of(2001, 2, 3));
+        assertThat(rows.get(0).item().getAddress()).isEqualTo("Agadir");
+
+        // Blank lines are skipped but still counted
+        assertThat(rows.get(1).line()).isEqualTo(4);
+        assertThat(rows.get(1).item().getAddress()).isNull();
+    }
+
+    @Test
+    void matchesHeaderVariantsSemicolonsAndByteOrderMark() throws IOException {
+        List<StudentRosterCsvReader.Row> rows = readAll("\uFEFFEmail;Password;user_name;CNE;CIN;First Name;"
+                + "last-name;Date Of Birth\n"
+                + "a@uiz.ma;secret123;alice;C1;K1;Alice;Amrani;03/02/2001\n");
+
+        assertThat(rows).singleElement().satisfies(row -> {
+            assertThat(row.error()).isNull();
+            assertThat(row.item().getUsername()).isEqualTo("alice");
+            assertThat(row.item().getFirstName()).isEqualTo("Alice");
+            assertThat(row.item().getLastName()).isEqualTo("Amrani");
+            assertThat(row.item().getDateOfBirth()).isEqualTo(LocalDate.of(2001, 2, 3));
+        });
+    }
+
+    @Test
+    void unquotesFieldsWithSeparatorsEscapedQuotesAndLineBreaks() throws IOException {
+        List<StudentRosterCsvReader.Row> rows = readAll(HEADER + "\n"
+                + "a@uiz.ma,secret123,alice,C1,K1,\"Alice, \"\"Ali\"\"\",Amrani,2001-02-03,\"12 Rue Hassan II\n"
+                + "Agadir\"\n"
+                + "b@uiz.ma,secret123,bob,C2,K2,Bob,Bennani,2002-04-05,Tiznit\n");
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).item().getFirstName()).isEqualTo("Alice, \"Ali\"");
+        assertThat(rows.get(0).item().getAddress()).isEqualTo("12 Rue Hassan II\nAgadir");
+        assertThat(rows.get(1).line()).isEqualTo(4);
+        assertThat(rows.get(1).item().getAddress()).isEqualTo("Tiznit");
+    }
+
+    @Test
+    void reportsInvalidDatesAsErrorRows() throws IOException {
+        List<StudentRosterCsvReader.Row> rows = readAll(HEADER + "\n"
+                + "a@uiz.ma,secret123,alice,C1,K1,Alice,Amrani,2001-13-40,\n"
+                + "b@uiz.ma,secret123,bob,C2,K2,Bob,Bennani,2002-04-05,\n");
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).item()).isNull();
+        assertThat(rows.get(0).error()).isEqualTo("Invalid date of birth '2001-13-40'");
+        assertThat(rows.get(1).error()).isNull();
+    }
+
+    @Test
+    void reportsUnterminatedQuoteAsErrorRow() throws IOException {
+        List<StudentRosterCsvReader.Row> rows = readAll(HEADER + "\n"
+                + "a@uiz.ma,secret123,alice,C1,K1,\"Alice,Amrani,2001-02-03,\n");
+
+        assertThat(rows).singleElement().satisfies(row -> {
+            assertThat(row.line()).isEqualTo(2);
+            assertThat(row.item()).isNull();
+            assertThat(row.error()).isEqualTo("Unterminated quoted field");
+        });
+    }
+
+    @Test
+    void stopsAStrayQuoteFromSwallowingTheFile() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER).append('\n')
+                .append("a@uiz.ma,secret123,alice,C1,K1,\"Alice,Amrani,2001-02-03,\n");
+        for (int i = 0; i < 200; i++) {
+            csv.append("x@uiz.ma,secret123,user").append(i).append(",C,K,First,Last,2001-02-03,")
+                    .append("a".repeat(40)).append('\n');
+        }
+
+        StudentRosterCsvReader.Row row = readAll(csv.toString()).get(0);
+
+        assertThat(row.item()).isNull();
+        assertThat(row.error()).isEqualTo("Row exceeds 8192 characters");
+    }
+
+    @Test
+    void rejectsEmptyFile() {
+        assertThatThrownBy(() -> readAll(""))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("The roster file is empty");
+    }
+
+    @Test
+    void rejectsMissingColumns() {
+        assertThatThrownBy(() -> readAll("email,password,username,cne\n"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("The roster file is missing the columns: cin, firstname, lastname, dateofbirth");
+    }
+
+    @Test
+    void readsFiftyThousandRows() throws IOException {
+        int count = 50_000;
+        StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        for (int i = 0; i < count; i++) {
+            csv.append("student").append(i).append("@uiz.ma,secret123,student").append(i)
+                    .append(",CNE").append(i).append(",CIN").append(i)
+                    .append(",First").append(i).append(",Last").append(i).append(",2001-02-03,\"Agadir, Maroc\"\n");
+        }
+
+        int read = 0;
+        StudentRosterCsvReader.Row last = null;
+        try (StudentRosterCsvReader reader = open(csv.toString())) {
+            for (StudentRosterCsvReader.Row row = reader.next(); row != null; row = reader.next()) {
+                assertThat(row.error()).isNull();
+                last = row;
+                read++;
+            }
+        }
+
+        assertThat(read).isEqualTo(count);
+        assertThat(last.line()).isEqualTo(count + 1);
+        assertThat(last.item().getCne()).isEqualTo("CNE" + (count - 1));
+        assertThat(last.item().getAddress()).isEqualTo("Agadir, Maroc");
+    }
+
+    private static List<StudentRosterCsvReader.Row> readAll(String csv) throws IOException {
+        List<StudentRosterCsvReader.Row> rows = new ArrayList<>();
+        try (StudentRosterCsvReader reader = open(csv)) {
+            for (StudentRosterCsvReader.Row row = reader.next(); row != null; row = reader.next()) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static StudentRosterCsvReader open(String csv) throws IOException {
+        return new StudentRosterCsvReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}